@@ -1,55 +1,67 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.BrickDebris;
 import bricker.gameobjects.Brick;
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
+import bricker.utils.GameObjectCommandBuffer;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 import bricker.gameobjects.Heart;
 import bricker.utils.LivesManager;
+import bricker.utils.SpawnScheduler;
 
 /**
  * The AddLifeStrategy class implements the CollisionStrategy interface
  * and defines the strategy for handling collisions that drop a heart,
  * which can add one life when collected by the player's paddle in the Brick Breaker game.
  */
-public class AddLifeStrategy implements CollisionStrategy {
+public class AddLifeStrategy implements CollisionStrategy, CollisionEffect {
 
     private final Vector2 HEART_VELOCITY = new Vector2(0, 100);  // Velocity of the dropped heart.
-    private final GameObjectCollection gameObjects;
+    private final GameObjectCommandBuffer gameObjects;
     private final Renderable heartImage;             // Renderable representing the heart image.
     private final float heartSize;                   // Size of the dropped heart.
+    private final Vector2 heartDimensions;           // Dimensions of the dropped heart.
     private final Vector2 windowDimensions;          // Dimensions of the game window.
     private final LivesManager livesManager;         // Manages the player's lives.
     private final BasicCollisionStrategy basicCollisionStrategy;
     private final String mainPaddleTag;
+    private final SpawnScheduler spawnScheduler;     // Creates the hearts after the collision.
+    private final int heartSpawnKind;
 
     /**
      * Constructs a new AddLifeStrategy instance.
      *
-     * @param gameObjects       Collection of GameObjects in the game.
+     * @param gameObjects       Buffered changes to the GameObjects in the game.
      * @param bricksCounter     Counter for tracking the number of bricks.
+     * @param debris            Shows the debris of the removed brick. Can be null.
      * @param heartImage        Renderable representing the heart image.
      * @param heartSize         Size of the dropped heart.
      * @param windowDimensions  Dimensions of the game window.
      * @param livesManager      Manages the player's lives.
      * @param mainPaddleTag      Tag of mainPaddle object type.
+     * @param spawnScheduler    Spreads the creation of spawned objects over frames.
      */
     AddLifeStrategy(
-            GameObjectCollection gameObjects,
+            GameObjectCommandBuffer gameObjects,
             Counter bricksCounter,
+            BrickDebris debris,
             Renderable heartImage,
             float heartSize,
             Vector2 windowDimensions,
-            LivesManager livesManager, String mainPaddleTag) {
+            LivesManager livesManager, String mainPaddleTag,
+            SpawnScheduler spawnScheduler) {
         this.mainPaddleTag = mainPaddleTag;
-        basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter);
+        basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter, debris);
         this.gameObjects = gameObjects;
         this.heartImage = heartImage;
         this.heartSize = heartSize;
+        this.heartDimensions = new Vector2(heartSize, heartSize);
         this.windowDimensions = windowDimensions;
         this.livesManager = livesManager;
+        this.spawnScheduler = spawnScheduler;
+        this.heartSpawnKind = spawnScheduler.register(this::spawnHeart, SpawnScheduler.Priority.LOW);
     }
 
     /**
@@ -61,12 +73,35 @@ public class AddLifeStrategy implements CollisionStrategy {
      */
     public void onCollision(GameObject thisObj, GameObject otherObj) {
         basicCollisionStrategy.onCollision(thisObj, otherObj);
+        applyEffect(thisObj, otherObj);
+    }
 
+    /**
+     * Requests a heart dropping from the center of the brick, without removing the brick.
+     * The heart is created by the spawn scheduler, possibly a few frames later.
+     *
+     * @param thisObj  The GameObject with this collision strategy.
+     * @param otherObj The other GameObject involved in the collision.
+     */
+    @Override
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
         // Drop a heart GameObject at the center of the destroyed brick
+        Vector2 brickCorner = thisObj.getTopLeftCorner();
+        Vector2 brickDimensions = thisObj.getDimensions();
+        spawnScheduler.request(heartSpawnKind,
+                new Vector2(brickCorner.x() + (brickDimensions.x() - heartSize) / 2,
+                        brickCorner.y() + (brickDimensions.y() - heartSize) / 2));
+    }
+
+    /**
+     * Adds a falling heart to the game.
+     *
+     * @param topLeftCorner The top left corner of the new heart.
+     */
+    private void spawnHeart(Vector2 topLeftCorner) {
         Heart heart = new Heart(
-                new Vector2(thisObj.getCenter().x() - heartSize / 2,
-                        thisObj.getCenter().y() - heartSize / 2),
-                new Vector2(heartSize, heartSize),
+                topLeftCorner,
+                heartDimensions,
                 heartImage,
                 gameObjects,
                 windowDimensions,
@@ -1,14 +1,15 @@
 package bricker.brick_strategies;
 
-import bricker.gameobjects.Brick;
+import bricker.gameobjects.BrickDebris;
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.UserInputListener;
+import bricker.utils.GameObjectCommandBuffer;
+import bricker.input.PaddleInput;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 import bricker.gameobjects.Paddle;
 import bricker.gameobjects.SecondPaddle;
+import bricker.utils.EffectScheduler;
 
 /**
  * The AddPaddleStrategy class implements the CollisionStrategy interface
@@ -16,38 +17,47 @@ import bricker.gameobjects.SecondPaddle;
  * in the Brick Breaker game. It also serves as a communication point to inform
  * about the existence of the second paddle.
  */
-class AddPaddleStrategy implements CollisionStrategy {
+class AddPaddleStrategy implements CollisionStrategy, CollisionEffect {
 
-    private final GameObjectCollection gameObjects;  // Collection of GameObjects in the game.
-//    private static boolean secondPaddle;            // Flag indicating the existence of the second paddle.
+    private final GameObjectCommandBuffer gameObjects;  // Buffered changes to the GameObjects in the game.
     private final Vector2 windowDimensions;          // Dimensions of the game window.
     private final Renderable paddleImage;            // Renderable representing the paddle image.
-    private final UserInputListener inputListener;   // Input listener for keyboard events.
+    private final PaddleInput paddleInput;           // Source of the paddle's movement commands.
     private final Vector2 paddleSize;                // Size of the paddle.
     private final BasicCollisionStrategy basicCollisionStrategy;
+    private final Counter secondPaddlesCounter;      // Counter of second paddles in the game.
+    private final EffectScheduler effectScheduler;   // Removes the second paddle after its hits.
 
     /**
      * Constructs a new AddPaddleStrategy instance.
      *
-     * @param gameObjects       Collection of GameObjects in the game.
+     * @param gameObjects       Buffered changes to the GameObjects in the game.
      * @param bricksCounter     Counter for tracking the number of bricks.
+     * @param debris            Shows the debris of the removed brick. Can be null.
      * @param windowDimensions  Dimensions of the game window.
      * @param paddleImage       Renderable representing the paddle image.
-     * @param inputListener     Input listener for keyboard events.
+     * @param paddleInput       Source of the paddle's movement commands.
      * @param paddleSize        Size of the paddle.
+     * @param secondPaddlesCounter Counter of second paddles in the game.
+     * @param effectScheduler   The scheduler removing the second paddle after its hits.
      */
-    public AddPaddleStrategy(GameObjectCollection gameObjects,
+    public AddPaddleStrategy(GameObjectCommandBuffer gameObjects,
                              Counter bricksCounter,
+                             BrickDebris debris,
                              Vector2 windowDimensions,
                              Renderable paddleImage,
-                             UserInputListener inputListener,
-                             Vector2 paddleSize) {
-        basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter);
+                             PaddleInput paddleInput,
+                             Vector2 paddleSize,
+                             Counter secondPaddlesCounter,
+                             EffectScheduler effectScheduler) {
+        basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter, debris);
         this.gameObjects = gameObjects;
         this.windowDimensions = windowDimensions;
         this.paddleImage = paddleImage;
-        this.inputListener = inputListener;
+        this.paddleInput = paddleInput;
         this.paddleSize = paddleSize;
+        this.secondPaddlesCounter = secondPaddlesCounter;
+        this.effectScheduler = effectScheduler;
     }
 
     /**
@@ -58,23 +68,34 @@ class AddPaddleStrategy implements CollisionStrategy {
      */
     @Override
     public void onCollision(GameObject thisObj, GameObject otherObj) {
-
-        // Check if brick already died or the second paddle already exists
         basicCollisionStrategy.onCollision(thisObj, otherObj);
+        applyEffect(thisObj, otherObj);
+    }
 
-        if (SecondPaddle.isActive()){
+    /**
+     * Adds a second paddle if it doesn't already exist, without removing the brick.
+     *
+     * @param thisObj  The GameObject with this collision strategy.
+     * @param otherObj The other GameObject involved in the collision.
+     */
+    @Override
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
+        // Check if the second paddle already exists
+        if (secondPaddlesCounter.value() > 0){
             return;
         }
 
         // Add a second paddle to the game
-        SecondPaddle.activate();
+        secondPaddlesCounter.increment();
         Paddle secondPaddle = new SecondPaddle(
                 new Vector2(windowDimensions.x() / 2 - paddleSize.x() / 2, windowDimensions.y() / 2),
                 paddleSize,
                 paddleImage,
-                inputListener,
+                paddleInput,
                 windowDimensions.x(),
-                gameObjects);
+                gameObjects,
+                secondPaddlesCounter,
+                effectScheduler);
         gameObjects.addGameObject(secondPaddle);
     }
 
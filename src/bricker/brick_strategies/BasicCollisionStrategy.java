@@ -1,8 +1,9 @@
 package bricker.brick_strategies;
 
 import bricker.gameobjects.Brick;
+import bricker.gameobjects.BrickDebris;
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
+import bricker.utils.GameObjectCommandBuffer;
 import danogl.collisions.Layer;
 import danogl.util.Counter;
 
@@ -13,19 +14,32 @@ import danogl.util.Counter;
  */
 class BasicCollisionStrategy implements CollisionStrategy {
 
-    private final GameObjectCollection gameObjects;  // Collection of GameObjects in the game.
+    private final GameObjectCommandBuffer gameObjects;  // Buffered changes to the GameObjects in the game.
     private final Counter bricksCounter;             // Counter for tracking the number of bricks.
+    private final BrickDebris debris;                // Shows the removed bricks' debris, or null.
 
     /**
      * Constructs a new BasicCollisionStrategy instance.
      *
-     * @param gameObjects   Collection of GameObjects in the game.
+     * @param gameObjects   Buffered changes to the GameObjects in the game.
      * @param bricksCounter Counter for tracking the number of bricks.
      */
-    BasicCollisionStrategy(GameObjectCollection gameObjects, Counter bricksCounter) {
+    BasicCollisionStrategy(GameObjectCommandBuffer gameObjects, Counter bricksCounter) {
+        this(gameObjects, bricksCounter, null);
+    }
+
+    /**
+     * Constructs a new BasicCollisionStrategy instance showing the debris of the bricks it removes.
+     *
+     * @param gameObjects   Buffered changes to the GameObjects in the game.
+     * @param bricksCounter Counter for tracking the number of bricks.
+     * @param debris        Shows the debris of the removed bricks. Can be null.
+     */
+    BasicCollisionStrategy(GameObjectCommandBuffer gameObjects, Counter bricksCounter, BrickDebris debris) {
         super();
         this.gameObjects = gameObjects;
         this.bricksCounter = bricksCounter;
+        this.debris = debris;
     }
 
     /**
@@ -41,7 +55,8 @@ class BasicCollisionStrategy implements CollisionStrategy {
     }
 
     /**
-     * Removes the brick from the GameObject collection and decrements the brick counter.
+     * Removes the brick from the GameObject collection, decrements the brick counter and
+     * bursts the brick into debris.
      *
      * @param thisObj The GameObject representing the brick to be removed.
      */
@@ -49,5 +64,8 @@ class BasicCollisionStrategy implements CollisionStrategy {
         gameObjects.removeGameObject(thisObj, Layer.STATIC_OBJECTS);
         bricksCounter.decrement();
         thisObj.setTag(Brick.INACTIVE_TAG);
+        if (debris != null) {
+            debris.burst(thisObj.getTopLeftCorner(), thisObj.getDimensions());
+        }
     }
 }
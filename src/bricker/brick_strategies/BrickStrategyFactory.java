@@ -1,37 +1,69 @@
 package bricker.brick_strategies;
 
-import bricker.main.BrickerGameManager;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.ImageReader;
-import danogl.gui.Sound;
-import danogl.gui.UserInputListener;
-import danogl.gui.WindowController;
+import bricker.gameobjects.BrickDebris;
+import bricker.gameobjects.Paddle;
+import bricker.main.GameSession;
+import bricker.utils.GameObjectCommandBuffer;
+import bricker.utils.CollisionSound;
+import bricker.utils.ExtraBallsLimit;
+import bricker.utils.SpawnScheduler;
+import bricker.input.PaddleInput;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 import bricker.utils.CameraManager;
+import bricker.utils.EffectScheduler;
 import bricker.utils.LivesManager;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * The BrickStrategyFactory class is responsible for creating instances of collision strategies
  * for bricks in the Brick Breaker game. It randomly selects a strategy from a predefined set of
  * strategies, including adding life, adding a paddle, turning on the camera, adding more balls,
- * removing a brick, and applying double behavior.
+ * widening the paddle, removing a brick, and applying double behavior.
+ *
+ * Strategy codes are drawn and decoded without touching the factory's own state, so codes can be
+ * drawn with {@link #drawStrategyCode(RandomGenerator)} and built into strategies from several
+ * threads at once, as the board generator does.
  */
 public class BrickStrategyFactory {
 
+    /** The effect kind adding a life, for {@link #countEffects(short, int[])}. */
+    public static final int ADD_LIFE_EFFECT = 0;
+    /** The effect kind adding a second paddle, for {@link #countEffects(short, int[])}. */
+    public static final int ADD_PADDLE_EFFECT = 1;
+    /** The effect kind turning the camera on, for {@link #countEffects(short, int[])}. */
+    public static final int CAMERA_ON_EFFECT = 2;
+    /** The effect kind adding balls, for {@link #countEffects(short, int[])}. */
+    public static final int MORE_BALLS_EFFECT = 3;
+    /** The effect kind widening the paddle, for {@link #countEffects(short, int[])}. */
+    public static final int WIDEN_PADDLE_EFFECT = 4;
+    /** The number of effect kinds. */
+    public static final int EFFECT_KINDS_NUM = 5;
+
     private static final int MAX_STRATEGY = 3;
     private static final int TWO_STRATEGIES = 2;
-    private boolean canAddDoubleStrategy = false;
-    private static final int RANDOM_OPTION_LENGTH=10;
-    private static final int SPECIAL_STRATEGY_LENGTH=5;
+    private static final int RANDOM_OPTION_LENGTH=12;
+    private static final int SPECIAL_STRATEGY_LENGTH=6;
     private static final int EXCLUDE_DOUBLE_BEHAVIOR=1;
-    private static final int GET_THE_ODD_STRATEGY=4;
-    private static final int GET_THE_NORMAL_STRATEGY=4;
-    private int counter=0;
-    private static boolean flagDoubleStrategy=false;
+    private static final int GET_THE_ODD_STRATEGY=5;
+    private static final int GET_THE_NORMAL_STRATEGY=5;
+    private static final int CODE_BITS = 3;
+    private static final int NODE_MASK = (1 << CODE_BITS) - 1;
+    private static final int CODE_MASK = 0xFFFF;
+    private static final int MAX_CODE_NODES = Short.SIZE / CODE_BITS + 1;
+
+    /**
+     * The state of one strategy code being drawn or decoded.
+     */
+    private static final class StrategyCode {
+        private int code;
+        private int codeLength;
+        private int counter;
+    }
 
     /**
      * Enumerates the possible collision strategies for bricks.
@@ -43,22 +75,22 @@ public class BrickStrategyFactory {
         ADD_PADDLE,
         CAMERA_ON,
         MORE_BALLS,
+        WIDEN_PADDLE,
         DOUBLE_BEHAVIOR; // Pay attention! DOUBLE_BEHAVIOR has to be the last one
 
         public static final Strategies[] strategies = values();
 
-        private static final Random random = new Random();
-
         /**
          * Gets a random strategy from the available strategies.
          *
+         * @param random        The random source to draw from.
          * @param includeDouble Indicates whether to include the DOUBLE_BEHAVIOR strategy
          *                      as a possible return value.
          * @param excludeBasicStrategy Indicates whether you include Basic behavior strategy
          *                             as a possible return value.
          * @return A randomly selected strategy.
          */
-        public static Strategies getRandomStrategy(boolean includeDouble,boolean
+        public static Strategies getRandomStrategy(RandomGenerator random, boolean includeDouble,boolean
                 excludeBasicStrategy) {
             int option = RANDOM_OPTION_LENGTH;
             if (excludeBasicStrategy){
@@ -79,12 +111,12 @@ public class BrickStrategyFactory {
         }
     }
 
-    private final GameObjectCollection objectCollection;
+    private final GameObjectCommandBuffer objectCollection;
     private final Counter bricksCounter;
-    private final ImageReader imageReader;
-    private final Sound onCollisionSound;
-    private final WindowController windowController;
-    private final UserInputListener inputListener;
+    private final Renderable extraBallImg;
+    private final CollisionSound onCollisionSound;
+    private final Vector2 windowDimensions;
+    private final PaddleInput paddleInput;
     private final CameraManager cameraManager;
     private final LivesManager livesManager;
     private final Vector2 paddleSize;
@@ -93,40 +125,63 @@ public class BrickStrategyFactory {
     private final Vector2 ballSize;
     private String tagBall;
     private final String mainPaddleTag;
+    private final Counter secondPaddlesCounter;
+    private final EffectScheduler effectScheduler;
+    private final Random random;
+    private final BasicCollisionStrategy removeBrickStrategy;
+    private final AddLifeStrategy addLifeStrategy;
+    private final AddPaddleStrategy addPaddleStrategy;
+    private final CameraOnBallStrategy cameraOnBallStrategy;
+    private final MoreBallsStrategy moreBallsStrategy;
+    private final WidenPaddleStrategy widenPaddleStrategy;
 //    private boolean isInner = false;
 
     /**
      * Constructs a new BrickStrategyFactory instance.
      *
-     * @param objectCollection  Collection of GameObjects in the game.
+     * @param objectCollection  Buffered changes to the GameObjects in the game.
      * @param bricksCounter     Counter for tracking the number of bricks.
-     * @param imageReader       ImageReader for reading images.
+     * @param extraBallImg      Renderable representing the extra balls.
      * @param onCollisionSound  Sound for ball collisions.
-     * @param windowController  WindowController for managing the game window.
-     * @param inputListener     UserInputListener for handling user input.
+     * @param windowDimensions  Dimensions of the game window.
+     * @param paddleInput       Source of the second paddle's movement commands.
      * @param cameraManager     CameraManager for managing the camera.
      * @param livesManager      LivesManager for managing player lives.
      * @param tagBall           The tag of objects type ball
      * @param mainPaddleTag      Tag of mainPaddle object type.
+     * @param paddle            The main paddle, widened by a power-up.
+     * @param secondPaddlesCounter Counter of second paddles in the game.
+     * @param effectScheduler   The scheduler ending temporary effects.
+     * @param random            Random source of the game session.
+     * @param extraBallsLimit   Caps the number of extra balls in the game.
+     * @param spawnScheduler    Spreads the creation of spawned objects over frames.
+     * @param debris            Shows the debris of the broken bricks. Can be null.
      */
-    public BrickStrategyFactory(GameObjectCollection objectCollection,
+    public BrickStrategyFactory(GameObjectCommandBuffer objectCollection,
                                 Counter bricksCounter,
-                                ImageReader imageReader,
-                                Sound onCollisionSound,
-                                WindowController windowController,
-                                UserInputListener inputListener,
+                                Renderable extraBallImg,
+                                CollisionSound onCollisionSound,
+                                Vector2 windowDimensions,
+                                PaddleInput paddleInput,
                                 CameraManager cameraManager,
                                 LivesManager livesManager,
                                 Vector2 paddleSize,
                                 Renderable secondPaddleImg,
                                 Renderable heartImg,Vector2 ballSize, String tagBall,
-                                String mainPaddleTag) {
+                                String mainPaddleTag,
+                                Paddle paddle,
+                                Counter secondPaddlesCounter,
+                                EffectScheduler effectScheduler,
+                                Random random,
+                                ExtraBallsLimit extraBallsLimit,
+                                SpawnScheduler spawnScheduler,
+                                BrickDebris debris) {
         this.objectCollection = objectCollection;
         this.bricksCounter = bricksCounter;
-        this.imageReader = imageReader;
+        this.extraBallImg = extraBallImg;
         this.onCollisionSound = onCollisionSound;
-        this.windowController = windowController;
-        this.inputListener = inputListener;
+        this.windowDimensions = windowDimensions;
+        this.paddleInput = paddleInput;
         this.cameraManager = cameraManager;
         this.livesManager = livesManager;
         this.paddleSize = paddleSize;
@@ -135,6 +190,47 @@ public class BrickStrategyFactory {
         this.ballSize = ballSize;
         this.tagBall=tagBall;
         this.mainPaddleTag = mainPaddleTag;
+        this.secondPaddlesCounter = secondPaddlesCounter;
+        this.effectScheduler = effectScheduler;
+        this.random = random;
+        removeBrickStrategy = new BasicCollisionStrategy(objectCollection, bricksCounter, debris);
+        addLifeStrategy = new AddLifeStrategy(
+                objectCollection,
+                bricksCounter,
+                debris,
+                heartImg,
+                GameSession.HEART_SIZE,
+                windowDimensions,
+                livesManager,
+                mainPaddleTag,
+                spawnScheduler
+        );
+        addPaddleStrategy = new AddPaddleStrategy(
+                objectCollection,
+                bricksCounter,
+                debris,
+                windowDimensions,
+                secondPaddleImg,
+                paddleInput,
+                paddleSize,
+                secondPaddlesCounter,
+                effectScheduler
+        );
+        cameraOnBallStrategy = new CameraOnBallStrategy(objectCollection, bricksCounter, debris, cameraManager
+                ,tagBall);
+        moreBallsStrategy = new MoreBallsStrategy(
+                objectCollection,
+                bricksCounter,
+                debris,
+                extraBallImg,
+                onCollisionSound,
+                windowDimensions, ballSize,
+                random,
+                extraBallsLimit,
+                spawnScheduler
+        );
+        widenPaddleStrategy = new WidenPaddleStrategy(objectCollection, bricksCounter, debris, paddle,
+                effectScheduler);
     }
 
     /**
@@ -143,80 +239,161 @@ public class BrickStrategyFactory {
      * @return A CollisionStrategy instance representing the selected strategy.
      */
     public CollisionStrategy getStrategy() {
-        Strategies strategyEnum = Strategies.getRandomStrategy(true,
-                false);
-        CollisionStrategy help=getStrategyByEnum(strategyEnum);
-        counter=0;
-        flagDoubleStrategy=false;
-        return help;
+        return getStrategyByCode(drawStrategyCode());
     }
 
-    private CollisionStrategy getStrategyByEnum(Strategies strategyEnum) {
-        counter+=1;
-        switch (strategyEnum) {
-            case ADD_LIFE:
-                return new AddLifeStrategy(
-                        objectCollection,
-                        bricksCounter,
-                        heartImg,
-                        BrickerGameManager.HEART_SIZE,
-                        windowController.getWindowDimensions(),
-                        livesManager,
-                        mainPaddleTag
-                );
-            case ADD_PADDLE:
-                return new AddPaddleStrategy(
-                        objectCollection,
-                        bricksCounter,
-                        windowController.getWindowDimensions(),
-                        secondPaddleImg,
-                        inputListener,
-                        paddleSize
-                );
-            case CAMERA_ON:
-                return new CameraOnBallStrategy(objectCollection, bricksCounter, cameraManager
-                        ,tagBall);
-            case MORE_BALLS:
-                return new MoreBallsStrategy(
-                        objectCollection,
-                        bricksCounter,
-                        imageReader,
-                        onCollisionSound,
-                        windowController.getWindowDimensions(), ballSize
-                );
-            case REMOVE_BRICK:
-                return new BasicCollisionStrategy(objectCollection, bricksCounter);
-            case DOUBLE_BEHAVIOR:
-                counter -= 1;
-                return getDoubleStrategyFirstTime();
-            default:
-                counter -= 1;
-                return null;
+    /**
+     * Randomly selects a collision strategy for a brick without building it.
+     * The selection is encoded as the preorder of its strategy tree, CODE_BITS bits per node,
+     * starting from the lowest bits, so it can be stored compactly and rebuilt later with
+     * {@link #getStrategyByCode(short)}.
+     *
+     * @return The code of the selected strategy.
+     */
+    public short drawStrategyCode() {
+        return drawStrategyCode(random);
+    }
+
+    /**
+     * Randomly selects a collision strategy for a brick from a given random source, as
+     * {@link #drawStrategyCode()} does. Safe to call from several threads with distinct sources.
+     *
+     * @param random The random source to draw from.
+     * @return The code of the selected strategy.
+     */
+    public static short drawStrategyCode(RandomGenerator random) {
+        StrategyCode strategyCode = new StrategyCode();
+        appendStrategyCode(strategyCode, random, Strategies.getRandomStrategy(random, true, false));
+        return (short) strategyCode.code;
+    }
+
+    /**
+     * Builds the collision strategy described by a code from {@link #drawStrategyCode()}.
+     * A double behavior is compiled into a flat program that removes the brick once and then
+     * applies the effects of its leaves in preorder, instead of nesting a strategy per node.
+     * The strategies of single effects are stateless and shared by every brick drawing them.
+     *
+     * @param strategyCode The code of the strategy.
+     * @return A CollisionStrategy instance representing the encoded strategy.
+     */
+    public CollisionStrategy getStrategyByCode(short strategyCode) {
+        int code = strategyCode & CODE_MASK;
+        Strategies strategyEnum = Strategies.strategies[code & NODE_MASK];
+        if (strategyEnum != Strategies.DOUBLE_BEHAVIOR) {
+            return getLeafStrategy(strategyEnum);
         }
+        return compileStrategy(code);
     }
 
-    private DoubleBehaviorStrategy getDoubleStrategyFirstTime() {
-        flagDoubleStrategy=true;
-        canAddDoubleStrategy=counter+TWO_STRATEGIES <MAX_STRATEGY;
-        Strategies firstStrategyEnum = Strategies.getRandomStrategy(canAddDoubleStrategy,
+    /**
+     * Counts the effects a strategy code applies besides removing its brick, by kind, without
+     * building the strategy. Used by models of the game that do not create game objects.
+     *
+     * @param strategyCode  The code of the strategy.
+     * @param effectCounts  Receives the number of effects of each kind, indexed by the effect
+     *                      kind constants; at least {@link #EFFECT_KINDS_NUM} long.
+     */
+    public static void countEffects(short strategyCode, int[] effectCounts) {
+        Arrays.fill(effectCounts, 0, EFFECT_KINDS_NUM, 0);
+        int code = strategyCode & CODE_MASK;
+        int nodesToRead = 1;
+        while (nodesToRead > 0) {
+            Strategies strategyEnum = Strategies.strategies[code & NODE_MASK];
+            code >>>= CODE_BITS;
+            nodesToRead -= 1;
+            if (strategyEnum == Strategies.DOUBLE_BEHAVIOR) {
+                nodesToRead += TWO_STRATEGIES;
+            } else if (strategyEnum != Strategies.REMOVE_BRICK) {
+                // The effect kinds follow the order of the strategies after REMOVE_BRICK.
+                effectCounts[strategyEnum.ordinal() - 1]++;
+            }
+        }
+    }
+
+    /**
+     * Checks if a code describes a strategy, as one read from a file may not: every node names
+     * a strategy, the tree is complete within the code's bits, and no bits follow it.
+     *
+     * @param strategyCode The code to check.
+     * @return True if {@link #getStrategyByCode(short)} can build the code.
+     */
+    public static boolean isValidStrategyCode(short strategyCode) {
+        int code = strategyCode & CODE_MASK;
+        int nodesToRead = 1;
+        for (int node = 0; node < MAX_CODE_NODES && nodesToRead > 0; node++) {
+            int index = code & NODE_MASK;
+            if (index >= Strategies.strategies.length) {
+                return false;
+            }
+            code >>>= CODE_BITS;
+            nodesToRead += Strategies.strategies[index] == Strategies.DOUBLE_BEHAVIOR ? TWO_STRATEGIES - 1 : -1;
+        }
+        return nodesToRead == 0 && code == 0;
+    }
+
+    private static void appendStrategyCode(StrategyCode strategyCode, RandomGenerator random,
+                                           Strategies strategyEnum) {
+        strategyCode.counter+=1;
+        strategyCode.code |= strategyEnum.ordinal() << (strategyCode.codeLength * CODE_BITS);
+        strategyCode.codeLength += 1;
+        if (strategyEnum == Strategies.DOUBLE_BEHAVIOR) {
+            strategyCode.counter -= 1;
+            appendDoubleStrategyCode(strategyCode, random);
+        }
+    }
+
+    private static void appendDoubleStrategyCode(StrategyCode strategyCode, RandomGenerator random) {
+        boolean canAddDoubleStrategy=strategyCode.counter+TWO_STRATEGIES <MAX_STRATEGY;
+        Strategies firstStrategyEnum = Strategies.getRandomStrategy(random, canAddDoubleStrategy,
                 true);
 
-        counter += 1;
-        CollisionStrategy firstStrategy = getStrategyByEnum(firstStrategyEnum);
-        counter -= 1;
-        canAddDoubleStrategy=counter+TWO_STRATEGIES <=MAX_STRATEGY;
-        Strategies secondStrategyEnum = Strategies.getRandomStrategy(canAddDoubleStrategy
+        strategyCode.counter += 1;
+        appendStrategyCode(strategyCode, random, firstStrategyEnum);
+        strategyCode.counter -= 1;
+        canAddDoubleStrategy=strategyCode.counter+TWO_STRATEGIES <=MAX_STRATEGY;
+        Strategies secondStrategyEnum = Strategies.getRandomStrategy(random, canAddDoubleStrategy
                 ,true);
 
-        CollisionStrategy secondStrategy = getStrategyByEnum(secondStrategyEnum);
-        canAddDoubleStrategy = true;
-        return new DoubleBehaviorStrategy(
-                firstStrategy,
-                secondStrategy,
-                bricksCounter,
-                objectCollection
-        );
+        appendStrategyCode(strategyCode, random, secondStrategyEnum);
     }
-}
 
+    private CollisionStrategy compileStrategy(int code) {
+        CollisionEffect[] program = new CollisionEffect[MAX_CODE_NODES];
+        int[] programDepths = new int[MAX_CODE_NODES];
+        int effectsNum = 0;
+        // The nesting depths of the nodes still to read, the next one on top.
+        int[] nodeDepths = new int[MAX_CODE_NODES + 1];
+        int nodesToRead = 1;
+        while (nodesToRead > 0) {
+            Strategies strategyEnum = Strategies.strategies[code & NODE_MASK];
+            code >>>= CODE_BITS;
+            int depth = nodeDepths[--nodesToRead];
+            if (strategyEnum == Strategies.DOUBLE_BEHAVIOR) {
+                nodeDepths[nodesToRead++] = depth + 1;
+                nodeDepths[nodesToRead++] = depth + 1;
+            } else if (strategyEnum != Strategies.REMOVE_BRICK) {
+                programDepths[effectsNum] = depth;
+                program[effectsNum++] = (CollisionEffect) getLeafStrategy(strategyEnum);
+            }
+        }
+        return new CompiledStrategy(removeBrickStrategy, Arrays.copyOf(program, effectsNum),
+                Arrays.copyOf(programDepths, effectsNum));
+    }
 
+    private CollisionStrategy getLeafStrategy(Strategies strategyEnum) {
+        switch (strategyEnum) {
+            case ADD_LIFE:
+                return addLifeStrategy;
+            case ADD_PADDLE:
+                return addPaddleStrategy;
+            case CAMERA_ON:
+                return cameraOnBallStrategy;
+            case MORE_BALLS:
+                return moreBallsStrategy;
+            case WIDEN_PADDLE:
+                return widenPaddleStrategy;
+            default:
+                return removeBrickStrategy;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.BrickDebris;
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
+import bricker.utils.GameObjectCommandBuffer;
 import danogl.util.Counter;
 import bricker.utils.CameraManager;
 
@@ -10,7 +11,7 @@ import bricker.utils.CameraManager;
  * and defines the strategy for handling collisions that turn on the camera
  * when the ball collides with a specific object in the Brick Breaker game.
  */
-class CameraOnBallStrategy implements CollisionStrategy {
+class CameraOnBallStrategy implements CollisionStrategy, CollisionEffect {
 
     private final CameraManager cameraManager;       // Manages the camera state.
     private final BasicCollisionStrategy basicCollisionStrategy;
@@ -19,17 +20,19 @@ class CameraOnBallStrategy implements CollisionStrategy {
     /**
      * Constructs a new CameraOnBallStrategy instance.
      *
-     * @param gameObjects    Collection of GameObjects in the game.
+     * @param gameObjects    Buffered changes to the GameObjects in the game.
      * @param bricksCounter  Counter for tracking the number of bricks.
+     * @param debris         Shows the debris of the removed brick. Can be null.
      * @param cameraManager  Manages the camera state.
      * @param tagBall           The tag of objects type ball
      */
     protected CameraOnBallStrategy(
-            GameObjectCollection gameObjects,
+            GameObjectCommandBuffer gameObjects,
             Counter bricksCounter,
+            BrickDebris debris,
             CameraManager cameraManager,String tagBall) {
         this.tagBall = tagBall;
-        this.basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter);
+        this.basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter, debris);
         this.cameraManager = cameraManager;
     }
 
@@ -41,9 +44,18 @@ class CameraOnBallStrategy implements CollisionStrategy {
      */
     @Override
     public void onCollision(GameObject thisObj, GameObject otherObj) {
-
         basicCollisionStrategy.onCollision(thisObj, otherObj);
+        applyEffect(thisObj, otherObj);
+    }
 
+    /**
+     * Turns the camera on if the brick was hit by a ball, without removing the brick.
+     *
+     * @param thisObj  The GameObject with this collision strategy.
+     * @param otherObj The other GameObject involved in the collision.
+     */
+    @Override
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
         // Activate the camera if it is not already on
         if (otherObj.getTag().equals(tagBall)&& !cameraManager.isCameraOn()) {
             cameraManager.turnCameraOn();
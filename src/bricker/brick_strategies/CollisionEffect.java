@@ -0,0 +1,19 @@
+package bricker.brick_strategies;
+
+import danogl.GameObject;
+
+/**
+ * The effect a collision strategy has on the game beyond removing the brick, such as dropping
+ * a heart or adding balls. Compiled strategies remove the brick once and then apply the effects
+ * of all the strategies they are composed of.
+ */
+interface CollisionEffect {
+
+    /**
+     * Applies the effect of a collision, without removing the brick.
+     *
+     * @param thisObj  The game object associated with the collision strategy.
+     * @param otherObj The other game object involved in the collision.
+     */
+    void applyEffect(GameObject thisObj, GameObject otherObj);
+}
@@ -0,0 +1,55 @@
+package bricker.brick_strategies;
+
+import bricker.diagnostics.GameMetrics;
+import bricker.diagnostics.StrategyEvent;
+import bricker.diagnostics.TraceRecorder;
+import danogl.GameObject;
+
+/**
+ * The CompiledStrategy class is a composed collision strategy flattened into a program: the
+ * brick is removed exactly once, and then the effects of the composed strategies are applied
+ * in the order the nested double behaviors would have applied them.
+ *
+ * Every effect keeps the number of double behaviors it was nested in, so its flight recorder
+ * event and trace span report the same strategy type and nesting depth as the nested form.
+ */
+class CompiledStrategy implements CollisionStrategy {
+
+    private final BasicCollisionStrategy basicCollisionStrategy;  // Removes the brick.
+    private final CollisionEffect[] effects;                      // Applied in order.
+    private final int[] nestingDepths;                            // Of each effect.
+
+    /**
+     * Constructs a new CompiledStrategy instance.
+     *
+     * @param basicCollisionStrategy The strategy removing the brick.
+     * @param effects                The effects applied after the brick is removed.
+     * @param nestingDepths          The number of double behaviors each effect was nested in.
+     */
+    CompiledStrategy(BasicCollisionStrategy basicCollisionStrategy, CollisionEffect[] effects,
+                     int[] nestingDepths) {
+        this.basicCollisionStrategy = basicCollisionStrategy;
+        this.effects = effects;
+        this.nestingDepths = nestingDepths;
+    }
+
+    /**
+     * Handles the logic when a collision occurs, removing the brick and applying every effect.
+     *
+     * @param thisObj  The GameObject with this collision strategy.
+     * @param otherObj The other GameObject involved in the collision.
+     */
+    @Override
+    public void onCollision(GameObject thisObj, GameObject otherObj) {
+        basicCollisionStrategy.onCollision(thisObj, otherObj);
+        for (int i = 0; i < effects.length; i++) {
+            CollisionEffect effect = effects[i];
+            GameMetrics.recordStrategyActivation(effect);
+            StrategyEvent event = StrategyEvent.start();
+            long traceStart = TraceRecorder.now();
+            effect.applyEffect(thisObj, otherObj);
+            TraceRecorder.completeStrategy(effect, traceStart, nestingDepths[i]);
+            StrategyEvent.end(event, effect, nestingDepths[i]);
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package bricker.brick_strategies;
 
+import bricker.diagnostics.StrategyEvent;
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
+import bricker.utils.GameObjectCommandBuffer;
 import danogl.util.Counter;
 
 /**
  * The DoubleBehaviorStrategy class represents a collision strategy that combines two strategies
  * and includes a basic collision strategy, it implements CollisionStrategy.
  * It applies both strategies and the basic strategy when a collision occurs.
+ *
+ * The game never builds this class: the factory compiles double behaviors into a flat
+ * {@link CompiledStrategy} instead, which reports the same per-strategy events. This nested form
+ * is kept only as the baseline {@link StrategyProgramBenchmark} measures the compiled programs
+ * against.
  */
 class DoubleBehaviorStrategy implements CollisionStrategy {
 
     private final CollisionStrategy strategy1;                // First collision strategy
     private final CollisionStrategy strategy2;                // Second collision strategy
     private final BasicCollisionStrategy basicCollisionStrategy;  // Basic collision strategy
+    private final int nestingDepth;                           // Double behaviors this one is in
 
     /**
      * Constructs a new DoubleBehaviorStrategy instance.
@@ -21,17 +28,20 @@ class DoubleBehaviorStrategy implements CollisionStrategy {
      * @param strategy1        The first collision strategy to be combined.
      * @param strategy2        The second collision strategy to be combined.
      * @param bricksCounter    Counter for tracking the number of bricks.
-     * @param gameObjects      Collection of GameObjects in the game.
+     * @param gameObjects      Buffered changes to the GameObjects in the game.
+     * @param nestingDepth     The number of double behavior strategies this one is nested in.
      */
     protected DoubleBehaviorStrategy(
             CollisionStrategy strategy1,
             CollisionStrategy strategy2,
             Counter bricksCounter,
-            GameObjectCollection gameObjects
+            GameObjectCommandBuffer gameObjects,
+            int nestingDepth
     ) {
         basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter);
         this.strategy1 = strategy1;
         this.strategy2 = strategy2;
+        this.nestingDepth = nestingDepth;
     }
 
     /**
@@ -44,7 +54,7 @@ class DoubleBehaviorStrategy implements CollisionStrategy {
     @Override
     public void onCollision(GameObject thisObj, GameObject otherObj) {
         basicCollisionStrategy.onCollision(thisObj, otherObj);
-        strategy1.onCollision(thisObj, otherObj);
-        strategy2.onCollision(thisObj, otherObj);
+        StrategyEvent.onCollision(strategy1, thisObj, otherObj, nestingDepth + 1);
+        StrategyEvent.onCollision(strategy2, thisObj, otherObj, nestingDepth + 1);
     }
 }
@@ -1,50 +1,72 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.BrickDebris;
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.ImageReader;
-import danogl.gui.Sound;
+import bricker.utils.GameObjectCommandBuffer;
+import bricker.utils.CollisionSound;
+import bricker.utils.ExtraBallsLimit;
+import bricker.utils.SpawnScheduler;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 import bricker.gameobjects.BasicBall;
 
+import java.util.Random;
+
 /**
  * The MoreBallsStrategy class implements the CollisionStrategy interface
  * and defines the strategy for handling collisions that add BALLS_TO_ADD_NUM balls
  * to the game when a specific object is removed in the Brick Breaker game.
  */
-class MoreBallsStrategy implements CollisionStrategy {
+class MoreBallsStrategy implements CollisionStrategy, CollisionEffect {
 
     private static final float PACK_BALL_RATIO = 0.75f;
     private static final int BALLS_TO_ADD_NUM = 2;           // Number of balls to add.
-    private final GameObjectCollection gameObjects;  // Collection of GameObjects in the game.
-    private final ImageReader imageReader;           // ImageReader for reading images.
-    private final Sound onCollisionSound;            // Sound for ball collisions.
+    private final GameObjectCommandBuffer gameObjects;  // Buffered changes to the GameObjects in the game.
+    private final Renderable ballImage;              // Renderable representing the added balls.
+    private final CollisionSound onCollisionSound;            // Sound for ball collisions.
     private final Vector2 windowDimensions;          // Dimensions of the game window.
     private final Vector2 ballSize;
+    private final Random random;                     // Random source of the game session.
+    private final ExtraBallsLimit extraBallsLimit;   // Caps the extra balls in the game.
+    private final SpawnScheduler spawnScheduler;     // Creates the balls after the collision.
+    private final int ballSpawnKind;
     private final BasicCollisionStrategy basicCollisionStrategy;
 
     /**
      * Constructs a new MoreBallsStrategy instance.
      *
-     * @param gameObjects       Collection of GameObjects in the game.
+     * @param gameObjects       Buffered changes to the GameObjects in the game.
      * @param bricksCounter     Counter for tracking the number of bricks.
-     * @param imageReader       ImageReader for reading images.
+     * @param debris            Shows the debris of the removed brick. Can be null.
+     * @param ballImage         Renderable representing the added balls.
      * @param onCollisionSound  Sound for ball collisions.
      * @param windowDimensions  Dimensions of the game window.
+     * @param ballSize          Size of the main ball.
+     * @param random            Random source of the game session.
+     * @param extraBallsLimit   Caps the number of extra balls in the game.
+     * @param spawnScheduler    Spreads the creation of spawned objects over frames.
      */
-    protected MoreBallsStrategy(GameObjectCollection gameObjects,
+    protected MoreBallsStrategy(GameObjectCommandBuffer gameObjects,
                                 Counter bricksCounter,
-                                ImageReader imageReader,
-                                Sound onCollisionSound,
+                                BrickDebris debris,
+                                Renderable ballImage,
+                                CollisionSound onCollisionSound,
                                 Vector2 windowDimensions,
-                                Vector2 ballSize) {
-        basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter);
+                                Vector2 ballSize,
+                                Random random,
+                                ExtraBallsLimit extraBallsLimit,
+                                SpawnScheduler spawnScheduler) {
+        basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter, debris);
         this.gameObjects = gameObjects;
-        this.imageReader = imageReader;
+        this.ballImage = ballImage;
+        this.random = random;
         this.onCollisionSound = onCollisionSound;
         this.windowDimensions = windowDimensions;
         this.ballSize = ballSize;
+        this.extraBallsLimit = extraBallsLimit;
+        this.spawnScheduler = spawnScheduler;
+        this.ballSpawnKind = spawnScheduler.register(this::spawnBall, SpawnScheduler.Priority.HIGH);
     }
 
     /**
@@ -55,22 +77,43 @@ class MoreBallsStrategy implements CollisionStrategy {
      */
     @Override
     public void onCollision(GameObject thisObj, GameObject otherObj) {
-
         basicCollisionStrategy.onCollision(thisObj, otherObj);
+        applyEffect(thisObj, otherObj);
+    }
 
-        // Add three balls to the game
+    /**
+     * Requests balls at the center of the brick, without removing the brick. The balls are
+     * created by the spawn scheduler, as many as the extra balls cap allows then.
+     *
+     * @param thisObj  The GameObject with this collision strategy.
+     * @param otherObj The other GameObject involved in the collision.
+     */
+    @Override
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
+        Vector2 brickCenter = thisObj.getCenter();
         for (int i = 0; i < BALLS_TO_ADD_NUM; i++) {
-            BasicBall ball = new BasicBall(
-                    thisObj.getCenter(),
-                    new Vector2(ballSize.x()* PACK_BALL_RATIO,ballSize.y()* PACK_BALL_RATIO),
-                    imageReader.readImage("assets/mockBall.png", true),
-                    windowDimensions,
-                    onCollisionSound,
-                    gameObjects);
+            spawnScheduler.request(ballSpawnKind, brickCenter);
+        }
+    }
 
-            // Randomize the initial velocity of the added balls
-            ball.setRandomVelocity();
-            gameObjects.addGameObject(ball);
+    /**
+     * Adds a ball to the game, unless the extra balls cap is reached.
+     *
+     * @param center The center of the new ball.
+     */
+    private void spawnBall(Vector2 center) {
+        if (!extraBallsLimit.tryAdd()) {
+            return;
         }
+        BasicBall ball = new BasicBall(
+                center,
+                new Vector2(ballSize.x()* PACK_BALL_RATIO,ballSize.y()* PACK_BALL_RATIO),
+                ballImage,
+                windowDimensions,
+                onCollisionSound);
+
+        // Randomize the initial velocity of the added balls
+        ball.setRandomVelocity(random);
+        gameObjects.addGameObject(ball);
     }
 }
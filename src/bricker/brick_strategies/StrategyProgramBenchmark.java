@@ -0,0 +1,85 @@
+package bricker.brick_strategies;
+
+import bricker.gameobjects.Brick;
+import bricker.utils.GameObjectCommandBuffer;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+
+/**
+ * The StrategyProgramBenchmark class compares the cost of a brick collision between the
+ * nested {@link DoubleBehaviorStrategy} chain and the flat {@link CompiledStrategy} program for
+ * the deepest composition the factory draws: a double behavior nested in another, three levels
+ * of strategies with three effects. The effects turn the camera on only for balls, so hitting
+ * the bricks with a plain object measures the dispatch and the brick removal alone.
+ *
+ * Usage: StrategyProgramBenchmark [bricks] [rounds]
+ */
+public class StrategyProgramBenchmark {
+
+    private static final int DEFAULT_BRICKS_NUM = 10_000;
+    private static final int DEFAULT_ROUNDS_NUM = 500;
+    private static final int WARMUP_ROUNDS_NUM = 200;
+    private static final String TAG_BALL = "Ball";
+    private static final Vector2 BRICK_SIZE = new Vector2(50, 15);
+    private static final String RESULT_MSG = "%-9s %7.1f ns per collision%n";
+    private static final String SPEEDUP_MSG = "Compiled program speedup: %.2f%n";
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optionally the number of bricks and of rounds hitting every brick.
+     */
+    public static void main(String[] args) {
+        int bricksNum = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BRICKS_NUM;
+        int roundsNum = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS_NUM;
+
+        GameObjectCommandBuffer commands = new GameObjectCommandBuffer(new GameObjectCollection());
+        Counter bricksCounter = new Counter();
+        CameraOnBallStrategy effect = new CameraOnBallStrategy(commands, bricksCounter, null, null, TAG_BALL);
+        CollisionStrategy chain = new DoubleBehaviorStrategy(
+                new DoubleBehaviorStrategy(effect, effect, bricksCounter, commands, 1),
+                effect, bricksCounter, commands, 0);
+        CollisionStrategy program = new CompiledStrategy(
+                new BasicCollisionStrategy(commands, bricksCounter),
+                new CollisionEffect[]{effect, effect, effect},
+                new int[]{2, 2, 1});
+
+        Brick[] bricks = new Brick[bricksNum];
+        for (int i = 0; i < bricksNum; i++) {
+            bricks[i] = new Brick(Vector2.ZERO, BRICK_SIZE, null, null);
+        }
+        GameObject other = new GameObject(Vector2.ZERO, BRICK_SIZE, null);
+
+        hitBricks(chain, bricks, other, commands, WARMUP_ROUNDS_NUM);
+        hitBricks(program, bricks, other, commands, WARMUP_ROUNDS_NUM);
+        double chainNanos = hitBricks(chain, bricks, other, commands, roundsNum);
+        double programNanos = hitBricks(program, bricks, other, commands, roundsNum);
+        System.out.printf(RESULT_MSG, "Chain:", chainNanos);
+        System.out.printf(RESULT_MSG, "Compiled:", programNanos);
+        System.out.printf(SPEEDUP_MSG, chainNanos / programNanos);
+    }
+
+    /**
+     * Hits every brick with a strategy for a number of rounds, reviving the bricks between rounds.
+     *
+     * @return The average time per collision, in nanoseconds.
+     */
+    private static double hitBricks(CollisionStrategy strategy, Brick[] bricks, GameObject other,
+                                    GameObjectCommandBuffer commands, int roundsNum) {
+        long elapsed = 0;
+        for (int round = 0; round < roundsNum; round++) {
+            for (Brick brick : bricks) {
+                brick.setTag(Brick.ACTIVE_TAG);
+            }
+            long startTime = System.nanoTime();
+            for (Brick brick : bricks) {
+                strategy.onCollision(brick, other);
+            }
+            elapsed += System.nanoTime() - startTime;
+            commands.flush();
+        }
+        return (double) elapsed / ((long) roundsNum * bricks.length);
+    }
+}
@@ -0,0 +1,65 @@
+package bricker.brick_strategies;
+
+import bricker.gameobjects.BrickDebris;
+import bricker.gameobjects.Paddle;
+import bricker.utils.EffectScheduler;
+import bricker.utils.GameObjectCommandBuffer;
+import danogl.GameObject;
+import danogl.util.Counter;
+
+/**
+ * The WidenPaddleStrategy class implements the CollisionStrategy interface
+ * and defines the strategy for handling collisions that widen the main paddle
+ * for a few seconds of game time in the Brick Breaker game.
+ */
+class WidenPaddleStrategy implements CollisionStrategy, CollisionEffect {
+
+    private static final float WIDEN_SECONDS = 8;     // Game time the paddle stays widened.
+
+    private final Paddle paddle;                      // The main paddle.
+    private final EffectScheduler effectScheduler;   // Returns the paddle to its width.
+    private final BasicCollisionStrategy basicCollisionStrategy;
+
+    /**
+     * Constructs a new WidenPaddleStrategy instance.
+     *
+     * @param gameObjects      Buffered changes to the GameObjects in the game.
+     * @param bricksCounter    Counter for tracking the number of bricks.
+     * @param debris           Shows the debris of the removed brick. Can be null.
+     * @param paddle           The main paddle.
+     * @param effectScheduler  The scheduler returning the paddle to its width.
+     */
+    WidenPaddleStrategy(GameObjectCommandBuffer gameObjects,
+                        Counter bricksCounter,
+                        BrickDebris debris,
+                        Paddle paddle,
+                        EffectScheduler effectScheduler) {
+        this.basicCollisionStrategy = new BasicCollisionStrategy(gameObjects, bricksCounter, debris);
+        this.paddle = paddle;
+        this.effectScheduler = effectScheduler;
+    }
+
+    /**
+     * Handles the logic when a collision occurs, widening the main paddle.
+     *
+     * @param thisObj  The GameObject with this collision strategy.
+     * @param otherObj The other GameObject involved in the collision.
+     */
+    @Override
+    public void onCollision(GameObject thisObj, GameObject otherObj) {
+        basicCollisionStrategy.onCollision(thisObj, otherObj);
+        applyEffect(thisObj, otherObj);
+    }
+
+    /**
+     * Widens the main paddle, or restarts its time if it is already widened, without removing
+     * the brick.
+     *
+     * @param thisObj  The GameObject with this collision strategy.
+     * @param otherObj The other GameObject involved in the collision.
+     */
+    @Override
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
+        paddle.widen(effectScheduler, WIDEN_SECONDS);
+    }
+}
@@ -0,0 +1,56 @@
+package bricker.diagnostics;
+
+import danogl.GameObject;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The CollisionEvent class is a Java Flight Recorder event recording a collision between two
+ * game objects, by the kinds of the objects involved.
+ */
+@Name("bricker.Collision")
+@Label("Collision")
+@Category("Bricker")
+@Description("A collision between two game objects")
+@StackTrace(false)
+public class CollisionEvent extends jdk.jfr.Event {
+
+    private static final String WALL_KIND = "Wall";
+
+    @Label("Kind")
+    @Description("The kind of the object handling the collision")
+    public String kind;
+
+    @Label("Other Kind")
+    @Description("The kind of the object it collided with")
+    public String otherKind;
+
+    /**
+     * Records a collision if collision events are being recorded.
+     *
+     * @param gameObject The object handling the collision.
+     * @param other      The object it collided with.
+     */
+    public static void record(GameObject gameObject, GameObject other) {
+        if (!FlightRecording.isRecordingCollisions()) {
+            return;
+        }
+        CollisionEvent event = new CollisionEvent();
+        if (event.shouldCommit()) {
+            event.kind = kindOf(gameObject);
+            event.otherKind = kindOf(other);
+            event.commit();
+        }
+    }
+
+    /**
+     * Names the kind of a game object: its class, or a wall for plain game objects.
+     */
+    private static String kindOf(GameObject gameObject) {
+        return gameObject.getClass() == GameObject.class ?
+                WALL_KIND : gameObject.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,97 @@
+package bricker.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * The FlightRecording class starts a Java Flight Recorder recording from the command line,
+ * with the JDK's default settings and the game's own events, and writes it to a file when the
+ * JVM exits. The file can be opened with JDK Mission Control or the jfr tool.
+ *
+ * The game's events are plain JFR events, so a recording started with
+ * -XX:StartFlightRecording captures them too. The frame loop checks whether an event type is
+ * recorded before creating its events, so nothing is allocated for them when it is not.
+ */
+public class FlightRecording {
+
+    /**
+     * The command-line argument starting a recording, optionally followed by =file.
+     */
+    public static final String ARG = "--jfr";
+    private static final String ARG_WITH_FILE = ARG + "=";
+    private static final Path DEFAULT_FILE = Path.of("bricker.jfr");
+    private static final String SETTINGS = "default";
+    private static final String STARTED_MSG = "Recording flight data to %s%n";
+    private static final String FAILED_MSG = "Could not record flight data: ";
+    private static final EventType FRAME_EVENT_TYPE = EventType.getEventType(FrameEvent.class);
+    private static final EventType COLLISION_EVENT_TYPE = EventType.getEventType(CollisionEvent.class);
+    private static final EventType STRATEGY_EVENT_TYPE = EventType.getEventType(StrategyEvent.class);
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Checks if a command-line argument asks for a recording.
+     *
+     * @param arg The argument.
+     * @return True if the argument is --jfr or --jfr=file.
+     */
+    public static boolean isRecordingArg(String arg) {
+        return arg.equals(ARG) || arg.startsWith(ARG_WITH_FILE);
+    }
+
+    /**
+     * Checks if frame events are recorded, by this class's recording or any other.
+     *
+     * @return True if frame events are enabled.
+     */
+    public static boolean isRecordingFrames() {
+        return FRAME_EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Checks if collision events are recorded, by this class's recording or any other.
+     *
+     * @return True if collision events are enabled.
+     */
+    public static boolean isRecordingCollisions() {
+        return COLLISION_EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Checks if strategy events are recorded, by this class's recording or any other.
+     *
+     * @return True if strategy events are enabled.
+     */
+    public static boolean isRecordingStrategies() {
+        return STRATEGY_EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Starts a recording as asked by a command-line argument, reporting failures without
+     * stopping the game.
+     *
+     * @param arg The argument, --jfr or --jfr=file.
+     */
+    public static void start(String arg) {
+        Path file = arg.startsWith(ARG_WITH_FILE) ?
+                Path.of(arg.substring(ARG_WITH_FILE.length())) : DEFAULT_FILE;
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(SETTINGS));
+            recording.enable(FrameEvent.class);
+            recording.enable(CollisionEvent.class);
+            recording.enable(StrategyEvent.class);
+            recording.setDestination(file);
+            recording.setDumpOnExit(true);
+            recording.start();
+            System.out.printf(STARTED_MSG, file.toAbsolutePath());
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.err.println(FAILED_MSG + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package bricker.diagnostics;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The FrameEvent class is a Java Flight Recorder event covering one frame of a game session,
+ * with the duration of each of its phases and the number of game objects in each layer.
+ *
+ * The object counts are only computed when the event is going to be recorded.
+ */
+@Name("bricker.Frame")
+@Label("Frame")
+@Category("Bricker")
+@Description("One frame of a game session")
+@StackTrace(false)
+public class FrameEvent extends jdk.jfr.Event {
+
+    @Label("Physics")
+    @Description("Time spent updating the game objects")
+    @Timespan
+    public long physicsDuration;
+
+    @Label("Collisions")
+    @Description("Time spent detecting and handling collisions, when measured apart from physics")
+    @Timespan
+    public long collisionsDuration;
+
+    @Label("Rules")
+    @Description("Time spent applying the game rules and the buffered object changes")
+    @Timespan
+    public long rulesDuration;
+
+    @Label("Dynamic Objects")
+    public int dynamicObjects;
+
+    @Label("Static Objects")
+    public int staticObjects;
+
+    @Label("Background Objects")
+    public int backgroundObjects;
+
+    /**
+     * Counts the game objects of each layer of a collection into the event.
+     *
+     * @param gameObjects The collection of the session.
+     */
+    public void countObjects(GameObjectCollection gameObjects) {
+        dynamicObjects = count(gameObjects.objectsInLayer(Layer.DEFAULT));
+        staticObjects = count(gameObjects.objectsInLayer(Layer.STATIC_OBJECTS));
+        backgroundObjects = count(gameObjects.objectsInLayer(Layer.BACKGROUND));
+    }
+
+    private static int count(Iterable<GameObject> objects) {
+        int count = 0;
+        for (GameObject ignored : objects) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,327 @@
+package bricker.diagnostics;
+
+import bricker.gameobjects.BasicBall;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameMetrics class collects the live metrics served by the {@link MetricsServer}.
+ *
+ * Collisions and strategy activations are counted in LongAdders found through ClassValues, so
+ * counting takes no lock and allocates nothing once a kind has been seen. Frame times go into a
+ * histogram owned by the game thread; once a second the game thread turns it into the frame
+ * rate, the frame time percentiles and the object counts, and publishes them in volatile fields
+ * for the scraping thread. Nothing is collected until the metrics are enabled.
+ */
+public final class GameMetrics {
+
+    private static final String WALL_KIND = "Wall";
+    private static final String KINDS_SEPARATOR = "|";
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
+    private static final long BUCKET_NANOS = 50_000;           // Frame time histogram resolution.
+    private static final int BUCKETS_NUM = 2000;                // Up to 100 ms, then the overflow.
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private static volatile boolean enabled;
+
+    // Counters, updated on any thread and read by the scraping thread.
+    private static final LongAdder framesCount = new LongAdder();
+    private static final LongAdder frameNanosSum = new LongAdder();
+    private static final LongAdder qualityChanges = new LongAdder();
+    private static final Map<String, LongAdder> collisions = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongAdder> strategyActivations = new ConcurrentSkipListMap<>();
+    private static final ClassValue<ClassValue<LongAdder>> collisionCounters =
+            new ClassValue<>() {
+                @Override
+                protected ClassValue<LongAdder> computeValue(Class<?> kind) {
+                    return new ClassValue<>() {
+                        @Override
+                        protected LongAdder computeValue(Class<?> otherKind) {
+                            return collisions.computeIfAbsent(
+                                    kindOf(kind) + KINDS_SEPARATOR + kindOf(otherKind),
+                                    key -> new LongAdder());
+                        }
+                    };
+                }
+            };
+    private static final ClassValue<LongAdder> strategyCounters = new ClassValue<>() {
+        @Override
+        protected LongAdder computeValue(Class<?> strategyType) {
+            return strategyActivations.computeIfAbsent(strategyType.getSimpleName(),
+                    key -> new LongAdder());
+        }
+    };
+
+    // The histogram of the current second, owned by the game thread.
+    private static final long[] frameTimeBuckets = new long[BUCKETS_NUM + 1];
+    private static long windowStart;
+    private static int windowFrames;
+    private static long windowMaxNanos;
+
+    // Gauges published once a second by the game thread.
+    private static volatile double framesPerSecond;
+    private static final double[] frameTimeQuantiles = new double[QUANTILES.length];
+    private static volatile double maxFrameTime;
+    private static volatile int dynamicObjects;
+    private static volatile int staticObjects;
+    private static volatile int backgroundObjects;
+    private static volatile int balls;
+    private static volatile int bricksLeft;
+    private static volatile int lives;
+    private static volatile int qualityLevel;   // Published as soon as it changes.
+    private static volatile double renderScale = 1;
+
+    // Input latency, published by the game thread whenever a key change is presented.
+    private static final double[] inputLatencyQuantiles = new double[QUANTILES.length];
+    private static volatile double maxInputLatency;
+    private static volatile long inputLatencyCount;
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Starts collecting metrics.
+     */
+    static void enable() {
+        windowStart = System.nanoTime();
+        enabled = true;
+    }
+
+    /**
+     * Checks if metrics are being collected.
+     *
+     * @return True once a metrics server was started.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts a collision between two game objects by their kinds.
+     *
+     * @param gameObject The object handling the collision.
+     * @param other      The object it collided with.
+     */
+    public static void recordCollision(GameObject gameObject, GameObject other) {
+        if (enabled) {
+            collisionCounters.get(gameObject.getClass()).get(other.getClass()).increment();
+        }
+    }
+
+    /**
+     * Counts an activation of a collision strategy or effect by its type.
+     *
+     * @param strategy The activated strategy or effect.
+     */
+    public static void recordStrategyActivation(Object strategy) {
+        if (enabled) {
+            strategyCounters.get(strategy.getClass()).increment();
+        }
+    }
+
+    /**
+     * Records a frame on the game thread, publishing the gauges once a second.
+     *
+     * @param frameNanos  The time the frame took to update, in nanoseconds.
+     * @param gameObjects The game objects, counted when the gauges are published.
+     * @param bricksLeft  The number of bricks still in the game.
+     * @param lives       The number of lives left.
+     */
+    public static void recordFrame(long frameNanos, GameObjectCollection gameObjects,
+                                   int bricksLeft, int lives) {
+        if (!enabled) {
+            return;
+        }
+        framesCount.increment();
+        frameNanosSum.add(frameNanos);
+        frameTimeBuckets[(int) Math.min(frameNanos / BUCKET_NANOS, BUCKETS_NUM)]++;
+        windowFrames++;
+        windowMaxNanos = Math.max(windowMaxNanos, frameNanos);
+
+        long now = System.nanoTime();
+        if (now - windowStart < NANOS_IN_SECOND) {
+            return;
+        }
+        // The quantiles are plain array elements, published by the volatile writes after them.
+        publishQuantiles();
+        framesPerSecond = (double) windowFrames * NANOS_IN_SECOND / (now - windowStart);
+        maxFrameTime = (double) windowMaxNanos / NANOS_IN_SECOND;
+        countObjects(gameObjects);
+        GameMetrics.bricksLeft = bricksLeft;
+        GameMetrics.lives = lives;
+
+        Arrays.fill(frameTimeBuckets, 0);
+        windowStart = now;
+        windowFrames = 0;
+        windowMaxNanos = 0;
+    }
+
+    /**
+     * Records the quality level chosen by the quality governor.
+     *
+     * @param level   The number of quality steps applied.
+     * @param changed True if the level changed, false for the initial level.
+     */
+    public static void recordQualityLevel(int level, boolean changed) {
+        qualityLevel = level;
+        if (changed) {
+            qualityChanges.increment();
+        }
+    }
+
+    /**
+     * Records the scale of the internal render resolution.
+     *
+     * @param scale The scale, 1 for the window's resolution.
+     */
+    public static void recordRenderScale(float scale) {
+        renderScale = scale;
+    }
+
+    /**
+     * Records the input latency percentiles measured by the {@link InputLatencyProbe}.
+     *
+     * @param quantiles    The latencies at the 0.5, 0.9 and 0.99 quantiles, in nanoseconds.
+     * @param maxNanos     The highest latency, in nanoseconds.
+     * @param changesCount The number of key changes measured so far.
+     */
+    static void recordInputLatency(double[] quantiles, long maxNanos, long changesCount) {
+        // The quantiles are plain array elements, published by the volatile writes after them.
+        for (int i = 0; i < QUANTILES.length; i++) {
+            inputLatencyQuantiles[i] = quantiles[i] / NANOS_IN_SECOND;
+        }
+        maxInputLatency = (double) maxNanos / NANOS_IN_SECOND;
+        inputLatencyCount = changesCount;
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     *
+     * @param out Receives the metrics.
+     */
+    static void writeExposition(StringBuilder out) {
+        gauge(out, "bricker_fps", "Frames per second over the last second.", framesPerSecond);
+
+        header(out, "bricker_frame_time_seconds", "summary",
+                "Time to update a frame; quantiles over the last second.");
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.append("bricker_frame_time_seconds{quantile=\"").append(QUANTILES[i]).append("\"} ")
+                    .append(frameTimeQuantiles[i]).append('\n');
+        }
+        out.append("bricker_frame_time_seconds{quantile=\"1.0\"} ").append(maxFrameTime).append('\n');
+        out.append("bricker_frame_time_seconds_sum ")
+                .append((double) frameNanosSum.sum() / NANOS_IN_SECOND).append('\n');
+        out.append("bricker_frame_time_seconds_count ").append(framesCount.sum()).append('\n');
+
+        header(out, "bricker_objects", "gauge", "Game objects per layer.");
+        out.append("bricker_objects{layer=\"default\"} ").append(dynamicObjects).append('\n');
+        out.append("bricker_objects{layer=\"static\"} ").append(staticObjects).append('\n');
+        out.append("bricker_objects{layer=\"background\"} ").append(backgroundObjects).append('\n');
+
+        header(out, "bricker_input_latency_seconds", "summary",
+                "Time from an arrow key event to the rendered frame it moved the paddle in; quantiles "
+                        + "over the last key changes.");
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.append("bricker_input_latency_seconds{quantile=\"").append(QUANTILES[i]).append("\"} ")
+                    .append(inputLatencyQuantiles[i]).append('\n');
+        }
+        out.append("bricker_input_latency_seconds{quantile=\"1.0\"} ").append(maxInputLatency).append('\n');
+        out.append("bricker_input_latency_seconds_count ").append(inputLatencyCount).append('\n');
+
+        gauge(out, "bricker_balls", "Balls in the game, including extra balls.", balls);
+        gauge(out, "bricker_bricks_left", "Bricks still in the game.", bricksLeft);
+        gauge(out, "bricker_lives", "Lives left.", lives);
+        gauge(out, "bricker_quality_level", "Quality steps applied by the governor, 0 for full quality.",
+                qualityLevel);
+        gauge(out, "bricker_render_scale", "Scale of the internal render resolution, 1 for the window's.",
+                renderScale);
+        header(out, "bricker_quality_changes_total", "counter", "Quality levels changed by the governor.");
+        out.append("bricker_quality_changes_total ").append(qualityChanges.sum()).append('\n');
+
+        header(out, "bricker_collisions_total", "counter", "Collisions by the kinds of the objects.");
+        for (Map.Entry<String, LongAdder> entry : collisions.entrySet()) {
+            String kinds = entry.getKey();
+            int separator = kinds.indexOf(KINDS_SEPARATOR);
+            out.append("bricker_collisions_total{kind=\"").append(kinds, 0, separator)
+                    .append("\",other_kind=\"").append(kinds, separator + 1, kinds.length())
+                    .append("\"} ").append(entry.getValue().sum()).append('\n');
+        }
+
+        header(out, "bricker_strategy_activations_total", "counter",
+                "Collision strategy and effect activations by type.");
+        for (Map.Entry<String, LongAdder> entry : strategyActivations.entrySet()) {
+            out.append("bricker_strategy_activations_total{strategy=\"").append(entry.getKey())
+                    .append("\"} ").append(entry.getValue().sum()).append('\n');
+        }
+    }
+
+    /**
+     * Turns the histogram of the current second into the frame time quantiles.
+     */
+    private static void publishQuantiles() {
+        long seen = 0;
+        int quantile = 0;
+        for (int bucket = 0; bucket <= BUCKETS_NUM && quantile < QUANTILES.length; bucket++) {
+            seen += frameTimeBuckets[bucket];
+            while (quantile < QUANTILES.length && seen >= QUANTILES[quantile] * windowFrames) {
+                // The upper bound of the bucket, or the maximum for the overflow bucket.
+                long nanos = bucket < BUCKETS_NUM ? (bucket + 1) * BUCKET_NANOS : windowMaxNanos;
+                frameTimeQuantiles[quantile++] = (double) Math.min(nanos, windowMaxNanos) / NANOS_IN_SECOND;
+            }
+        }
+    }
+
+    /**
+     * Counts the game objects per layer and the balls among them.
+     */
+    private static void countObjects(GameObjectCollection gameObjects) {
+        int dynamicCount = 0;
+        int ballsCount = 0;
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.DEFAULT)) {
+            dynamicCount++;
+            if (gameObject instanceof BasicBall) {
+                ballsCount++;
+            }
+        }
+        dynamicObjects = dynamicCount;
+        balls = ballsCount;
+        staticObjects = count(gameObjects.objectsInLayer(Layer.STATIC_OBJECTS));
+        backgroundObjects = count(gameObjects.objectsInLayer(Layer.BACKGROUND));
+    }
+
+    private static int count(Iterable<GameObject> objects) {
+        int count = 0;
+        for (GameObject ignored : objects) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, int value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Names the kind of a game object class: the class, or a wall for plain game objects.
+     */
+    private static String kindOf(Class<?> kind) {
+        return kind == GameObject.class ? WALL_KIND : kind.getSimpleName();
+    }
+}
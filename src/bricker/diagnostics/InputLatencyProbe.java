@@ -0,0 +1,119 @@
+package bricker.diagnostics;
+
+import java.awt.KeyboardFocusManager;
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The InputLatencyProbe class measures the paddle's input latency: the time from an arrow key
+ * event to the end of the render of the first frame the key changed the paddle's movement in.
+ *
+ * Key events are timestamped on the AWT event thread as they are dispatched, before the game
+ * polls the keyboard. The game thread reports each keyboard sample with the number of its frame,
+ * and each rendered frame with the number of the newest frame it shows, which lags behind the
+ * sampled frames when the game is simulated on another thread; a render showing an older frame
+ * does not count. Events that did not change the sampled direction, such as key repeats, are
+ * dropped. The last
+ * SAMPLES_CAPACITY latencies are kept for the percentiles, which are printed on request and
+ * published in the {@link GameMetrics} whenever a latency is measured.
+ */
+public class InputLatencyProbe {
+
+    private static final int SAMPLES_CAPACITY = 1024;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final long NO_EVENT = 0;
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final String REPORT_MSG =
+            "Input latency over %d key changes: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n";
+    private static final String NO_SAMPLES_MSG = "Input latency: no key changes measured";
+
+    private final AtomicLong pendingEventNanos = new AtomicLong(NO_EVENT);   // Earliest unsampled event.
+    private long awaitingFrameNanos = NO_EVENT;   // The event whose frame is being rendered.
+    private long awaitingFrame;                   // The frame that sampled that event.
+    private final long[] samples = new long[SAMPLES_CAPACITY];
+    private final long[] sortedSamples = new long[SAMPLES_CAPACITY];
+    private final double[] quantiles = new double[QUANTILES.length];
+    private long samplesNum;
+
+    /**
+     * Starts timestamping the arrow key events of the application's windows.
+     */
+    public void install() {
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(event -> {
+            int keyCode = event.getKeyCode();
+            if ((keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_RIGHT) &&
+                    event.getID() != KeyEvent.KEY_TYPED) {
+                pendingEventNanos.compareAndSet(NO_EVENT, System.nanoTime());
+            }
+            return false;   // Let the event reach the game.
+        });
+    }
+
+    /**
+     * Reports that the keyboard was sampled for a frame.
+     *
+     * @param directionChanged True if the sampled direction differs from the previous frame's.
+     * @param frame            The number of the frame sampled for, increasing from frame to frame.
+     */
+    public void inputSampled(boolean directionChanged, long frame) {
+        long eventNanos = pendingEventNanos.getAndSet(NO_EVENT);
+        if (directionChanged && eventNanos != NO_EVENT) {
+            awaitingFrameNanos = eventNanos;
+            awaitingFrame = frame;
+        }
+    }
+
+    /**
+     * Reports that a frame was rendered, measuring the latency of the key change it shows.
+     *
+     * @param frame The number of the newest frame the render shows, as passed to
+     *              {@link #inputSampled(boolean, long)}.
+     */
+    public void framePresented(long frame) {
+        if (awaitingFrameNanos == NO_EVENT || frame < awaitingFrame) {
+            return;
+        }
+        samples[(int) (samplesNum++ % SAMPLES_CAPACITY)] = System.nanoTime() - awaitingFrameNanos;
+        awaitingFrameNanos = NO_EVENT;
+        int count = sortSamples();
+        for (int i = 0; i < QUANTILES.length; i++) {
+            quantiles[i] = quantile(count, QUANTILES[i]);
+        }
+        GameMetrics.recordInputLatency(quantiles, sortedSamples[count - 1], samplesNum);
+    }
+
+    /**
+     * Prints the latency percentiles of the last key changes.
+     */
+    public void printReport() {
+        int count = sortSamples();
+        if (count == 0) {
+            System.out.println(NO_SAMPLES_MSG);
+            return;
+        }
+        System.out.printf(REPORT_MSG, count, quantile(count, QUANTILES[0]) / NANOS_IN_MILLI,
+                quantile(count, QUANTILES[1]) / NANOS_IN_MILLI,
+                quantile(count, QUANTILES[2]) / NANOS_IN_MILLI,
+                sortedSamples[count - 1] / NANOS_IN_MILLI);
+    }
+
+    /**
+     * Copies the kept samples into the sorted array.
+     *
+     * @return The number of kept samples.
+     */
+    private int sortSamples() {
+        int count = (int) Math.min(samplesNum, SAMPLES_CAPACITY);
+        System.arraycopy(samples, 0, sortedSamples, 0, count);
+        Arrays.sort(sortedSamples, 0, count);
+        return count;
+    }
+
+    /**
+     * Picks a quantile of the sorted samples, by the nearest rank.
+     */
+    private double quantile(int count, double quantile) {
+        return sortedSamples[Math.max((int) Math.ceil(quantile * count) - 1, 0)];
+    }
+}
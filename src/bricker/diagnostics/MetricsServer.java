@@ -0,0 +1,100 @@
+package bricker.diagnostics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * The MetricsServer class serves the {@link GameMetrics} on localhost in the Prometheus text
+ * format at /metrics, started from the command line. Scrapes are answered on a daemon thread of
+ * their own, so they never run on the game thread.
+ */
+public class MetricsServer {
+
+    /**
+     * The command-line argument starting the server, optionally followed by =port.
+     */
+    public static final String ARG = "--metrics";
+    private static final String ARG_WITH_PORT = ARG + "=";
+    private static final int DEFAULT_PORT = 9464;
+    private static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int HTTP_OK = 200;
+    private static final int INITIAL_RESPONSE_CAPACITY = 4096;
+    private static final String THREAD_NAME = "Metrics server";
+    private static final String STARTED_MSG = "Serving metrics at http://localhost:%d%s%n";
+    private static final String FAILED_MSG = "Could not serve metrics: ";
+    private static final int STOP_DELAY_SECONDS = 0;
+
+    private static HttpServer server;   // The running server, or null.
+
+    private MetricsServer() {
+    }
+
+    /**
+     * Checks if a command-line argument asks for the metrics server.
+     *
+     * @param arg The argument.
+     * @return True if the argument is --metrics or --metrics=port.
+     */
+    public static boolean isMetricsArg(String arg) {
+        return arg.equals(ARG) || arg.startsWith(ARG_WITH_PORT);
+    }
+
+    /**
+     * Starts the server as asked by a command-line argument and enables the metrics, reporting
+     * failures without stopping the game.
+     *
+     * @param arg The argument, --metrics or --metrics=port.
+     */
+    public static void start(String arg) {
+        try {
+            int port = arg.startsWith(ARG_WITH_PORT) ?
+                    Integer.parseInt(arg.substring(ARG_WITH_PORT.length())) : DEFAULT_PORT;
+            server = HttpServer.create(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext(PATH, MetricsServer::handle);
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            GameMetrics.enable();
+            System.out.printf(STARTED_MSG, port, PATH);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(FAILED_MSG + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the server if it is running, so its dispatcher thread does not keep the JVM alive
+     * after the game ends.
+     */
+    public static void stop() {
+        if (server != null) {
+            server.stop(STOP_DELAY_SECONDS);
+            server = null;
+        }
+    }
+
+    /**
+     * Answers a scrape with the current metrics.
+     */
+    private static void handle(HttpExchange exchange) throws IOException {
+        StringBuilder metrics = new StringBuilder(INITIAL_RESPONSE_CAPACITY);
+        GameMetrics.writeExposition(metrics);
+        byte[] body = metrics.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(HTTP_OK, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
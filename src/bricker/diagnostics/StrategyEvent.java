@@ -0,0 +1,78 @@
+package bricker.diagnostics;
+
+import bricker.brick_strategies.CollisionStrategy;
+import danogl.GameObject;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The StrategyEvent class is a Java Flight Recorder event covering one call to a brick's
+ * collision strategy, with the strategy's concrete type and how deeply it is nested inside
+ * double behavior strategies. The call is also traced if a trace is being recorded.
+ */
+@Name("bricker.Strategy")
+@Label("Collision Strategy")
+@Category("Bricker")
+@Description("A call to a brick's collision strategy")
+@StackTrace(false)
+public class StrategyEvent extends jdk.jfr.Event {
+
+    @Label("Strategy Type")
+    public String strategyType;
+
+    @Label("Nesting Depth")
+    @Description("0 for a brick's own strategy, 1 inside a double behavior, and so on")
+    public int nestingDepth;
+
+    /**
+     * Calls a collision strategy, recording the call if strategy events are being recorded.
+     *
+     * @param strategy     The strategy to call.
+     * @param thisObj      The game object associated with the strategy.
+     * @param otherObj     The other game object involved in the collision.
+     * @param nestingDepth The number of double behavior strategies the strategy is nested in.
+     */
+    public static void onCollision(CollisionStrategy strategy,
+                                   GameObject thisObj,
+                                   GameObject otherObj,
+                                   int nestingDepth) {
+        StrategyEvent event = start();
+        long traceStart = TraceRecorder.now();
+        strategy.onCollision(thisObj, otherObj);
+        TraceRecorder.completeStrategy(strategy, traceStart, nestingDepth);
+        end(event, strategy, nestingDepth);
+    }
+
+    /**
+     * Starts timing a strategy call made by the caller, for calls that are not a plain
+     * {@link CollisionStrategy#onCollision}, such as the effects of a compiled strategy.
+     *
+     * @return The event to pass to {@link #end}, or null if strategy events are not recorded.
+     */
+    public static StrategyEvent start() {
+        if (!FlightRecording.isRecordingStrategies()) {
+            return null;
+        }
+        StrategyEvent event = new StrategyEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends timing a strategy call started by {@link #start()}, recording it if needed.
+     *
+     * @param event        The event returned by {@link #start()}, or null.
+     * @param strategy     The strategy called, named by its type.
+     * @param nestingDepth The number of double behavior strategies the strategy is nested in.
+     */
+    public static void end(StrategyEvent event, Object strategy, int nestingDepth) {
+        if (event != null && event.shouldCommit()) {
+            event.strategyType = strategy.getClass().getSimpleName();
+            event.nestingDepth = nestingDepth;
+            event.commit();
+        }
+    }
+}
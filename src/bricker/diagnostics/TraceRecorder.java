@@ -0,0 +1,408 @@
+package bricker.diagnostics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The TraceRecorder class records a timeline of the game in the Chrome trace event format, to
+ * be opened in Perfetto or chrome://tracing, where one-off stalls that averages hide stand out:
+ * frames and their phases, renders, collision strategy calls, bursts of spawned objects and
+ * garbage collections, each on the thread it ran on. It is started from the command line.
+ *
+ * Events from every thread are written into one ring of preallocated arrays: a thread claims
+ * the next slot with a compare-and-set, fills it and publishes it, so recording an event
+ * allocates nothing and takes no lock, and no thread holds on to space it is not using, however
+ * many sessions or fork/join workers record. A background writer thread turns the published
+ * events into JSON in order and frees their slots. The ring is fixed, so when the writer falls
+ * behind, events are dropped and counted rather than growing memory or stalling the game. The
+ * events still in the ring are written when the JVM exits.
+ */
+public final class TraceRecorder {
+
+    /**
+     * The command-line argument starting the recorder, optionally followed by =file.
+     */
+    public static final String ARG = "--trace";
+
+    /** A frame of the game, from the physics step to the end of the rules. */
+    public static final int FRAME = 0;
+    /** The update of the game objects, with their collisions when not traced apart. */
+    public static final int PHYSICS = 1;
+    /** The collisions between the game objects. */
+    public static final int COLLISIONS = 2;
+    /** The game rules applied after the physics. */
+    public static final int RULES = 3;
+    /** A render of the window. */
+    public static final int RENDER = 4;
+    /** The objects spawned in a frame, with their number. */
+    public static final int SPAWN_BURST = 5;
+
+    private static final String[] BUILT_IN_NAMES = {"Frame", "Physics", "Collisions", "Rules", "Render", "Spawn burst"};
+    private static final String[] BUILT_IN_ARG_NAMES = {null, null, null, null, null, "objects"};
+    private static final String DEPTH_ARG_NAME = "depth";
+    private static final String GC_NAME_FORMAT = "GC: %s (%s)";
+    private static final int MAX_NAMES = 256;
+    private static final int RING_EVENTS = 1 << 18;   // A power of two.
+    private static final int RING_MASK = RING_EVENTS - 1;
+    private static final long NO_ARG = Long.MIN_VALUE;
+    private static final long WRITER_IDLE_NANOS = 1_000_000;
+    private static final long NANOS_IN_MICRO = 1000;
+    private static final long NANOS_IN_MILLI = 1_000_000;
+    private static final long STOP_TIMEOUT_MILLIS = 2000;
+    private static final int PROCESS_ID = 1;
+    private static final String ARG_WITH_FILE = ARG + "=";
+    private static final Path DEFAULT_FILE = Path.of("bricker.trace.json");
+    private static final String WRITER_THREAD_NAME = "Trace writer";
+    private static final String STARTED_MSG = "Recording a trace to %s%n";
+    private static final String STOPPED_MSG = "Trace written to %s, %d events dropped%n";
+    private static final String FAILED_MSG = "Could not record a trace: ";
+    private static final String WRITER_STUCK_MSG =
+            "Trace to %s left incomplete: the writer did not stop within %d ms%n";
+
+    private static final String[] names = new String[MAX_NAMES];
+    private static final String[] argNames = new String[MAX_NAMES];
+    private static int namesNum;
+    private static final ClassValue<Integer> STRATEGY_NAMES = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return register(type.getSimpleName(), DEPTH_ARG_NAME);
+        }
+    };
+    private static final ConcurrentHashMap<String, Integer> GC_NAMES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Long, String> THREAD_NAMES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> THREAD_NAMED = ThreadLocal.withInitial(() -> {
+        Thread thread = Thread.currentThread();
+        THREAD_NAMES.put(thread.threadId(), thread.getName());
+        return Boolean.TRUE;
+    });
+    private static final LongAdder droppedEvents = new LongAdder();
+
+    private static volatile boolean enabled;
+    private static volatile boolean stopping;   // Tells the writer to stop.
+    // The ring, in parallel arrays indexed by the event's sequence number masked.
+    private static long[] timestamps;
+    private static long[] durations;
+    private static long[] args;
+    private static long[] threadIds;
+    private static int[] eventNames;
+    private static AtomicLongArray published;   // The sequence number + 1 of each slot's event.
+    private static final AtomicLong head = new AtomicLong();   // The next sequence number to claim.
+    private static volatile long tail;          // The next sequence number to write.
+    private static long originNanos;
+    private static Path file;
+    private static Writer out;
+    private static Thread writerThread;
+    private static boolean firstEvent = true;
+    private static final Set<Long> namedThreads = new HashSet<>();
+    private static final StringBuilder line = new StringBuilder();
+
+    static {
+        for (String name : BUILT_IN_NAMES) {
+            register(name, BUILT_IN_ARG_NAMES[namesNum]);
+        }
+    }
+
+    private TraceRecorder() {
+    }
+
+    /**
+     * Checks if a command-line argument asks for a trace.
+     *
+     * @param arg The argument.
+     * @return True if the argument is --trace or --trace=file.
+     */
+    public static boolean isTracingArg(String arg) {
+        return arg.equals(ARG) || arg.startsWith(ARG_WITH_FILE);
+    }
+
+    /**
+     * Starts recording as asked by a command-line argument, reporting failures without
+     * stopping the game. The trace is completed when the JVM exits.
+     *
+     * @param arg The argument, --trace or --trace=file.
+     */
+    public static synchronized void start(String arg) {
+        if (enabled) {
+            return;
+        }
+        file = arg.startsWith(ARG_WITH_FILE) ? Path.of(arg.substring(ARG_WITH_FILE.length())) : DEFAULT_FILE;
+        try {
+            out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+            out.write("{\"traceEvents\":[\n");
+        } catch (IOException e) {
+            System.err.println(FAILED_MSG + e.getMessage());
+            return;
+        }
+        timestamps = new long[RING_EVENTS];
+        durations = new long[RING_EVENTS];
+        args = new long[RING_EVENTS];
+        threadIds = new long[RING_EVENTS];
+        eventNames = new int[RING_EVENTS];
+        published = new AtomicLongArray(RING_EVENTS);
+        originNanos = System.nanoTime();
+        writerThread = new Thread(TraceRecorder::writeEvents, WRITER_THREAD_NAME);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        listenToGarbageCollections();
+        Runtime.getRuntime().addShutdownHook(new Thread(TraceRecorder::stop));
+        enabled = true;
+        System.out.printf(STARTED_MSG, file.toAbsolutePath());
+    }
+
+    /**
+     * Checks if a trace is being recorded.
+     *
+     * @return True if events are recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads the clock for the start of a span, or nothing if no trace is recorded.
+     *
+     * @return The current time in nanoseconds, or 0 if no trace is recorded.
+     */
+    public static long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a span ending now.
+     *
+     * @param name       The name of the span, one of the name constants.
+     * @param startNanos The start of the span, from {@link #now()}.
+     */
+    public static void complete(int name, long startNanos) {
+        complete(name, startNanos, NO_ARG);
+    }
+
+    /**
+     * Records a span ending now, with the value of its argument.
+     *
+     * @param name       The name of the span, one of the name constants.
+     * @param startNanos The start of the span, from {@link #now()}.
+     * @param arg        The value of the span's argument.
+     */
+    public static void complete(int name, long startNanos, long arg) {
+        if (enabled && startNanos != 0) {
+            record(name, startNanos, System.nanoTime() - startNanos, arg);
+        }
+    }
+
+    /**
+     * Records a call to a collision strategy ending now, named by the strategy's type.
+     *
+     * @param strategy     The strategy called.
+     * @param startNanos   The start of the call, from {@link #now()}.
+     * @param nestingDepth The number of double behavior strategies the strategy is nested in.
+     */
+    public static void completeStrategy(Object strategy, long startNanos, int nestingDepth) {
+        if (enabled && startNanos != 0) {
+            record(STRATEGY_NAMES.get(strategy.getClass()), startNanos, System.nanoTime() - startNanos,
+                    nestingDepth);
+        }
+    }
+
+    /**
+     * Adds a name to the name table, failing silently to the first name when it is full.
+     */
+    private static synchronized int register(String name, String argName) {
+        if (namesNum == MAX_NAMES) {
+            return FRAME;
+        }
+        names[namesNum] = name;
+        argNames[namesNum] = argName;
+        return namesNum++;
+    }
+
+    /**
+     * Claims the next slot of the ring and publishes an event in it, or drops the event if the
+     * writer has not freed the slot yet.
+     */
+    private static void record(int name, long startNanos, long durationNanos, long arg) {
+        THREAD_NAMED.get();
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= RING_EVENTS) {
+                droppedEvents.increment();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+        int slot = (int) (sequence & RING_MASK);
+        timestamps[slot] = startNanos;
+        durations[slot] = durationNanos;
+        args[slot] = arg;
+        threadIds[slot] = Thread.currentThread().threadId();
+        eventNames[slot] = name;
+        published.lazySet(slot, sequence + 1);
+    }
+
+    /**
+     * Records every garbage collection as a span on the thread delivering the notifications.
+     */
+    private static void listenToGarbageCollections() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(collector instanceof NotificationEmitter)) {
+                continue;
+            }
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (!enabled || !notification.getType()
+                        .equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                int name = GC_NAMES.computeIfAbsent(info.getGcName() + info.getGcCause(),
+                        key -> register(String.format(GC_NAME_FORMAT, info.getGcName(), info.getGcCause()), null));
+                long durationNanos = info.getGcInfo().getDuration() * NANOS_IN_MILLI;
+                record(name, System.nanoTime() - durationNanos, durationNanos, NO_ARG);
+            }, null, null);
+        }
+    }
+
+    /**
+     * Writes the published events in order as they come until told to stop. Runs on the writer
+     * thread.
+     */
+    private static void writeEvents() {
+        try {
+            while (!stopping) {
+                if (!writePublishedEvents()) {
+                    LockSupport.parkNanos(WRITER_IDLE_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(FAILED_MSG + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the events published so far, up to the first slot still being filled, and frees
+     * their slots.
+     *
+     * @return True if any event was written.
+     */
+    private static boolean writePublishedEvents() throws IOException {
+        long first = tail;
+        long sequence = first;
+        while (published.get((int) (sequence & RING_MASK)) == sequence + 1) {
+            writeEvent((int) (sequence & RING_MASK));
+            tail = ++sequence;
+        }
+        return sequence != first;
+    }
+
+    /**
+     * Writes an event as a JSON object, naming its thread first if it is new.
+     */
+    private static void writeEvent(int slot) throws IOException {
+        long threadId = threadIds[slot];
+        if (namedThreads.add(threadId)) {
+            line.setLength(0);
+            line.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":").append(PROCESS_ID)
+                    .append(",\"tid\":").append(threadId)
+                    .append(",\"args\":{\"name\":\"");
+            appendEscaped(THREAD_NAMES.getOrDefault(threadId, String.valueOf(threadId)));
+            line.append("\"}}");
+            writeLine();
+        }
+        int name = eventNames[slot];
+        line.setLength(0);
+        line.append("{\"name\":\"");
+        appendEscaped(names[name]);
+        line.append("\",\"ph\":\"X\",\"ts\":");
+        appendMicros(timestamps[slot] - originNanos);
+        line.append(",\"dur\":");
+        appendMicros(durations[slot]);
+        line.append(",\"pid\":").append(PROCESS_ID).append(",\"tid\":").append(threadId);
+        if (args[slot] != NO_ARG && argNames[name] != null) {
+            line.append(",\"args\":{\"").append(argNames[name]).append("\":").append(args[slot])
+                    .append('}');
+        }
+        line.append('}');
+        writeLine();
+    }
+
+    private static void writeLine() throws IOException {
+        if (!firstEvent) {
+            out.write(",\n");
+        }
+        firstEvent = false;
+        out.append(line);
+    }
+
+    /**
+     * Appends nanoseconds as microseconds with three decimals, without formatting.
+     */
+    private static void appendMicros(long nanos) {
+        long micros = nanos / NANOS_IN_MICRO;
+        long remainder = Math.abs(nanos % NANOS_IN_MICRO);
+        if (nanos < 0 && micros == 0) {
+            line.append('-');
+        }
+        line.append(micros).append('.');
+        if (remainder < 100) {
+            line.append('0');
+        }
+        if (remainder < 10) {
+            line.append('0');
+        }
+        line.append(remainder);
+    }
+
+    private static void appendEscaped(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\');
+            }
+            line.append(c < ' ' ? ' ' : c);
+        }
+    }
+
+    /**
+     * Stops recording, writes the events still in the ring and completes the file. Runs when
+     * the JVM exits. If the writer is stuck, for example on a full disk, the file is left
+     * incomplete rather than written by two threads at once.
+     */
+    private static void stop() {
+        enabled = false;
+        stopping = true;
+        try {
+            writerThread.join(STOP_TIMEOUT_MILLIS);
+            if (writerThread.isAlive()) {
+                // The writer still owns the output, so it is left as it is rather than raced.
+                System.err.printf(WRITER_STUCK_MSG, file.toAbsolutePath(), STOP_TIMEOUT_MILLIS);
+                return;
+            }
+            // The writer is done, so this thread now owns the output and the ring.
+            writePublishedEvents();
+            out.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+            out.close();
+            System.out.printf(STOPPED_MSG, file.toAbsolutePath(), droppedEvents.sum());
+        } catch (IOException e) {
+            System.err.println(FAILED_MSG + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package bricker.gameobjects;
 
+import bricker.utils.EffectScheduler;
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.Sound;
+import bricker.utils.CollisionSound;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
@@ -15,6 +15,7 @@ import danogl.util.Vector2;
 public class Ball extends BasicBall {
 
     private final Counter hitsCounter = new Counter();   // Counter to track the number of hits.
+    private final EffectScheduler effectScheduler;       // Ends the effects counting hits.
 
     /**
      * Constructs a new MainBall instance.
@@ -26,21 +27,23 @@ public class Ball extends BasicBall {
      *                           Can be null if the main ball is not rendered.
      * @param collisionSound     The sound played on collision with other GameObjects.
      * @param windowDimensions   Dimensions of the game window.
-     * @param gameObjects        Collection of GameObjects in the game.
+     * @param effectScheduler    The scheduler told about every hit of the main ball.
      */
     public Ball(Vector2 topLeftCorner,
                     Vector2 dimensions,
                     Renderable renderable,
-                    Sound collisionSound,
+                    CollisionSound collisionSound,
                     Vector2 windowDimensions,
-                    GameObjectCollection gameObjects) {
-        super(topLeftCorner, dimensions, renderable, windowDimensions, collisionSound, gameObjects);
+                    EffectScheduler effectScheduler) {
+        super(topLeftCorner, dimensions, renderable, windowDimensions, collisionSound);
         // Sound played on collision with other GameObjects.
+        this.effectScheduler = effectScheduler;
     }
 
     /**
      * Handles the logic when a collision occurs with another GameObject.
-     * Increments the hits counter and performs the default ball collision handling.
+     * Increments the hits counter, performs the default ball collision handling and ends the
+     * effects waiting for this hit.
      *
      * @param other     The GameObject with which the main ball collides.
      * @param collision Information about the collision.
@@ -49,6 +52,7 @@ public class Ball extends BasicBall {
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
         hitsCounter.increment();
+        effectScheduler.recordBallHit();
     }
 
     /**
@@ -59,7 +63,14 @@ public class Ball extends BasicBall {
     public int getCollisionCounter() {
         return hitsCounter.value();
     }
-}
-
-
 
+    /**
+     * Sets the number of hits the main ball has encountered, used when restoring a saved game.
+     *
+     * @param hits The number of hits.
+     */
+    public void setCollisionCounter(int hits) {
+        hitsCounter.reset();
+        hitsCounter.increaseBy(hits);
+    }
+}
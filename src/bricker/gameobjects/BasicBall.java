@@ -1,9 +1,10 @@
 package bricker.gameobjects;
 
+import bricker.diagnostics.CollisionEvent;
+import bricker.diagnostics.GameMetrics;
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.Sound;
+import bricker.utils.CollisionSound;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
@@ -13,12 +14,13 @@ import java.util.Random;
  * The BasicBall class represents a ball GameObject in the Bricker game.
  * It extends the GameObject class and includes specific functionality for a ball.
  */
-public class BasicBall extends GameObject {
+public class BasicBall extends GameObject implements FallingObject {
 
     private static final float BALL_SPEED = 250;
+    private static final float HALF = 0.5f;
+    private static final float REFLECTION_FACTOR = 2;
     private final Vector2 windowDimension;   // The dimensions of the game window.
-    private final Sound onCollisionSound;    // The sound played on collision with other GameObjects.
-    private final GameObjectCollection gameObjects;  // Collection of GameObjects in the game.
+    private final CollisionSound onCollisionSound;    // The sound played on collision with other GameObjects.
 
     /**
      * Constructs a new Ball instance.
@@ -29,18 +31,16 @@ public class BasicBall extends GameObject {
      * @param renderable         The renderable representing the ball. Can be null if not rendered.
      * @param windowDimension    Dimensions of the game window.
      * @param onCollisionSound   The sound played on collision with other GameObjects.
-     * @param gameObjects        Collection of GameObjects in the game.
+     *                           Can be null if the game runs without sound.
      */
     public BasicBall(Vector2 topLeftCorner,
                      Vector2 dimensions,
                      Renderable renderable,
                      Vector2 windowDimension,
-                     Sound onCollisionSound,
-                     GameObjectCollection gameObjects) {
+                     CollisionSound onCollisionSound) {
         super(topLeftCorner, dimensions, renderable);
         this.windowDimension = windowDimension;
         this.onCollisionSound = onCollisionSound;
-        this.gameObjects = gameObjects;
     }
 
     /**
@@ -53,37 +53,43 @@ public class BasicBall extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-        // Reverse the ball's velocity based on the collision normal
-        Vector2 newVel = getVelocity().flipped(collision.getNormal());
-        this.setVelocity(newVel);
+        CollisionEvent.record(this, other);
+        GameMetrics.recordCollision(this, other);
+        // Reflect the ball's velocity across the collision normal, v - 2(v.n)n, without
+        // building intermediate vectors
+        Vector2 velocity = getVelocity();
+        Vector2 normal = collision.getNormal();
+        float factor = REFLECTION_FACTOR * (velocity.x() * normal.x() + velocity.y() * normal.y());
+        float newVelX = velocity.x() - normal.x() * factor;
+        float newVelY = velocity.y() - normal.y() * factor;
+        transform().setVelocityX(newVelX);
+        transform().setVelocityY(newVelY);
         // Play the collision sound
-        onCollisionSound.play();
+        if (onCollisionSound != null) {
+            onCollisionSound.play();
+        }
     }
 
     /**
-     * Updates the ball's position and checks if it has fallen below the game window.
-     * If so, removes the ball from the GameObject collection.
+     * Checks if the ball has fallen below the game window.
      *
-     * @param deltaTime The time elapsed since the last update.
+     * @return True if the ball's center is below the game window.
      */
     @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        // Check if the ball has fallen below the game window
-        if (this.getCenter().y() > windowDimension.y()){
-            // Remove the ball from the GameObject collection
-            gameObjects.removeGameObject(this);
-        }
+    public boolean hasFallen() {
+        // The center is computed from the corner, as getCenter would build a new vector
+        return getTopLeftCorner().y() + getDimensions().y() * HALF > windowDimension.y();
     }
 
     /**
      * Sets a random velocity for the ball.
      * The velocity can be positive or negative in both x and y directions.
+     *
+     * @param random The random source of the game session.
      */
-    public void setRandomVelocity() {
+    public void setRandomVelocity(Random random) {
         float ballVelX = BALL_SPEED;
         float ballVelY = BALL_SPEED;
-        Random random = new Random();
         // Randomly reverse the velocity in x direction
         if (random.nextBoolean()) {
             ballVelX *= -1;
@@ -93,6 +99,7 @@ public class BasicBall extends GameObject {
             ballVelY *= -1;
         }
         // Set the random velocity for the ball
-        this.setVelocity(new Vector2(ballVelX, ballVelY));
+        transform().setVelocityX(ballVelX);
+        transform().setVelocityY(ballVelY);
     }
 }
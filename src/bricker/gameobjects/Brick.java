@@ -1,6 +1,8 @@
 package bricker.gameobjects;
 
 import bricker.brick_strategies.CollisionStrategy;
+import bricker.diagnostics.GameMetrics;
+import bricker.diagnostics.StrategyEvent;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.gui.rendering.Renderable;
@@ -20,7 +22,7 @@ public class Brick extends GameObject {
      * the tag value for an inactive brick, meaning a brick which is not in the game.
      */
     public static final String INACTIVE_TAG = "INACTIVE";
-    private final CollisionStrategy collisionStrategy;  // Strategy for handling collisions with the brick.
+    private CollisionStrategy collisionStrategy;  // Strategy for handling collisions with the brick.
     private boolean collided = false;
 
     /**
@@ -53,6 +55,37 @@ public class Brick extends GameObject {
         if (collided) return;
         collided = true;
         super.onCollisionEnter(other, collision);
-        collisionStrategy.onCollision(this, other);
+        GameMetrics.recordStrategyActivation(collisionStrategy);
+        StrategyEvent.onCollision(collisionStrategy, this, other, 0);
+    }
+
+    /**
+     * Brings the brick back into play with a new collision strategy, so the same instance
+     * can be reused when the game restarts.
+     *
+     * @param collisionStrategy The new strategy for handling collisions with the brick.
+     */
+    public void revive(CollisionStrategy collisionStrategy) {
+        this.collisionStrategy = collisionStrategy;
+        collided = false;
+        this.setTag(ACTIVE_TAG);
+    }
+
+    /**
+     * Takes the brick out of play without running its collision strategy.
+     * The caller is responsible for removing it from the game objects.
+     */
+    public void deactivate() {
+        collided = true;
+        this.setTag(INACTIVE_TAG);
+    }
+
+    /**
+     * Checks whether the brick is still in the game.
+     *
+     * @return True if the brick is active, false otherwise.
+     */
+    public boolean isActive() {
+        return getTag().equals(ACTIVE_TAG);
     }
 }
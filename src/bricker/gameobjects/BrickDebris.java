@@ -0,0 +1,239 @@
+package bricker.gameobjects;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.SplittableRandom;
+
+/**
+ * The BrickDebris class shows the debris of broken bricks. It is a single game object covering
+ * the window, whose particles live in preallocated float arrays of position, velocity and life:
+ * they are moved in one loop per frame and drawn by one renderable, instead of being game
+ * objects of their own. Bursting or updating the particles allocates nothing, and their number
+ * never exceeds a fixed capacity; a burst finding the arrays full emits fewer particles.
+ *
+ * The debris is decoration only: it never collides, and draws from a random source of its own,
+ * so it does not change how the game goes on.
+ */
+public class BrickDebris extends GameObject {
+
+    private static final int PARTICLES_PER_BRICK = 48;
+    private static final float MIN_SPEED = 40f;
+    private static final float MAX_SPEED = 180f;
+    private static final float UPWARD_SPEED = 60f;   // Added upwards, so debris first flies up.
+    private static final float GRAVITY = 400f;
+    private static final float MIN_LIFE = 0.5f;      // Seconds.
+    private static final float MAX_LIFE = 1.2f;
+    private static final long SEED = 1;
+
+    private final Particles particles;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+
+    /**
+     * Constructs a new BrickDebris instance with no particles.
+     *
+     * @param windowDimensions The dimensions of the game window, which the object covers.
+     * @param capacity         The largest number of particles alive at once.
+     */
+    public BrickDebris(Vector2 windowDimensions, int capacity) {
+        super(Vector2.ZERO, windowDimensions, null);
+        particles = new Particles(capacity, windowDimensions);
+        renderer().setRenderable(particles);
+    }
+
+    /**
+     * Emits the debris of a brick, scattering from random points of the brick outwards.
+     *
+     * @param topLeftCorner The top-left corner of the brick.
+     * @param dimensions    The dimensions of the brick.
+     */
+    public void burst(Vector2 topLeftCorner, Vector2 dimensions) {
+        float centerX = topLeftCorner.x() + dimensions.x() / 2;
+        float centerY = topLeftCorner.y() + dimensions.y() / 2;
+        int toEmit = Math.min(PARTICLES_PER_BRICK, particles.capacity - particles.count);
+        for (int i = 0; i < toEmit; i++) {
+            int particle = particles.count++;
+            float x = topLeftCorner.x() + (float) random.nextDouble() * dimensions.x();
+            float y = topLeftCorner.y() + (float) random.nextDouble() * dimensions.y();
+            float dx = x - centerX;
+            float dy = y - centerY;
+            float length = (float) Math.sqrt(dx * dx + dy * dy);
+            float speed = MIN_SPEED + (float) random.nextDouble() * (MAX_SPEED - MIN_SPEED);
+            float scale = length > 0 ? speed / length : 0;
+            particles.xs[particle] = x;
+            particles.ys[particle] = y;
+            particles.velocityXs[particle] = dx * scale;
+            particles.velocityYs[particle] = dy * scale - UPWARD_SPEED;
+            float life = MIN_LIFE + (float) random.nextDouble() * (MAX_LIFE - MIN_LIFE);
+            particles.lives[particle] = life;
+            particles.initialLives[particle] = life;
+        }
+    }
+
+    /**
+     * Removes every particle.
+     */
+    public void clear() {
+        particles.count = 0;
+    }
+
+    /**
+     * Retrieves the number of particles alive.
+     *
+     * @return The number of particles.
+     */
+    public int getParticlesNum() {
+        return particles.count;
+    }
+
+    /**
+     * Retrieves the particles, to copy them for drawing on another thread.
+     *
+     * @return The particles, drawn as the object's renderable.
+     */
+    public Particles getParticles() {
+        return particles;
+    }
+
+    /**
+     * The debris never collides with other objects.
+     *
+     * @param other The other object.
+     * @return False.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return false;
+    }
+
+    /**
+     * Moves every particle and removes those whose life ended, moving the last particle into
+     * the slot of each removed one.
+     *
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        float[] xs = particles.xs;
+        float[] ys = particles.ys;
+        float[] velocityXs = particles.velocityXs;
+        float[] velocityYs = particles.velocityYs;
+        float[] lives = particles.lives;
+        float[] initialLives = particles.initialLives;
+        int count = particles.count;
+        int particle = 0;
+        while (particle < count) {
+            float life = lives[particle] - deltaTime;
+            if (life <= 0) {
+                count--;
+                xs[particle] = xs[count];
+                ys[particle] = ys[count];
+                velocityXs[particle] = velocityXs[count];
+                velocityYs[particle] = velocityYs[count];
+                lives[particle] = lives[count];
+                initialLives[particle] = initialLives[count];
+                continue;
+            }
+            lives[particle] = life;
+            velocityYs[particle] += GRAVITY * deltaTime;
+            xs[particle] += velocityXs[particle] * deltaTime;
+            ys[particle] += velocityYs[particle] * deltaTime;
+            particle++;
+        }
+        particles.count = count;
+    }
+
+    /**
+     * The particles of the debris and the renderable drawing them: a small square per particle,
+     * fading as its life ends, placed within the bounds the object is drawn at, so the camera
+     * applies to the debris as to any object.
+     */
+    public static final class Particles implements Renderable {
+
+        private static final int PARTICLE_SIZE = 3;
+        private static final int FADE_LEVELS = 8;
+        private static final Color[] FADE_COLORS = new Color[FADE_LEVELS];
+
+        static {
+            for (int level = 0; level < FADE_LEVELS; level++) {
+                FADE_COLORS[level] = new Color(200, 120, 60, 255 * (level + 1) / FADE_LEVELS);
+            }
+        }
+
+        private final int capacity;
+        private final Vector2 windowDimensions;
+        private final float[] xs;
+        private final float[] ys;
+        private final float[] velocityXs;
+        private final float[] velocityYs;
+        private final float[] lives;          // Seconds left.
+        private final float[] initialLives;   // Seconds at the burst, for fading.
+        private int count;
+
+        /**
+         * Constructs new empty Particles.
+         *
+         * @param capacity         The largest number of particles.
+         * @param windowDimensions The dimensions of the window the particles are placed in.
+         */
+        public Particles(int capacity, Vector2 windowDimensions) {
+            this.capacity = capacity;
+            this.windowDimensions = windowDimensions;
+            xs = new float[capacity];
+            ys = new float[capacity];
+            velocityXs = new float[capacity];
+            velocityYs = new float[capacity];
+            lives = new float[capacity];
+            initialLives = new float[capacity];
+        }
+
+        /**
+         * Copies what draws the particles of another instance of the same capacity: their
+         * positions and lives.
+         *
+         * @param other The particles to copy.
+         */
+        public void copyFrom(Particles other) {
+            count = other.count;
+            System.arraycopy(other.xs, 0, xs, 0, count);
+            System.arraycopy(other.ys, 0, ys, 0, count);
+            System.arraycopy(other.lives, 0, lives, 0, count);
+            System.arraycopy(other.initialLives, 0, initialLives, 0, count);
+        }
+
+        /**
+         * Retrieves the largest number of particles.
+         *
+         * @return The capacity.
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Draws every particle, mapping the window's coordinates to the given bounds.
+         */
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            float scaleX = dimensions.x() / windowDimensions.x();
+            float scaleY = dimensions.y() / windowDimensions.y();
+            int size = Math.max(1, Math.round(PARTICLE_SIZE * scaleX));
+            int shownLevel = -1;
+            for (int particle = 0; particle < count; particle++) {
+                int level = (int) (lives[particle] / initialLives[particle] * (FADE_LEVELS - 1));
+                if (level != shownLevel) {
+                    g.setColor(FADE_COLORS[level]);
+                    shownLevel = level;
+                }
+                g.fillRect((int) (topLeftCorner.x() + xs[particle] * scaleX),
+                        (int) (topLeftCorner.y() + ys[particle] * scaleY), size, size);
+            }
+        }
+    }
+}
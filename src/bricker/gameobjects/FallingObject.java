@@ -0,0 +1,20 @@
+package bricker.gameobjects;
+
+/**
+ * The FallingObject interface is implemented by game objects that leave the game once they fall
+ * below the game window, such as balls and hearts.
+ *
+ * The update of a falling object reads and writes only its own state, so the updates of many
+ * falling objects can run concurrently. Instead of removing itself while it is updated, a
+ * falling object reports that it has fallen, and the session removes the fallen objects in
+ * collection order after the physics step.
+ */
+public interface FallingObject {
+
+    /**
+     * Checks if the object has fallen below the game window and should leave the game.
+     *
+     * @return True if the object has fallen.
+     */
+    boolean hasFallen();
+}
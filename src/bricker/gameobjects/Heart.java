@@ -1,8 +1,10 @@
 package bricker.gameobjects;
 
+import bricker.diagnostics.CollisionEvent;
+import bricker.diagnostics.GameMetrics;
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.collisions.GameObjectCollection;
+import bricker.utils.GameObjectCommandBuffer;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import bricker.utils.LivesManager;
@@ -11,12 +13,13 @@ import bricker.utils.LivesManager;
  * The Heart class represents a heart GameObject in the Brick Breaker game.
  * It extends the GameObject class and includes specific functionality for a heart.
  */
-public class Heart extends GameObject {
+public class Heart extends GameObject implements FallingObject {
 
-    private final GameObjectCollection gameObjects;  // Collection of GameObjects in the game.
+    private final GameObjectCommandBuffer gameObjects;  // Buffered changes to the GameObjects in the game.
     private final Vector2 windowDimensions;          // Dimensions of the game window.
     private final LivesManager livesManager;         // Manages the player's lives.
     private final String mainPaddleTag;
+    private static final float HALF = 0.5f;
 
     /**
      * Constructs a new Heart instance.
@@ -26,7 +29,7 @@ public class Heart extends GameObject {
      * @param dimensions         Width and height of the heart in window coordinates.
      * @param renderable         The renderable representing the heart.
      *                           Can be null if the heart is not rendered.
-     * @param gameObjects        Collection of GameObjects in the game.
+     * @param gameObjects        Buffered changes to the GameObjects in the game.
      * @param windowDimensions   Dimensions of the game window.
      * @param livesManager       Manages the player's lives.
      * @param mainPaddleTag      Tag of mainPaddle object type.
@@ -34,7 +37,7 @@ public class Heart extends GameObject {
     public Heart(Vector2 topLeftCorner,
                  Vector2 dimensions,
                  Renderable renderable,
-                 GameObjectCollection gameObjects,
+                 GameObjectCommandBuffer gameObjects,
                  Vector2 windowDimensions,
                  LivesManager livesManager,
                  String mainPaddleTag) {
@@ -67,22 +70,21 @@ public class Heart extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
+        CollisionEvent.record(this, other);
+        GameMetrics.recordCollision(this, other);
         gameObjects.removeGameObject(this);
         livesManager.incrementLife();
     }
 
     /**
-     * Updates the heart's position and checks if it has fallen below the game window.
-     * If so, removes the heart from the GameObject collection.
+     * Checks if the heart has fallen below the game window.
      *
-     * @param deltaTime The time elapsed since the last update.
+     * @return True if the heart's center is below the game window.
      */
     @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        if (this.getCenter().y() > windowDimensions.y()){
-            gameObjects.removeGameObject(this);
-        }
+    public boolean hasFallen() {
+        // The center is computed from the corner, as getCenter would build a new vector
+        return getTopLeftCorner().y() + getDimensions().y() * HALF > windowDimensions.y();
     }
 }
 
@@ -1,23 +1,24 @@
 package bricker.gameobjects;
 
+import bricker.input.PaddleInput;
+import bricker.utils.EffectScheduler;
+import bricker.utils.TimingWheel;
 import danogl.GameObject;
-import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
-import java.awt.event.KeyEvent;
-
 /**
  * Paddle class represents the player-controlled paddle in the game.
- * It extends GameObject and adds user input functionality for paddle movement.
+ * It extends GameObject and moves according to a paddle input, such as the keyboard, and can be
+ * widened for a while by a power-up.
  */
 public class Paddle extends GameObject {
 
     // Minimum distance of the paddle from the screen edge
     private static final float MIN_DISTANCE_FROM_SCREEN_EDGE = 7;
 
-    // Input listener to handle user input
-    private final UserInputListener inputListener;
+    // Source of the movement commands
+    private final PaddleInput input;
 
     // Width of the window
     private final float sizeX;
@@ -25,6 +26,17 @@ public class Paddle extends GameObject {
     // Movement speed of the paddle
     private static final float MOVEMENT_SPEED = 300;
 
+    // Factor the width of the paddle is multiplied by while it is widened
+    private static final float WIDEN_FACTOR = 1.5f;
+
+    private static final float HALF = 0.5f;
+
+    // Width of the paddle when it is not widened
+    private final float normalWidth;
+
+    // Ends the widening of the paddle, null while it is not widened
+    private TimingWheel.Timeout widening;
+
     /**
      * Constructs a new Paddle instance.
      *
@@ -33,41 +45,70 @@ public class Paddle extends GameObject {
      * @param dimensions    Width and height in window coordinates.
      * @param renderable    The renderable representing the object. Can be null, in which case
      *                      the GameObject will not be rendered.
-     * @param inputListener The input listener for handling user input.
+     * @param input         The source of the paddle's movement commands.
+     *                      Can be null, in which case the paddle does not move.
      * @param sizeX         The width of the window.
      */
     public Paddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                  UserInputListener inputListener, float sizeX) {
+                  PaddleInput input, float sizeX) {
         super(topLeftCorner, dimensions, renderable);
 
-        this.inputListener = inputListener;
+        this.input = input;
         this.sizeX = sizeX;
+        this.normalWidth = dimensions.x();
     }
 
     /**
-     * Update method to handle paddle movement based on user input.
+     * Widens the paddle around its center for a given amount of game time. Widening a paddle
+     * that is already widened restarts the time instead of widening it further.
      *
-     * @param deltaTime The time elapsed since the last frame.
+     * @param effectScheduler The scheduler ending the widening.
+     * @param seconds         The game time the paddle stays widened.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-
-        // Vector representing the movement direction
-        Vector2 movementDirection = Vector2.ZERO;
-
-        // Check if the left arrow key is pressed
-        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
-            movementDirection = movementDirection.add(Vector2.LEFT);
+    public void widen(EffectScheduler effectScheduler, float seconds) {
+        if (widening != null) {
+            widening.cancel();
         }
+        setWidth(normalWidth * WIDEN_FACTOR);
+        widening = effectScheduler.afterSeconds(seconds, this::endWidening);
+    }
 
-        // Check if the right arrow key is pressed
-        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
-            movementDirection = movementDirection.add(Vector2.RIGHT);
+    /**
+     * Returns the paddle to its normal width around its center, cancelling a pending widening.
+     */
+    public void endWidening() {
+        if (widening != null) {
+            widening.cancel();
+            widening = null;
         }
+        setWidth(normalWidth);
+    }
 
-        // Set velocity based on the movement direction and speed
-        setVelocity(movementDirection.mult(MOVEMENT_SPEED));
+    /**
+     * Retrieves the game time the paddle stays widened.
+     *
+     * @param effectScheduler The scheduler ending the widening.
+     * @return The game time left, or 0 if the paddle is not widened.
+     */
+    public float getWideningSecondsLeft(EffectScheduler effectScheduler) {
+        return widening == null ? 0 : effectScheduler.getSecondsLeft(widening);
+    }
+
+    /**
+     * Update method to handle paddle movement based on the paddle input. The input is read
+     * before the object moves, so a new direction moves the paddle in the same frame.
+     *
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        // Direction of the movement: -1 for left, 1 for right, 0 to stay in place
+        int direction = input == null ? 0 : Integer.signum(input.getDirection(this));
+
+        // Set velocity based on the movement direction and speed, without building vectors
+        transform().setVelocityX(direction * MOVEMENT_SPEED);
+        transform().setVelocityY(0);
+        super.update(deltaTime);
 
         // Ensure the paddle stays within the screen bounds
         if (getTopLeftCorner().x() < MIN_DISTANCE_FROM_SCREEN_EDGE) {
@@ -78,5 +119,18 @@ public class Paddle extends GameObject {
             transform().setTopLeftCornerX(sizeX - MIN_DISTANCE_FROM_SCREEN_EDGE - getDimensions().x());
         }
     }
+
+    /**
+     * Sets the width of the paddle, keeping its center.
+     */
+    private void setWidth(float width) {
+        Vector2 dimensions = getDimensions();
+        if (dimensions.x() == width) {
+            return;
+        }
+        float centerX = getTopLeftCorner().x() + dimensions.x() * HALF;
+        setDimensions(new Vector2(width, dimensions.y()));
+        transform().setTopLeftCornerX(centerX - width * HALF);
+    }
 }
 
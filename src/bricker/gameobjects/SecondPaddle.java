@@ -2,22 +2,27 @@ package bricker.gameobjects;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.UserInputListener;
+import bricker.utils.GameObjectCommandBuffer;
+import bricker.input.PaddleInput;
+import bricker.utils.EffectScheduler;
+import bricker.utils.TimingWheel;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 
 /**
  * The SecondPaddle class represents the second paddle GameObject in the Brick Breaker game.
- * It extends the Paddle class and includes additional functionality specific to the second paddle.
+ * It extends the Paddle class and includes additional functionality specific to the second paddle,
+ * which is removed by the effect scheduler after a number of hits.
  */
 public class SecondPaddle extends Paddle {
 
     private static final int MAX_HITS = 4;   // Maximum number of hits before the second paddle is removed.
-    private static boolean active = false;
     private final Counter hitsCounter = new Counter();   // Counter to track the number of hits.
-    private final GameObjectCollection objectCollection;  // Collection of GameObjects in the game.
+    private final GameObjectCommandBuffer objectCollection;  // Buffered changes to the GameObjects in the game.
+    private final Counter activePaddlesCounter;  // Counter of second paddles in the game.
+    private final EffectScheduler effectScheduler;  // Removes the paddle after its last hit.
+    private TimingWheel.Timeout removal;  // The pending removal of the paddle.
 
     /**
      * Constructs a new SecondPaddle instance.
@@ -27,23 +32,32 @@ public class SecondPaddle extends Paddle {
      * @param dimensions           Width and height of the second paddle in window coordinates.
      * @param renderable           The renderable representing the second paddle.
      *                             Can be null if the second paddle is not rendered.
-     * @param inputListener        Input listener for keyboard events.
+     * @param input                The source of the paddle's movement commands.
      * @param windowXDimension     Width of the game window.
-     * @param objectCollection     Collection of GameObjects in the game.
+     * @param objectCollection     Buffered changes to the GameObjects in the game.
+     * @param activePaddlesCounter Counter of second paddles in the game, decremented when
+     *                             this paddle is removed.
+     * @param effectScheduler      The scheduler removing the paddle after {@code MAX_HITS} hits.
      */
     public SecondPaddle(Vector2 topLeftCorner,
                         Vector2 dimensions,
                         Renderable renderable,
-                        UserInputListener inputListener,
+                        PaddleInput input,
                         float windowXDimension,
-                        GameObjectCollection objectCollection) {
-        super(topLeftCorner, dimensions, renderable, inputListener, windowXDimension);
+                        GameObjectCommandBuffer objectCollection,
+                        Counter activePaddlesCounter,
+                        EffectScheduler effectScheduler) {
+        super(topLeftCorner, dimensions, renderable, input, windowXDimension);
         this.objectCollection = objectCollection;
+        this.activePaddlesCounter = activePaddlesCounter;
+        this.effectScheduler = effectScheduler;
+        removal = effectScheduler.afterPaddleHits(MAX_HITS, this::remove);
     }
 
     /**
      * Handles the logic when a collision occurs with another GameObject.
-     * Increments the hits counter and removes the second paddle if the maximum hits are reached.
+     * Increments the hits counter and tells the scheduler, which removes the second paddle once
+     * the maximum hits are reached.
      *
      * @param other     The GameObject with which the second paddle collides.
      * @param collision Information about the collision.
@@ -52,25 +66,35 @@ public class SecondPaddle extends Paddle {
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
         hitsCounter.increment();
-        if (hitsCounter.value() == MAX_HITS){
-            objectCollection.removeGameObject(this);
-            active = false;
-//            addPaddleStrategy.setSecondPaddle(false);
-        }
+        effectScheduler.recordPaddleHit();
     }
 
     /**
-     * return true if secondPaddle is active, otherwise - false.
-     * @return true if secondPaddle is active, otherwise - false.
+     * Retrieves the number of hits the second paddle has taken.
+     *
+     * @return The number of hits the second paddle has taken.
+     */
+    public int getHitsCount(){
+        return hitsCounter.value();
+    }
+
+    /**
+     * Sets the number of hits the second paddle has taken, used when restoring a saved game.
+     *
+     * @param hits The number of hits.
      */
-    public static boolean isActive(){
-        return active;
+    public void setHitsCount(int hits){
+        hitsCounter.reset();
+        hitsCounter.increaseBy(hits);
+        removal.cancel();
+        removal = effectScheduler.afterPaddleHits(Math.max(1, MAX_HITS - hits), this::remove);
     }
 
     /**
-     * mark secondPaddle as active.
+     * Removes the second paddle from the game.
      */
-    public static void activate(){
-        active = true;
+    private void remove(){
+        objectCollection.removeGameObject(this);
+        activePaddlesCounter.decrement();
     }
 }
@@ -0,0 +1,110 @@
+package bricker.input;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * The AutopilotPaddleInput class moves a paddle to where the tracked ball will cross the
+ * paddle's height.
+ *
+ * The landing x is solved in closed form instead of stepping the simulation: the ball's path
+ * is unfolded across the side walls, so its x after time t is x + vx * t reflected back into
+ * the play area with a triangle wave of period twice the area's width. A ball moving up is
+ * assumed to bounce off the ceiling, which adds the extra vertical distance to the flight
+ * time. Bricks are not considered, so the target is corrected as soon as the ball bounces
+ * off one. The cost per frame is constant however fast the ball moves.
+ */
+public class AutopilotPaddleInput implements PaddleInput {
+
+    private static final float HALF = 0.5f;
+    private static final float DEAD_ZONE_RATIO = 0.25f;  // Part of the paddle's width to tolerate.
+
+    private final GameObject ball;     // The ball to follow.
+    private final float leftBound;     // The x of the inner side of the left wall.
+    private final float rightBound;    // The x of the inner side of the right wall.
+    private final float topBound;      // The y of the inner side of the ceiling.
+
+    /**
+     * Constructs a new AutopilotPaddleInput instance.
+     *
+     * @param ball       The ball to follow.
+     * @param leftBound  The x of the inner side of the left wall.
+     * @param rightBound The x of the inner side of the right wall.
+     * @param topBound   The y of the inner side of the ceiling.
+     */
+    public AutopilotPaddleInput(GameObject ball, float leftBound, float rightBound, float topBound) {
+        this.ball = ball;
+        this.leftBound = leftBound;
+        this.rightBound = rightBound;
+        this.topBound = topBound;
+    }
+
+    /**
+     * Gets the direction towards the ball's predicted landing x.
+     *
+     * @param paddle The paddle being moved.
+     * @return -1 to move left, 1 to move right and 0 to stay in place.
+     */
+    @Override
+    public int getDirection(GameObject paddle) {
+        Vector2 paddleDimensions = paddle.getDimensions();
+        float paddleCenterX = paddle.getTopLeftCorner().x() + paddleDimensions.x() * HALF;
+        float targetX = predictLandingX(paddle.getTopLeftCorner().y());
+        float deadZone = paddleDimensions.x() * DEAD_ZONE_RATIO;
+        if (targetX < paddleCenterX - deadZone) {
+            return -1;
+        }
+        if (targetX > paddleCenterX + deadZone) {
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Predicts the x of the ball's center when its bottom reaches a given height.
+     *
+     * @param landingY The height to reach.
+     * @return The predicted x, or the ball's current x if it cannot reach the height.
+     */
+    public float predictLandingX(float landingY) {
+        // The center is computed from the corner, as getCenter would build a new vector
+        Vector2 topLeftCorner = ball.getTopLeftCorner();
+        Vector2 velocity = ball.getVelocity();
+        float radius = ball.getDimensions().x() * HALF;
+        float centerX = topLeftCorner.x() + radius;
+        float centerY = topLeftCorner.y() + ball.getDimensions().y() * HALF;
+        float targetY = landingY - radius;
+        float verticalSpeed = Math.abs(velocity.y());
+        if (verticalSpeed == 0) {
+            return centerX;
+        }
+        float distance;
+        if (velocity.y() > 0) {
+            distance = targetY - centerY;
+        } else {
+            float ceilingY = topBound + radius;
+            distance = (centerY - ceilingY) + (targetY - ceilingY);
+        }
+        if (distance < 0) {
+            return centerX;
+        }
+        float unfoldedX = centerX + velocity.x() * (distance / verticalSpeed);
+        return fold(unfoldedX, leftBound + radius, rightBound - radius);
+    }
+
+    /**
+     * Reflects an unfolded coordinate back into [min, max], as successive bounces would.
+     */
+    private static float fold(float value, float min, float max) {
+        float width = max - min;
+        if (width <= 0) {
+            return min;
+        }
+        float period = 2 * width;
+        float offset = (value - min) % period;
+        if (offset < 0) {
+            offset += period;
+        }
+        return offset <= width ? min + offset : min + period - offset;
+    }
+}
@@ -0,0 +1,41 @@
+package bricker.input;
+
+import danogl.GameObject;
+import danogl.gui.UserInputListener;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * The KeyboardPaddleInput class moves a paddle with the left and right arrow keys.
+ */
+public class KeyboardPaddleInput implements PaddleInput {
+
+    private final UserInputListener inputListener;   // Input listener for keyboard events.
+
+    /**
+     * Constructs a new KeyboardPaddleInput instance.
+     *
+     * @param inputListener The input listener for handling user input.
+     */
+    public KeyboardPaddleInput(UserInputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    /**
+     * Gets the direction from the arrow keys; pressing both keys cancels out.
+     *
+     * @param paddle The paddle being moved.
+     * @return -1 to move left, 1 to move right and 0 to stay in place.
+     */
+    @Override
+    public int getDirection(GameObject paddle) {
+        int direction = 0;
+        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
+            direction -= 1;
+        }
+        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
+            direction += 1;
+        }
+        return direction;
+    }
+}
@@ -0,0 +1,18 @@
+package bricker.input;
+
+import danogl.GameObject;
+
+/**
+ * The PaddleInput interface represents a source of movement commands for a paddle,
+ * such as the keyboard or an autopilot.
+ */
+public interface PaddleInput {
+
+    /**
+     * Gets the direction the paddle should move in this frame.
+     *
+     * @param paddle The paddle being moved.
+     * @return -1 to move left, 1 to move right and 0 to stay in place.
+     */
+    int getDirection(GameObject paddle);
+}
@@ -0,0 +1,33 @@
+package bricker.input;
+
+import danogl.GameObject;
+
+/**
+ * The ScriptedPaddleInput class moves every paddle in the direction it was last given. A window
+ * sets it once per frame from another input, so all the paddles see the same sample of the
+ * keyboard, and a replay sets it from the recorded changes.
+ */
+public class ScriptedPaddleInput implements PaddleInput {
+
+    private int direction;   // -1 to move left, 1 to move right and 0 to stay in place.
+
+    /**
+     * Sets the direction of the paddles until it is set again.
+     *
+     * @param direction -1 to move left, 1 to move right and 0 to stay in place.
+     */
+    public void setDirection(int direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Gets the direction last set.
+     *
+     * @param paddle The paddle being moved.
+     * @return -1 to move left, 1 to move right and 0 to stay in place.
+     */
+    @Override
+    public int getDirection(GameObject paddle) {
+        return direction;
+    }
+}
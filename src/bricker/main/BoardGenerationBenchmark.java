@@ -0,0 +1,91 @@
+package bricker.main;
+
+import bricker.brick_strategies.BrickStrategyFactory;
+import bricker.gameobjects.Brick;
+import bricker.utils.ExtraBallsLimit;
+import bricker.utils.SpawnScheduler;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The BoardGenerationBenchmark class measures the {@link BoardGenerator} on a large board,
+ * drawing every brick's strategy code and creating the brick with its strategy, from one thread
+ * up to the number of cores. For every thread count it prints the time per board, the speedup
+ * over one thread, and whether the board is identical to the single-threaded one.
+ *
+ * Usage: BoardGenerationBenchmark [rows] [columns] [repetitions]
+ */
+public class BoardGenerationBenchmark {
+
+    private static final int DEFAULT_BRICKS_ROWS_NUM = 1000;
+    private static final int DEFAULT_BRICKS_COLS_NUM = 1000;
+    private static final int DEFAULT_REPETITIONS = 5;
+    private static final long SEED = 1;
+    private static final Vector2 BRICK_SIZE = new Vector2(50, 15);
+    private static final float BRICK_TO_BRICK_DISTANCE = 5f;
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final String HEADER_MSG = "%d x %d bricks, best of %d boards%n";
+    private static final String RESULT_MSG =
+            "%2d threads: %8.1f ms per board, speedup %5.2f, identical: %b%n";
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optionally the number of rows, of bricks in a row, and of boards per thread count.
+     */
+    public static void main(String[] args) {
+        int rowsNum = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BRICKS_ROWS_NUM;
+        int colsNum = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BRICKS_COLS_NUM;
+        int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_REPETITIONS;
+        System.out.printf(HEADER_MSG, rowsNum, colsNum, repetitions);
+
+        BrickStrategyFactory factory = new BrickStrategyFactory(null, new Counter(), null, null,
+                null, null, null, null, null, null, null, null, null, null, null, new Counter(), null, null,
+                new ExtraBallsLimit(), new SpawnScheduler(1, 1), null);
+        short[] strategyCodes = new short[rowsNum * colsNum];
+        Brick[] bricks = new Brick[strategyCodes.length];
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double singleThreadMillis = 0;
+        short[] singleThreadCodes = null;
+        for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores)) {
+            ForkJoinPool pool = threads == 1 ? null : new ForkJoinPool(threads);
+            BoardGenerator generator = new BoardGenerator(rowsNum, colsNum, pool);
+
+            double bestMillis = Double.MAX_VALUE;
+            for (int repetition = 0; repetition < repetitions; repetition++) {
+                long startTime = System.nanoTime();
+                generator.generate(SEED, strategyCodes, brickIndex -> bricks[brickIndex] = new Brick(
+                        new Vector2((brickIndex % colsNum) * (BRICK_SIZE.x() + BRICK_TO_BRICK_DISTANCE),
+                                (brickIndex / colsNum) * (BRICK_SIZE.y() + BRICK_TO_BRICK_DISTANCE)),
+                        BRICK_SIZE,
+                        null,
+                        factory.getStrategyByCode(strategyCodes[brickIndex])));
+                bestMillis = Math.min(bestMillis, (System.nanoTime() - startTime) / NANOS_IN_MILLI);
+            }
+            if (pool != null) {
+                pool.shutdown();
+            }
+
+            if (threads == 1) {
+                singleThreadMillis = bestMillis;
+                singleThreadCodes = strategyCodes.clone();
+            }
+            System.out.printf(RESULT_MSG, threads, bestMillis, singleThreadMillis / bestMillis,
+                    Arrays.equals(strategyCodes, singleThreadCodes));
+        }
+    }
+
+    /**
+     * Doubles the thread count, ending with exactly the number of cores.
+     */
+    private static int nextThreadCount(int threads, int cores) {
+        if (threads == cores) {
+            return cores + 1;
+        }
+        return Math.min(threads * 2, cores);
+    }
+}
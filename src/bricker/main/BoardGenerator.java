@@ -0,0 +1,113 @@
+package bricker.main;
+
+import bricker.brick_strategies.BrickStrategyFactory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The BoardGenerator class draws the strategy codes of a board of bricks, splitting the rows
+ * into fixed-size chunks generated in parallel on a fork/join pool.
+ *
+ * Every chunk draws from its own random stream, split from the board's seed in chunk order
+ * before any work is forked, so a brick's code depends only on the seed and its position. The
+ * board is therefore identical for a given seed whatever the number of threads.
+ */
+public class BoardGenerator {
+
+    private static final int ROWS_PER_CHUNK = 4;           // Rows drawing from one random stream.
+    private static final int PARALLEL_THRESHOLD = 4096;    // Smaller boards are generated serially.
+
+    private final int bricksRowsNum;
+    private final int bricksColsNum;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new BoardGenerator instance.
+     *
+     * @param bricksRowsNum The number of rows of bricks.
+     * @param bricksColsNum The number of bricks in a row.
+     * @param pool          The pool generating the chunks. Can be null, in which case the board
+     *                      is generated on the calling thread.
+     */
+    public BoardGenerator(int bricksRowsNum, int bricksColsNum, ForkJoinPool pool) {
+        this.bricksRowsNum = bricksRowsNum;
+        this.bricksColsNum = bricksColsNum;
+        this.pool = pool;
+    }
+
+    /**
+     * Draws the strategy code of every brick, in row-major order.
+     *
+     * @param seed           The seed of the board.
+     * @param strategyCodes  Receives the code of each brick, by its row-major index.
+     * @param brickGenerated Called with the index of each brick once its code is drawn, from the
+     *                       thread that drew it. Can be null.
+     */
+    public void generate(long seed, short[] strategyCodes, IntConsumer brickGenerated) {
+        int chunksNum = (bricksRowsNum + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+        SplittableRandom boardRandom = new SplittableRandom(seed);
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunksNum];
+        for (int chunk = 0; chunk < chunksNum; chunk++) {
+            chunkRandoms[chunk] = boardRandom.split();
+        }
+
+        if (pool == null || chunksNum == 1 || strategyCodes.length < PARALLEL_THRESHOLD) {
+            generateChunks(0, chunksNum, chunkRandoms, strategyCodes, brickGenerated);
+        } else {
+            pool.invoke(new ChunkTask(0, chunksNum, chunkRandoms, strategyCodes, brickGenerated));
+        }
+    }
+
+    /**
+     * Generates a range of chunks in order.
+     */
+    private void generateChunks(int fromChunk, int toChunk, SplittableRandom[] chunkRandoms,
+                                short[] strategyCodes, IntConsumer brickGenerated) {
+        for (int chunk = fromChunk; chunk < toChunk; chunk++) {
+            SplittableRandom random = chunkRandoms[chunk];
+            int from = chunk * ROWS_PER_CHUNK * bricksColsNum;
+            int to = Math.min(from + ROWS_PER_CHUNK * bricksColsNum, strategyCodes.length);
+            for (int brickIndex = from; brickIndex < to; brickIndex++) {
+                strategyCodes[brickIndex] = BrickStrategyFactory.drawStrategyCode(random);
+                if (brickGenerated != null) {
+                    brickGenerated.accept(brickIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates a range of chunks, halving it until it is a single chunk.
+     */
+    @SuppressWarnings("serial")   // Tasks are forked, never serialized.
+    private class ChunkTask extends RecursiveAction {
+        private final int fromChunk;
+        private final int toChunk;
+        private final SplittableRandom[] chunkRandoms;
+        private final short[] strategyCodes;
+        private final IntConsumer brickGenerated;
+
+        ChunkTask(int fromChunk, int toChunk, SplittableRandom[] chunkRandoms,
+                  short[] strategyCodes, IntConsumer brickGenerated) {
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.chunkRandoms = chunkRandoms;
+            this.strategyCodes = strategyCodes;
+            this.brickGenerated = brickGenerated;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                generateChunks(fromChunk, toChunk, chunkRandoms, strategyCodes, brickGenerated);
+                return;
+            }
+            int middle = (fromChunk + toChunk) >>> 1;
+            invokeAll(new ChunkTask(fromChunk, middle, chunkRandoms, strategyCodes, brickGenerated),
+                    new ChunkTask(middle, toChunk, chunkRandoms, strategyCodes, brickGenerated));
+        }
+    }
+}
@@ -1,21 +1,29 @@
 package bricker.main;
 
-import bricker.brick_strategies.BrickStrategyFactory;
-import bricker.gameobjects.Brick;
-import bricker.gameobjects.Ball;
-import bricker.gameobjects.Paddle;
+import bricker.diagnostics.FlightRecording;
+import bricker.diagnostics.FrameEvent;
+import bricker.diagnostics.GameMetrics;
+import bricker.diagnostics.InputLatencyProbe;
+import bricker.diagnostics.MetricsServer;
+import bricker.diagnostics.TraceRecorder;
+import bricker.gameobjects.BrickDebris;
+import bricker.input.KeyboardPaddleInput;
+import bricker.input.ScriptedPaddleInput;
+import bricker.replay.ReplayRecorder;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
 import danogl.gui.*;
-import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
-import bricker.utils.CameraManager;
-import bricker.utils.LivesManager;
 
+import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 
 
@@ -23,49 +31,74 @@ import java.awt.event.KeyEvent;
 
 /**
  * The main game manager class for the "Bricker" game.
+ * It hosts a single {@link GameSession} in a window, adding the background, the dialogs and
+ * the debugging keys around it.
  */
 public class BrickerGameManager extends GameManager {
 
     private static final String HEADLINE = "Bricker";
-    private static final String TAG_BALL="Ball";
-    private static final String TAG_MAIN_PADDLE="MainPaddle";
-    private static final float WALLS_THICK = 5f;
-    private static final int NUMBER_OF_WALLS_SIDES = 2;
-    private static final int ONE_LESS = 1;
-    private static final float BRICK_HIGHT = 15f;
     private static final String LOSE_MSG = "You Lose! ";
     private static final String PLAY_AGAIN_MSG = "Play again?";
     private static final String WIN_MSG = "You Win! ";
-    private static final int MAX_LIVES_AUTHORIZED = 4;
-    private static final Vector2 PADDLE_SIZE = new Vector2(100, 15);
-    private static final float HALF = 0.5f;
-    private static final int HEIGHT_OF_PADDLE=30;
-    private static final Vector2 BALL_SIZE = new Vector2(20, 20);
+    private static final String INIT_TIME_MSG = "Initialization took %.3f ms%n";
+    private static final String FIRST_FRAME_TIME_MSG = "Time to first frame: %.3f ms%n";
+    private static final String PLAYABLE_TIME_MSG = "Time to playable: %.3f ms, board built over %d frames%n";
+    private static final long BOARD_BUILD_BUDGET_NANOS = 4_000_000;  // Per frame.
+    private static final long SPAWN_TIME_BUDGET_NANOS = 1_000_000;   // Per frame, without a replay.
+    private static final long RENDER_BUDGET_NANOS = 8_000_000;        // Per render.
+    private static final long QUALITY_FRAME_BUDGET_NANOS = 8_000_000; // Per update, half a 60 Hz frame.
+    private static final String RESET_TIME_MSG = "In-place reset took %.3f ms%n";
+    private static final int CAMPAIGN_LEVELS_NUM = 5;
+    private static final int MAX_DEBRIS_PARTICLES = 32_768;
+    private static final String LEVEL_MSG = "Level %d: board swapped in %.3f ms, preloaded in time: %b%n";
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
     private static final Vector2 GAME_DIMENSIONS = new Vector2(700, 500);
-    private static final float BRICK_DISTANCE_FROM_WALLS = 20f;
-    private static final float BRICK_TO_BRICK_DISTANCE = 5f;
-    private Counter bricksCounter;
-    private static final int INITIAL_LIVES = 3;
-    private static final String HEART_IMG_PATH = "assets/heart.png";
-    private static final String BRICK_IMAGE_PATH = "assets/brick.png";
-    private static final String BACKGROUND_IMAGE_PATH = "assets/DARK_BG2_small.jpeg";
-    private static final String BALL_IMAGE_PATH = "assets/ball.png";
-    private static final String BALL_COLLISION_SOUND_PATH = "assets/blop_cut_silenced.wav";
-    private static final String PADDLE_IMAGE_PATH = "assets/paddle.png";
-    private  static final String SECOND_PADDLE_IMAGE_PATH = "assets/paddle.png";
-    private static int bricksRowsNum = 7;
-    private static int bricksColsNum = 8;
-    private Vector2 windowDimentions;
+    private static final int DEFAULT_BRICKS_ROWS_NUM = 7;
+    private static final int DEFAULT_BRICKS_COLS_NUM = 8;
+    private static final Path SNAPSHOT_PATH = Path.of("bricker.snapshot");
+    private static final String SNAPSHOT_SAVED_MSG = "Snapshot of %d bytes saved in %.3f ms%n";
+    private static final String SNAPSHOT_RESTORED_MSG = "Snapshot restored in %.3f ms%n";
+    private static final String SNAPSHOT_FAILED_MSG = "Snapshot failed: ";
+    private static final int REWIND_MEMORY_BUDGET = 8 * 1024 * 1024;
+    private static final int REWIND_MAX_FRAMES = 600;
+    private static final int REWIND_KEYFRAME_INTERVAL = 30;
+    private static final String REWIND_MSG = "Rewinding %d frames, recording took %.3f ms per frame%n";
+    private static final String AUTOPILOT_ARG = "--autopilot";
+    private static final String PIPELINED_ARG = "--pipelined";
+    private static final int REPLAY_CHECKPOINT_INTERVAL = 600;   // Frames between state checks.
+    private static final String REPLAY_STARTED_MSG = "Recording a replay to %s%n";
+    private static final String REPLAY_ENDED_MSG = "Replay ended after %d frames: %s is not recorded%n";
+    private static final String REPLAY_FAILED_MSG = "Replay failed: ";
+    private static final String REWINDING = "rewinding";
+    private static final String RESTORING = "restoring a snapshot";
+    private final int bricksRowsNum;
+    private final int bricksColsNum;
     private WindowController windowController;
-    private Ball ball;
     private UserInputListener inputListener;
-    private Sound collisionSound;
-    private CameraManager cameraManager;
-    private LivesManager livesManager;
-    /**
-     * the size of a heart object in the game.
-     */
-    public static final float HEART_SIZE = 15f;
+    private GameAssets assets;
+    private GameSession session;
+    private GameStateSnapshot gameStateSnapshot;
+    private RewindBuffer rewindBuffer;
+    private QualityGovernor qualityGovernor;
+    private ResolutionScaler resolutionScaler;
+    private boolean rewinding;
+    private boolean saveKeyWasPressed;
+    private boolean loadKeyWasPressed;
+    private boolean winKeyWasPressed;
+    private boolean autopilot;
+    private boolean pipelined;
+    private PipelinedSimulation simulation;     // Null until the board is built, or not pipelined.
+    private final FrameSnapshot.LivesText livesText = new FrameSnapshot.LivesText();
+    private Path replayPath;
+    private ReplayRecorder replayRecorder;
+    private KeyboardPaddleInput keyboardInput;
+    private final ScriptedPaddleInput sampledInput = new ScriptedPaddleInput();
+    private final InputLatencyProbe inputLatencyProbe = new InputLatencyProbe();
+    private int sampledDirection;
+    private long sampledFrames;                 // Frames whose input has been sampled.
+    private long initStartTime;
+    private boolean firstFrameRendered;
+    private int boardBuildFrames;
 
     /**
      * Constructs the BrickerGameManager.
@@ -74,7 +107,22 @@ public class BrickerGameManager extends GameManager {
      * @param windowDimensions The dimensions of the game window.
      */
     public BrickerGameManager(String windowTitle, Vector2 windowDimensions) {
+        this(windowTitle, windowDimensions, DEFAULT_BRICKS_ROWS_NUM, DEFAULT_BRICKS_COLS_NUM);
+    }
+
+    /**
+     * Constructs the BrickerGameManager with a custom board size.
+     *
+     * @param windowTitle      The title of the game window.
+     * @param windowDimensions The dimensions of the game window.
+     * @param bricksRowsNum    The number of rows of bricks.
+     * @param bricksColsNum    The number of bricks in a row.
+     */
+    public BrickerGameManager(String windowTitle, Vector2 windowDimensions,
+                              int bricksRowsNum, int bricksColsNum) {
         super(windowTitle, windowDimensions);
+        this.bricksRowsNum = bricksRowsNum;
+        this.bricksColsNum = bricksColsNum;
     }
 
     /**
@@ -90,196 +138,450 @@ public class BrickerGameManager extends GameManager {
                                SoundReader soundReader,
                                UserInputListener inputListener,
                                WindowController windowController) {
+        initStartTime = System.nanoTime();
+        firstFrameRendered = false;
+        boardBuildFrames = 0;
+        simulation = null;
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         this.windowController = windowController;
         this.inputListener = inputListener;
+        assets = GameAssets.loadInBackground(imageReader, soundReader);
+        keyboardInput = new KeyboardPaddleInput(inputListener);
+        sampledDirection = 0;
+        sampledInput.setDirection(0);
+        if (!autopilot) {
+            inputLatencyProbe.install();
+        }
+        long seed = new Random().nextLong();
 
-        // Creating the Ball
-        createBall(imageReader, windowController, soundReader);
-
-        // Creating the camera
-        cameraManager = new CameraManager(this, ball, windowDimentions);
-
-        // Creating the paddle
-        createPaddle(imageReader, inputListener);
-
-        // Creating the walls
-        createWalls();
+        // Creating the session
+        session = new GameSession(gameObjects(),
+                assets,
+                windowController.getWindowDimensions(),
+                bricksRowsNum,
+                bricksColsNum,
+                new Random(seed),
+                autopilot ? null : sampledInput,
+                this::setCamera,
+                new BrickDebris(windowController.getWindowDimensions(), MAX_DEBRIS_PARTICLES));
+        session.playCampaign(CAMPAIGN_LEVELS_NUM);
+        startReplay(seed, windowController.getWindowDimensions());
+        if (replayRecorder == null) {
+            session.setSpawnTimeBudget(SPAWN_TIME_BUDGET_NANOS);
+        }
 
         // Setting the background
-        setBackground(imageReader);
+        setBackground(assets, windowController.getWindowDimensions());
 
-        // Creating the lives manager
-        livesManager = new LivesManager(
-                INITIAL_LIVES,
-                MAX_LIVES_AUTHORIZED,
-                windowController.getWindowDimensions(),
-                gameObjects(),
-                imageReader.readImage(HEART_IMG_PATH, true));
+        gameStateSnapshot = session.getSnapshot();
+        rewindBuffer = new RewindBuffer(gameStateSnapshot,
+                session.getBricks(),
+                session.getBricksCounter(),
+                REWIND_MEMORY_BUDGET,
+                REWIND_MAX_FRAMES,
+                REWIND_KEYFRAME_INTERVAL);
+        qualityGovernor = new QualityGovernor(session, QUALITY_FRAME_BUDGET_NANOS);
+        resolutionScaler = new ResolutionScaler(windowController.getWindowDimensions(), RENDER_BUDGET_NANOS);
+        System.out.printf(INIT_TIME_MSG, (System.nanoTime() - initStartTime) / NANOS_IN_MILLI);
+    }
 
-        // Creating the bricks
-        createBricks(imageReader);
+    /**
+     * Renders the game at the resolution scaler's internal resolution, reporting the time to
+     * the first frame and measuring the input latency of the frame it shows. When pipelined, the
+     * newest snapshot of the simulation is drawn instead of the game objects, and it may show an
+     * older frame than the one last sampled.
+     *
+     * @param g The graphics context to render on.
+     */
+    @Override
+    public void render(Graphics2D g) {
+        long traceStart = TraceRecorder.now();
+        FrameSnapshot snapshot = simulation == null ? null : simulation.latestSnapshot();
+        if (snapshot == null) {
+            resolutionScaler.render(g, super::render);
+        } else {
+            resolutionScaler.render(g, sceneGraphics -> snapshot.draw(sceneGraphics, livesText));
+        }
+        TraceRecorder.complete(TraceRecorder.RENDER, traceStart);
+        inputLatencyProbe.framePresented(snapshot == null ? sampledFrames : snapshot.getFrame());
+        if (!firstFrameRendered) {
+            firstFrameRendered = true;
+            System.out.printf(FIRST_FRAME_TIME_MSG, (System.nanoTime() - initStartTime) / NANOS_IN_MILLI);
+        }
     }
 
     /**
      * The main method to start the Bricker game.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: optionally the number of rows of bricks and the
+     *             number of bricks in a row, --autopilot to let the computer play,
+     *             --pipelined to simulate on a thread of its own while rendering,
+     *             --replay or --replay=file to record a replay, --jfr or --jfr=file to
+     *             record flight data, --metrics or --metrics=port to serve metrics, and
+     *             --trace or --trace=file to record a timeline.
      */
     public static void main(String[] args) {
-        if (args.length==2) {
-            bricksRowsNum = Integer.parseInt(args[0]);
-            bricksColsNum = Integer.parseInt(args[1]);
+        int bricksRowsNum = DEFAULT_BRICKS_ROWS_NUM;
+        int bricksColsNum = DEFAULT_BRICKS_COLS_NUM;
+        boolean autopilot = false;
+        boolean pipelined = false;
+        Path replayPath = null;
+        List<String> sizeArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals(AUTOPILOT_ARG)) {
+                autopilot = true;
+            } else if (arg.equals(PIPELINED_ARG)) {
+                pipelined = true;
+            } else if (ReplayRecorder.isRecordingArg(arg)) {
+                replayPath = ReplayRecorder.pathOf(arg);
+            } else if (FlightRecording.isRecordingArg(arg)) {
+                FlightRecording.start(arg);
+            } else if (MetricsServer.isMetricsArg(arg)) {
+                MetricsServer.start(arg);
+            } else if (TraceRecorder.isTracingArg(arg)) {
+                TraceRecorder.start(arg);
+            } else {
+                sizeArgs.add(arg);
+            }
+        }
+        if (sizeArgs.size()==2) {
+            bricksRowsNum = Integer.parseInt(sizeArgs.get(0));
+            bricksColsNum = Integer.parseInt(sizeArgs.get(1));
         }
 
-        new BrickerGameManager(HEADLINE, GAME_DIMENSIONS).run();
+        BrickerGameManager gameManager =
+                new BrickerGameManager(HEADLINE, GAME_DIMENSIONS, bricksRowsNum, bricksColsNum);
+        gameManager.setAutopilot(autopilot);
+        gameManager.setPipelined(pipelined);
+        gameManager.setReplayPath(replayPath);
+        gameManager.run();
+        if (!autopilot) {
+            gameManager.inputLatencyProbe.printReport();
+        }
+        MetricsServer.stop();
+    }
+
+    /**
+     * Sets whether the paddles are moved by the autopilot instead of the arrow keys.
+     * Takes effect when the game is initialized.
+     *
+     * @param autopilot True to let the autopilot move the paddles.
+     */
+    public void setAutopilot(boolean autopilot) {
+        this.autopilot = autopilot;
     }
 
     /**
-     * Creates the walls around the game area.
+     * Sets whether the game is simulated on a thread of its own, overlapping each frame's
+     * simulation with the rendering of the frame before it. Takes effect when the game is
+     * initialized.
+     *
+     * @param pipelined True to pipeline the simulation and the rendering.
      */
-    private void createWalls() {
-        GameObject upperWall =
-                new GameObject(Vector2.ZERO, new Vector2(windowDimentions.x(), WALLS_THICK), null);
-        GameObject leftWall =
-                new GameObject(Vector2.ZERO, new Vector2(WALLS_THICK, windowDimentions.y()), null);
-        GameObject rightWall = new GameObject(new Vector2(windowDimentions.x() - WALLS_THICK, 0),
-                new Vector2(WALLS_THICK, windowDimentions.y()),
-                null);
-        this.gameObjects().addGameObject(upperWall);
-        this.gameObjects().addGameObject(leftWall);
-        this.gameObjects().addGameObject(rightWall);
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Sets the file the game is recorded to as a replay, or null not to record it.
+     * Takes effect when the game is initialized.
+     *
+     * @param replayPath The replay file, overwritten if it exists.
+     */
+    public void setReplayPath(Path replayPath) {
+        this.replayPath = replayPath;
+    }
+
+    /**
+     * Starts recording the replay if one was asked for. The recorder is closed when the JVM
+     * exits, however the window is closed.
+     *
+     * @param seed             The seed of the session.
+     * @param windowDimensions The dimensions of the game window.
+     */
+    private void startReplay(long seed, Vector2 windowDimensions) {
+        if (replayPath == null) {
+            return;
+        }
+        try {
+            replayRecorder = new ReplayRecorder(replayPath, seed, bricksRowsNum, bricksColsNum,
+                    windowDimensions, autopilot, CAMPAIGN_LEVELS_NUM);
+            Runtime.getRuntime().addShutdownHook(new Thread(replayRecorder::close));
+            System.out.printf(REPLAY_STARTED_MSG, replayPath);
+        } catch (IOException e) {
+            System.err.println(REPLAY_FAILED_MSG + e.getMessage());
+        }
+    }
+
+    /**
+     * Ends the replay before something that cannot be re-simulated from the inputs.
+     *
+     * @param reason What is not recorded.
+     */
+    private void endReplay(String reason) {
+        if (replayRecorder != null) {
+            replayRecorder.end(session);
+            System.out.printf(REPLAY_ENDED_MSG, replayRecorder.getFrameCount(), reason);
+            replayRecorder = null;
+            session.setSpawnTimeBudget(SPAWN_TIME_BUDGET_NANOS);
+        }
     }
 
     /**
      * Sets the background image for the game.
      *
-     * @param imageReader The image reader for loading images.
+     * @param assets           The decoded images of the game.
+     * @param windowDimensions The dimensions of the game window.
      */
-    private void setBackground(ImageReader imageReader) {
+    private void setBackground(GameAssets assets, Vector2 windowDimensions) {
         GameObject background = new GameObject(
                 Vector2.ZERO,
-                windowDimentions,
-                imageReader.readImage(BrickerGameManager.BACKGROUND_IMAGE_PATH, false));
+                windowDimensions,
+                assets.getBackgroundImage());
         background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         gameObjects().addGameObject(background, Layer.BACKGROUND);
     }
 
     /**
-     * Creates the paddle for the game.
+     * Updates the game state. When pipelined, the frame's step runs on the simulation thread
+     * while this frame is rendered, and its outcome is handled at the start of the next update.
+     * An image that failed to decode in the background is thrown from here.
      *
-     * @param imageReader    The image reader for loading images.
-     * @param inputListener  The input listener for handling user input.
+     * @param deltaTime The time elapsed since the last update.
      */
-    private void createPaddle(ImageReader imageReader, UserInputListener inputListener) {
-        Renderable paddleImage = imageReader.readImage(PADDLE_IMAGE_PATH, true);
-        GameObject paddle =
-                new Paddle(Vector2.ZERO, PADDLE_SIZE, paddleImage, inputListener, windowDimentions.x());
-        paddle.setCenter(new Vector2(windowDimentions.x() / 2, windowDimentions.y()-HEIGHT_OF_PADDLE));
-        this.gameObjects().addGameObject(paddle);
-        paddle.setTag(TAG_MAIN_PADDLE);
+    @Override
+    public void update(float deltaTime) {
+        assets.checkDecoding();
+        if (!session.isPlayable()) {
+            buildBoard();
+            return;
+        }
+        if (simulation != null) {
+            updatePipelined(deltaTime);
+            return;
+        }
+        if (handleRewindKey()) {
+            return;
+        }
+        long frameStart = System.nanoTime();
+        rewindBuffer.recordFrame();
+        sampleInput(deltaTime);
+        GameSession.Outcome outcome = step(deltaTime);
+        finishFrame(outcome, System.nanoTime() - frameStart);
     }
 
     /**
-     * Creates the main Ball for the game.
+     * Handles the outcome of the step running on the simulation thread, then hands the next
+     * step over. The game is changed on this thread only while no step is running.
      *
-     * @param imageReader    The image reader for loading images.
-     * @param windowController The window controller for managing the game window.
-     * @param soundReader    The sound reader for loading sounds.
+     * @param deltaTime The time elapsed since the last update.
      */
-    private void createBall(ImageReader imageReader,
-                            WindowController windowController,
-                            SoundReader soundReader) {
-        Renderable ballImage =
-                imageReader.readImage(BALL_IMAGE_PATH, true);
-
-        windowDimentions = windowController.getWindowDimensions();
-        collisionSound = soundReader.readSound(BALL_COLLISION_SOUND_PATH);
-        ball = new Ball(windowDimentions.mult(HALF),
-                BALL_SIZE,
-                ballImage,
-                collisionSound,
-                windowDimentions,
-                gameObjects());
-        ball.setRandomVelocity();
-        this.gameObjects().addGameObject(ball);
-        ball.setTag(TAG_BALL);
+    private void updatePipelined(float deltaTime) {
+        if (simulation.isStepping()) {
+            GameSession.Outcome outcome = simulation.awaitStep();
+            finishFrame(outcome, simulation.getLastStepNanos());
+        }
+        if (handleRewindKey()) {
+            simulation.captureSnapshot();
+            return;
+        }
+        rewindBuffer.recordFrame();
+        sampleInput(deltaTime);
+        simulation.submit(deltaTime);
     }
 
     /**
-     * Creates the bricks for the game.
+     * Advances the game objects and the session's rules by one frame.
      *
-     * @param imageReader The image reader for loading images.
+     * @param deltaTime The duration of the frame.
+     * @return The outcome of the frame.
      */
-    private void createBricks(ImageReader imageReader) {
-        bricksCounter = new Counter(bricksColsNum * bricksRowsNum);
-        BrickStrategyFactory brickStrategyFactory = new BrickStrategyFactory(gameObjects(),
-                bricksCounter,
-                imageReader,
-                collisionSound,
-                windowController,
-                inputListener,
-                cameraManager,
-                livesManager,
-                PADDLE_SIZE,
-                imageReader.readImage(SECOND_PADDLE_IMAGE_PATH, true),
-                imageReader.readImage(HEART_IMG_PATH, true),
-                BALL_SIZE,
-                TAG_BALL
-                ,TAG_MAIN_PADDLE
-        );
-        Renderable brickImage = imageReader.readImage(BRICK_IMAGE_PATH, false);
-        float brickWidth = (windowDimentions.x() -
-                (((WALLS_THICK + BRICK_DISTANCE_FROM_WALLS) * NUMBER_OF_WALLS_SIDES) +
-                        (BRICK_TO_BRICK_DISTANCE * (bricksColsNum - ONE_LESS)))) / bricksColsNum;
-        for (int i = 0; i < bricksRowsNum; i++) {
-            for (int j = 0; j < bricksColsNum; j++) {
-                Brick brick = new Brick(
-                        new Vector2(WALLS_THICK + BRICK_DISTANCE_FROM_WALLS +
-                                j * (brickWidth + BRICK_TO_BRICK_DISTANCE),
-                                WALLS_THICK + BRICK_DISTANCE_FROM_WALLS +
-                                        i * (BRICK_HIGHT + BRICK_TO_BRICK_DISTANCE)),
-                        new Vector2(brickWidth, BRICK_HIGHT),
-                        brickImage,
-                        brickStrategyFactory.getStrategy());
-                this.gameObjects().addGameObject(brick, Layer.STATIC_OBJECTS);
-            }
+    private GameSession.Outcome step(float deltaTime) {
+        FrameEvent frameEvent = FlightRecording.isRecordingFrames() ? new FrameEvent() : null;
+        boolean recording = frameEvent != null;
+        if (recording) {
+            frameEvent.begin();
+        }
+        long physicsStart = recording ? System.nanoTime() : 0;
+        long tracePhysicsStart = TraceRecorder.now();
+        super.update(deltaTime);
+        TraceRecorder.complete(TraceRecorder.PHYSICS, tracePhysicsStart);
+        long rulesStart = recording ? System.nanoTime() : 0;
+        long traceRulesStart = TraceRecorder.now();
+        GameSession.Outcome outcome = session.update(deltaTime);
+        TraceRecorder.complete(TraceRecorder.RULES, traceRulesStart);
+        TraceRecorder.complete(TraceRecorder.FRAME, tracePhysicsStart);
+        if (recording && frameEvent.shouldCommit()) {
+            frameEvent.physicsDuration = rulesStart - physicsStart;
+            frameEvent.rulesDuration = System.nanoTime() - rulesStart;
+            frameEvent.countObjects(gameObjects());
+            frameEvent.commit();
         }
+        return outcome;
     }
 
     /**
-     * Updates the game state.
+     * Records a finished frame and acts on its outcome: the metrics, the quality, the replay's
+     * checkpoints, the snapshot keys, the next level and the end of the game.
      *
-     * @param deltaTime The time elapsed since the last update.
+     * @param outcome    The outcome of the frame.
+     * @param frameNanos How long the frame took to simulate, in nanoseconds.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        livesManager.manageLives();
-        cameraManager.manageCamera();
-        float ballHeight = ball.getCenter().y();
+    private void finishFrame(GameSession.Outcome outcome, long frameNanos) {
+        GameMetrics.recordFrame(frameNanos, gameObjects(), session.getBricksLeft(), session.getLives());
+        // The extra balls cap changes how the game goes on, so the replay records it.
+        if (qualityGovernor.recordFrame(frameNanos) && replayRecorder != null) {
+            replayRecorder.recordExtraBallsCap(session.getExtraBallsCap());
+        }
+        if (replayRecorder != null &&
+                (outcome != GameSession.Outcome.PLAYING ||
+                        replayRecorder.getFrameCount() % REPLAY_CHECKPOINT_INTERVAL == 0)) {
+            replayRecorder.recordCheckpoint(session);
+        }
+        // Snapshots are taken once the frame's changes to the game objects are applied.
+        handleSnapshotKeys();
         String prompt = "";
-        if (ballHeight > windowDimentions.y()) {
-            livesManager.decrementLife();
-            if (!livesManager.isLosing()) {
-                gameObjects().addGameObject(ball);
-                ball.setCenter(windowDimentions.mult(HALF));
-                ball.setRandomVelocity();
-                return;
-            }
+        if (outcome == GameSession.Outcome.LOST) {
             prompt = LOSE_MSG;
         }
-        if (bricksCounter.value() <= 0 || inputListener.isKeyPressed(KeyEvent.VK_W)) {
-            prompt = WIN_MSG;
+        boolean winKeyPressed = inputListener.isKeyPressed(KeyEvent.VK_W);
+        if (outcome == GameSession.Outcome.WON || (winKeyPressed && !winKeyWasPressed)) {
+            if (session.hasNextLevel()) {
+                startNextLevel();
+            } else {
+                prompt = WIN_MSG;
+            }
         }
+        winKeyWasPressed = winKeyPressed;
         if (!prompt.isEmpty()) {
             prompt += PLAY_AGAIN_MSG;
             if (windowController.openYesNoDialog(prompt)) {
-                livesManager.restartLives();
-                windowController.resetGame();
+                resetGameInPlace();
             } else {
+                if (replayRecorder != null) {
+                    replayRecorder.end(session);
+                }
                 windowController.closeWindow();
             }
         }
     }
+
+    /**
+     * Samples the keyboard as late as possible before the physics step, which moves the paddles
+     * by the sample in the same frame. The keyboard is sampled once per frame, so every paddle
+     * and the replay see the same input.
+     *
+     * @param deltaTime The duration of the frame.
+     */
+    private void sampleInput(float deltaTime) {
+        int direction = autopilot ? 0 : keyboardInput.getDirection(null);
+        sampledFrames++;
+        inputLatencyProbe.inputSampled(direction != sampledDirection, sampledFrames);
+        sampledDirection = direction;
+        sampledInput.setDirection(direction);
+        if (replayRecorder != null) {
+            replayRecorder.recordFrame(deltaTime, direction);
+        }
+    }
+
+    /**
+     * Builds part of the board within the frame's budget while the window is already shown,
+     * reporting the time to playable once the board is complete. The game objects are not
+     * updated until then, so the first playable frame starts from the state a replay builds the
+     * board into in one call; otherwise the autopilot would already have moved the paddle.
+     */
+    private void buildBoard() {
+        boardBuildFrames++;
+        if (session.buildBoard(BOARD_BUILD_BUDGET_NANOS)) {
+            System.out.printf(PLAYABLE_TIME_MSG, (System.nanoTime() - initStartTime) / NANOS_IN_MILLI,
+                    boardBuildFrames);
+            if (pipelined) {
+                simulation = new PipelinedSimulation(this::step, this::captureFrame);
+                simulation.captureSnapshot();
+            }
+        }
+    }
+
+    /**
+     * Captures what the game shows into a snapshot for the renderer.
+     *
+     * @param snapshot The snapshot to overwrite.
+     */
+    private void captureFrame(FrameSnapshot snapshot) {
+        snapshot.capture(gameObjects(), camera(), windowController.getWindowDimensions(), session,
+                sampledFrames);
+    }
+
+    /**
+     * Swaps in the next level of the campaign and reports how long it took.
+     */
+    private void startNextLevel() {
+        long startTime = System.nanoTime();
+        boolean preloaded = session.isNextLevelReady();
+        session.startNextLevel();
+        rewindBuffer.clear();
+        if (replayRecorder != null) {
+            replayRecorder.recordNextLevel();
+        }
+        System.out.printf(LEVEL_MSG, session.getLevel(), (System.nanoTime() - startTime) / NANOS_IN_MILLI,
+                preloaded);
+    }
+
+    /**
+     * Restarts the session in place and reports how long it took.
+     */
+    private void resetGameInPlace() {
+        long startTime = System.nanoTime();
+        session.resetInPlace();
+        rewindBuffer.clear();
+        if (replayRecorder != null) {
+            replayRecorder.recordRestart();
+        }
+        System.out.printf(RESET_TIME_MSG, (System.nanoTime() - startTime) / NANOS_IN_MILLI);
+    }
+
+    /**
+     * Saves the game to the snapshot file when F5 is pressed and restores it when F9 is pressed.
+     */
+    private void handleSnapshotKeys() {
+        boolean saveKeyPressed = inputListener.isKeyPressed(KeyEvent.VK_F5);
+        boolean loadKeyPressed = inputListener.isKeyPressed(KeyEvent.VK_F9);
+        try {
+            if (saveKeyPressed && !saveKeyWasPressed) {
+                long startTime = System.nanoTime();
+                int size = gameStateSnapshot.save(SNAPSHOT_PATH);
+                System.out.printf(SNAPSHOT_SAVED_MSG, size, (System.nanoTime() - startTime) / NANOS_IN_MILLI);
+            }
+            if (loadKeyPressed && !loadKeyWasPressed) {
+                long startTime = System.nanoTime();
+                endReplay(RESTORING);
+                gameStateSnapshot.load(SNAPSHOT_PATH);
+                rewindBuffer.clear();
+                System.out.printf(SNAPSHOT_RESTORED_MSG, (System.nanoTime() - startTime) / NANOS_IN_MILLI);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(SNAPSHOT_FAILED_MSG + e.getMessage());
+        }
+        saveKeyWasPressed = saveKeyPressed;
+        loadKeyWasPressed = loadKeyPressed;
+    }
+
+    /**
+     * Scrubs the game back one recorded frame per update while R is held.
+     *
+     * @return True if the game is rewinding and should not advance this frame.
+     */
+    private boolean handleRewindKey() {
+        boolean rewindKeyPressed = inputListener.isKeyPressed(KeyEvent.VK_R);
+        if (rewindKeyPressed && !rewinding) {
+            endReplay(REWINDING);
+            System.out.printf(REWIND_MSG, rewindBuffer.frameCount(),
+                    rewindBuffer.averageRecordingNanos() / NANOS_IN_MILLI);
+        }
+        rewinding = rewindKeyPressed;
+        if (rewinding) {
+            rewindBuffer.stepBack();
+        }
+        return rewinding;
+    }
 }
@@ -0,0 +1,63 @@
+package bricker.main;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+
+/**
+ * The DeferredRenderable class stands for a renderable that is still being decoded in the
+ * background. Until it is resolved it draws a placeholder, so game objects can be created and
+ * shown before their images are ready.
+ */
+class DeferredRenderable implements Renderable {
+
+    private final Renderable placeholder;   // Drawn until resolved, can be null to draw nothing.
+    private volatile Renderable renderable; // The decoded renderable, null until resolved.
+
+    /**
+     * Constructs a new DeferredRenderable instance.
+     *
+     * @param placeholder The renderable drawn until the real one is resolved.
+     *                    Can be null, in which case nothing is drawn.
+     */
+    DeferredRenderable(Renderable placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * Sets the decoded renderable, drawn from the next frame on.
+     *
+     * @param renderable The decoded renderable.
+     */
+    void resolve(Renderable renderable) {
+        this.renderable = renderable;
+    }
+
+    /**
+     * Renders the decoded renderable, or the placeholder if it is not ready yet.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Renderable current = renderable != null ? renderable : placeholder;
+        if (current != null) {
+            current.render(g, topLeftCorner, dimensions, degreesCounterClockwise,
+                    isFlippedHorizontally, isFlippedVertically, opaqueness);
+        }
+    }
+
+    /**
+     * Updates the decoded renderable, if it is ready.
+     *
+     * @param deltaTime The time elapsed since the last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        Renderable current = renderable;
+        if (current != null) {
+            current.update(deltaTime);
+        }
+    }
+}
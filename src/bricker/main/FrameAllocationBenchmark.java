@@ -0,0 +1,93 @@
+package bricker.main;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The FrameAllocationBenchmark class checks that steady-state frames do not allocate beyond what
+ * danogl itself does, with the autopilot moving the paddle and the ball bouncing around the
+ * board. It reads the calling thread's allocation counter of the JVM around every measured frame,
+ * after a warm-up that lets the JIT compiler scalar-replace short-lived objects.
+ *
+ * Only steady frames are counted: frames that break a brick, spawn objects or have spawns
+ * waiting, change the lives, or end the game and restart it in place are stepped but left out,
+ * as they create and remove objects on purpose. danogl's Vector2 is immutable, so its transforms
+ * and collisions still allocate a few small vectors per moving object and contact, a few hundred
+ * bytes a frame; the check fails, exiting with status 1, when the steady frames allocate more
+ * than MAX_BYTES_PER_FRAME on average, which a per-brick or per-object allocation in the game's
+ * own code exceeds.
+ *
+ * Usage: FrameAllocationBenchmark [warm-up frames] [measured frames] [max bytes per frame]
+ */
+public class FrameAllocationBenchmark {
+
+    private static final int DEFAULT_WARMUP_FRAMES = 20_000;
+    private static final int DEFAULT_MEASURED_FRAMES = 10_000;
+    private static final long MAX_BYTES_PER_FRAME = 2048;   // danogl's own vectors, with headroom.
+    private static final int MAX_FRAMES_PER_MEASURED_FRAME = 20;   // Gives up on too few steady frames.
+    private static final long SEED = 1;
+    private static final int BRICKS_ROWS_NUM = 7;
+    private static final int BRICKS_COLS_NUM = 8;
+    private static final float FRAME_DELTA = 1f / 60;
+    private static final String RESULT_MSG =
+            "%d steady frames of %d allocated %d bytes: %.1f bytes per frame, at most %d allowed%n";
+    private static final String UNSUPPORTED_MSG = "This JVM does not count allocated bytes per thread";
+    private static final String TOO_FEW_FRAMES_MSG = "Only %d steady frames in %d frames%n";
+    private static final String FAILED_MSG = "Steady frames allocate more than %d bytes on average%n";
+
+    /**
+     * Runs the benchmark, exiting with status 1 if steady frames allocate too much.
+     *
+     * @param args Optionally the number of warm-up frames, of measured steady frames, and the
+     *             most bytes a steady frame may allocate on average.
+     */
+    public static void main(String[] args) {
+        int warmupFrames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_WARMUP_FRAMES;
+        int measuredFrames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MEASURED_FRAMES;
+        long maxBytesPerFrame = args.length > 2 ? Long.parseLong(args[2]) : MAX_BYTES_PER_FRAME;
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println(UNSUPPORTED_MSG);
+            System.exit(1);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        HeadlessSessionDriver driver = new HeadlessSessionDriver(SEED, BRICKS_ROWS_NUM, BRICKS_COLS_NUM);
+        GameSession session = driver.getSession();
+        for (int frame = 0; frame < warmupFrames; frame++) {
+            driver.step(FRAME_DELTA);
+        }
+
+        // What reading the counter twice costs, taken off every measured frame.
+        long calibrationStart = threads.getCurrentThreadAllocatedBytes();
+        long counterBytes = threads.getCurrentThreadAllocatedBytes() - calibrationStart;
+        long allocated = 0;
+        int steadyFrames = 0;
+        int frames = 0;
+        int maxFrames = measuredFrames * MAX_FRAMES_PER_MEASURED_FRAME;
+        while (steadyFrames < measuredFrames && frames < maxFrames) {
+            int bricksLeft = session.getBricksLeft();
+            int lives = session.getLives();
+            boolean spawnsPending = session.getPendingSpawnsCount() > 0;
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            GameSession.Outcome outcome = driver.step(FRAME_DELTA);
+            long frameBytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore - counterBytes;
+            frames++;
+            if (outcome == GameSession.Outcome.PLAYING && !spawnsPending &&
+                    session.getPendingSpawnsCount() == 0 && session.getBricksLeft() == bricksLeft &&
+                    session.getLives() == lives) {
+                allocated += frameBytes;
+                steadyFrames++;
+            }
+        }
+        if (steadyFrames < measuredFrames) {
+            System.err.printf(TOO_FEW_FRAMES_MSG, steadyFrames, frames);
+            System.exit(1);
+        }
+        double bytesPerFrame = (double) allocated / steadyFrames;
+        System.out.printf(RESULT_MSG, steadyFrames, frames, allocated, bytesPerFrame, maxBytesPerFrame);
+        if (bytesPerFrame > maxBytesPerFrame) {
+            System.err.printf(FAILED_MSG, maxBytesPerFrame);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package bricker.main;
+
+import bricker.gameobjects.BrickDebris;
+import bricker.gameobjects.NumericLifeCounter;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.components.CoordinateSpace;
+import danogl.components.RendererComponent;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.Renderable;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+
+/**
+ * The FrameSnapshot class holds what a frame shows, captured by the simulation so another
+ * thread can draw it while the simulation moves on: the renderable handle, bounds, rotation,
+ * flips and opacity of every drawn game object in drawing order, the camera, and the HUD values.
+ *
+ * Renderables and bounds are shared handles, as they do not change once created: a moved object
+ * gets new bounds. The numeric lives counter, whose text does change, is drawn from the captured
+ * number of lives instead, and the particles of the brick debris, which move every frame, are
+ * copied. The camera is applied through the graphics context's transform rather than by moving
+ * every object's bounds. The arrays are reused between captures, so neither capturing nor
+ * drawing a frame allocates once they have grown.
+ */
+class FrameSnapshot {
+
+    private static final int[] LAYERS = {
+            Layer.BACKGROUND, Layer.STATIC_OBJECTS, Layer.DEFAULT, Layer.FOREGROUND, Layer.UI
+    };
+    private static final int INITIAL_CAPACITY = 256;
+    private static final byte FLIPPED_HORIZONTALLY = 1;
+    private static final byte FLIPPED_VERTICALLY = 2;
+    private static final byte CAMERA_COORDINATES = 4;
+    private static final byte LIVES_TEXT = 8;
+    private static final byte DEBRIS = 16;
+
+    private Renderable[] renderables = new Renderable[INITIAL_CAPACITY];
+    private Vector2[] topLeftCorners = new Vector2[INITIAL_CAPACITY];
+    private Vector2[] dimensions = new Vector2[INITIAL_CAPACITY];
+    private double[] angles = new double[INITIAL_CAPACITY];
+    private float[] opaquenesses = new float[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    private boolean hasCamera;
+    private final AffineTransform cameraTransform = new AffineTransform();   // World to window.
+    private final AffineTransform inverseCameraTransform = new AffineTransform();
+    private long frame;          // The frame whose step the snapshot shows.
+    private int lives;
+    private Color livesColor;
+    private BrickDebris.Particles debrisParticles;   // The copy of the debris, made on first capture.
+
+    /**
+     * Captures the current frame. Called by the thread simulating the game objects.
+     *
+     * @param gameObjects      The game objects.
+     * @param camera           The camera, or null to draw in window coordinates.
+     * @param windowDimensions The dimensions of the game window.
+     * @param session          The session, for the HUD values.
+     * @param frame            The number of the last frame stepped.
+     */
+    void capture(GameObjectCollection gameObjects, Camera camera, Vector2 windowDimensions,
+                 GameSession session, long frame) {
+        this.frame = frame;
+        size = 0;
+        for (int layer : LAYERS) {
+            for (GameObject gameObject : gameObjects.objectsInLayer(layer)) {
+                captureObject(gameObject);
+            }
+        }
+        hasCamera = camera != null;
+        if (hasCamera) {
+            Vector2 cameraCorner = camera.getTopLeftCorner();
+            Vector2 cameraDimensions = camera.getDimensions();
+            double scaleX = windowDimensions.x() / cameraDimensions.x();   // Window pixels per unit.
+            double scaleY = windowDimensions.y() / cameraDimensions.y();
+            cameraTransform.setTransform(scaleX, 0, 0, scaleY,
+                    -cameraCorner.x() * scaleX, -cameraCorner.y() * scaleY);
+            inverseCameraTransform.setTransform(1 / scaleX, 0, 0, 1 / scaleY,
+                    cameraCorner.x(), cameraCorner.y());
+        }
+        lives = session.getLives();
+        livesColor = session.getLivesColor();
+    }
+
+    /**
+     * Retrieves the number of the frame the snapshot shows.
+     *
+     * @return The number of the last frame stepped before the capture.
+     */
+    long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Draws the captured frame. Called by the rendering thread.
+     *
+     * @param g         The graphics context to draw on.
+     * @param livesText The rendering thread's own text for the lives counter.
+     */
+    void draw(Graphics2D g, LivesText livesText) {
+        boolean inCamera = false;   // Whether the camera transform is applied to g.
+        for (int i = 0; i < size; i++) {
+            Renderable renderable = renderables[i];
+            if ((flags[i] & LIVES_TEXT) != 0) {
+                renderable = livesText.show(lives, livesColor);
+            } else if ((flags[i] & DEBRIS) != 0) {
+                renderable = debrisParticles;
+            }
+            boolean inWorld = hasCamera && (flags[i] & CAMERA_COORDINATES) == 0;
+            if (inWorld != inCamera) {
+                g.transform(inWorld ? cameraTransform : inverseCameraTransform);
+                inCamera = inWorld;
+            }
+            renderable.render(g, topLeftCorners[i], dimensions[i], angles[i],
+                    (flags[i] & FLIPPED_HORIZONTALLY) != 0, (flags[i] & FLIPPED_VERTICALLY) != 0,
+                    opaquenesses[i]);
+        }
+        if (inCamera) {
+            g.transform(inverseCameraTransform);
+        }
+    }
+
+    /**
+     * The text of the lives counter owned by the rendering thread, changed only when the
+     * captured number of lives changes.
+     */
+    static final class LivesText {
+        private final TextRenderable text = new TextRenderable("");
+        private int shownLives = -1;
+        private Color shownColor;
+
+        private Renderable show(int lives, Color color) {
+            if (lives != shownLives) {
+                text.setString(String.valueOf(lives));
+                shownLives = lives;
+            }
+            if (color != shownColor) {
+                text.setColor(color);
+                shownColor = color;
+            }
+            return text;
+        }
+    }
+
+    private void captureObject(GameObject gameObject) {
+        RendererComponent renderer = gameObject.renderer();
+        Renderable renderable = renderer.getRenderable();
+        if (renderable == null) {
+            return;
+        }
+        if (size == renderables.length) {
+            grow();
+        }
+        renderables[size] = renderable;
+        topLeftCorners[size] = gameObject.getTopLeftCorner();
+        dimensions[size] = gameObject.getDimensions();
+        angles[size] = renderer.getRenderableAngle();
+        opaquenesses[size] = renderer.getOpaqueness();
+        byte objectFlags = 0;
+        if (renderer.isFlippedHorizontally()) {
+            objectFlags |= FLIPPED_HORIZONTALLY;
+        }
+        if (renderer.isFlippedVertically()) {
+            objectFlags |= FLIPPED_VERTICALLY;
+        }
+        if (gameObject.getCoordinateSpace() == CoordinateSpace.CAMERA_COORDINATES) {
+            objectFlags |= CAMERA_COORDINATES;
+        }
+        if (gameObject instanceof NumericLifeCounter) {
+            objectFlags |= LIVES_TEXT;
+        }
+        if (gameObject instanceof BrickDebris) {
+            objectFlags |= DEBRIS;
+            captureDebris(((BrickDebris) gameObject).getParticles(), dimensions[size]);
+        }
+        flags[size++] = objectFlags;
+    }
+
+    /**
+     * Copies the particles of the brick debris, allocating the copy on the first capture.
+     */
+    private void captureDebris(BrickDebris.Particles particles, Vector2 windowDimensions) {
+        if (debrisParticles == null) {
+            debrisParticles = new BrickDebris.Particles(particles.getCapacity(), windowDimensions);
+        }
+        debrisParticles.copyFrom(particles);
+    }
+
+    private void grow() {
+        int capacity = renderables.length * 2;
+        renderables = Arrays.copyOf(renderables, capacity);
+        topLeftCorners = Arrays.copyOf(topLeftCorners, capacity);
+        dimensions = Arrays.copyOf(dimensions, capacity);
+        opaquenesses = Arrays.copyOf(opaquenesses, capacity);
+        angles = Arrays.copyOf(angles, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+}
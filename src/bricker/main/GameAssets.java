@@ -0,0 +1,221 @@
+package bricker.main;
+
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+
+import java.awt.Color;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The GameAssets class holds the decoded images and sounds of the game, so they are read once
+ * and shared by everything that needs them. Headless sessions use assets with no renderables
+ * and no sound.
+ *
+ * The images are decoded in the background, one at a time on a single thread, as the image
+ * reader is not safe to call concurrently. The game starts with placeholder renderables that
+ * are swapped for the decoded images as soon as each one is ready; an image used in several
+ * roles is decoded once. A failed decoding is thrown on the game thread by
+ * {@link #checkDecoding()}, rather than leaving its placeholder shown for good.
+ */
+public class GameAssets {
+
+    private static final String HEART_IMG_PATH = "assets/heart.png";
+    private static final String BRICK_IMAGE_PATH = "assets/brick.png";
+    private static final String BACKGROUND_IMAGE_PATH = "assets/DARK_BG2_small.jpeg";
+    private static final String BALL_IMAGE_PATH = "assets/ball.png";
+    private static final String EXTRA_BALL_IMAGE_PATH = "assets/mockBall.png";
+    private static final String BALL_COLLISION_SOUND_PATH = "assets/blop_cut_silenced.wav";
+    private static final String PADDLE_IMAGE_PATH = "assets/paddle.png";
+    private static final String SECOND_PADDLE_IMAGE_PATH = "assets/paddle.png";
+    private static final Color BALL_PLACEHOLDER_COLOR = Color.WHITE;
+    private static final Color PADDLE_PLACEHOLDER_COLOR = Color.LIGHT_GRAY;
+    private static final Color HEART_PLACEHOLDER_COLOR = Color.RED;
+    private static final Color BRICK_PLACEHOLDER_COLOR = Color.DARK_GRAY;
+    private static final String DECODING_FAILED_MSG = "Could not decode ";
+    private static final String DECODER_THREAD_NAME = "Asset decoder";
+
+    private final Renderable ballImage;
+    private final Renderable extraBallImage;
+    private final Renderable paddleImage;
+    private final Renderable secondPaddleImage;
+    private final Renderable heartImage;
+    private final Renderable brickImage;
+    private final Renderable backgroundImage;
+    private final Sound collisionSound;
+    private final BackgroundDecoder decoder;   // Null when no image is decoded in the background.
+
+    private GameAssets(Renderable ballImage,
+                       Renderable extraBallImage,
+                       Renderable paddleImage,
+                       Renderable secondPaddleImage,
+                       Renderable heartImage,
+                       Renderable brickImage,
+                       Renderable backgroundImage,
+                       Sound collisionSound,
+                       BackgroundDecoder decoder) {
+        this.ballImage = ballImage;
+        this.extraBallImage = extraBallImage;
+        this.paddleImage = paddleImage;
+        this.secondPaddleImage = secondPaddleImage;
+        this.heartImage = heartImage;
+        this.brickImage = brickImage;
+        this.backgroundImage = backgroundImage;
+        this.collisionSound = collisionSound;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Starts decoding the images of the game on a background thread and returns at once with
+     * placeholders for them. The sound is read on the calling thread, as game objects keep the
+     * sound they are given.
+     *
+     * @param imageReader The image reader for loading game images.
+     * @param soundReader The sound reader for loading game sounds.
+     * @return The assets, whose images become the decoded ones as they are ready.
+     */
+    public static GameAssets loadInBackground(ImageReader imageReader, SoundReader soundReader) {
+        BackgroundDecoder decoder = new BackgroundDecoder(imageReader);
+        GameAssets assets = new GameAssets(
+                decoder.defer(BALL_IMAGE_PATH, true, BALL_PLACEHOLDER_COLOR),
+                decoder.defer(EXTRA_BALL_IMAGE_PATH, true, BALL_PLACEHOLDER_COLOR),
+                decoder.defer(PADDLE_IMAGE_PATH, true, PADDLE_PLACEHOLDER_COLOR),
+                decoder.defer(SECOND_PADDLE_IMAGE_PATH, true, PADDLE_PLACEHOLDER_COLOR),
+                decoder.defer(HEART_IMG_PATH, true, HEART_PLACEHOLDER_COLOR),
+                decoder.defer(BRICK_IMAGE_PATH, false, BRICK_PLACEHOLDER_COLOR),
+                decoder.defer(BACKGROUND_IMAGE_PATH, false, null),
+                soundReader.readSound(BALL_COLLISION_SOUND_PATH),
+                decoder);
+        decoder.start();
+        return assets;
+    }
+
+    /**
+     * Creates assets for a session that is never rendered: no renderables and no sound.
+     *
+     * @return The empty assets.
+     */
+    public static GameAssets headless() {
+        return new GameAssets(null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Throws the failure of a background decoding, if any, on the calling thread.
+     *
+     * @throws IllegalStateException If an image could not be decoded.
+     */
+    public void checkDecoding() {
+        if (decoder != null && decoder.failure != null) {
+            throw decoder.failure;
+        }
+    }
+
+    /**
+     * @return The renderable of the main ball.
+     */
+    public Renderable getBallImage() {
+        return ballImage;
+    }
+
+    /**
+     * @return The renderable of the extra balls.
+     */
+    public Renderable getExtraBallImage() {
+        return extraBallImage;
+    }
+
+    /**
+     * @return The renderable of the main paddle.
+     */
+    public Renderable getPaddleImage() {
+        return paddleImage;
+    }
+
+    /**
+     * @return The renderable of the second paddle.
+     */
+    public Renderable getSecondPaddleImage() {
+        return secondPaddleImage;
+    }
+
+    /**
+     * @return The renderable of hearts, both falling and in the lives counter.
+     */
+    public Renderable getHeartImage() {
+        return heartImage;
+    }
+
+    /**
+     * @return The renderable of bricks.
+     */
+    public Renderable getBrickImage() {
+        return brickImage;
+    }
+
+    /**
+     * @return The renderable of the background.
+     */
+    public Renderable getBackgroundImage() {
+        return backgroundImage;
+    }
+
+    /**
+     * @return The sound played on ball collisions.
+     */
+    public Sound getCollisionSound() {
+        return collisionSound;
+    }
+
+    /**
+     * Decodes deferred images in order on a daemon thread of its own, stopping at the first
+     * failure.
+     */
+    private static final class BackgroundDecoder implements Runnable {
+        private final ImageReader imageReader;
+        private final Map<String, DeferredRenderable> renderables = new LinkedHashMap<>();
+        private final Map<String, Boolean> transparencies = new LinkedHashMap<>();
+        private volatile IllegalStateException failure;
+
+        private BackgroundDecoder(ImageReader imageReader) {
+            this.imageReader = imageReader;
+        }
+
+        /**
+         * Returns the renderable of an image, drawing a placeholder of the given color until
+         * the image is decoded. An image deferred again shares its first renderable.
+         */
+        private Renderable defer(String path, boolean useTopLeftPixelAsTransparent, Color placeholderColor) {
+            transparencies.putIfAbsent(path, useTopLeftPixelAsTransparent);
+            return renderables.computeIfAbsent(path, key -> new DeferredRenderable(
+                    placeholderColor == null ? null : new RectangleRenderable(placeholderColor)));
+        }
+
+        private void start() {
+            Thread thread = new Thread(this, DECODER_THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            for (Map.Entry<String, DeferredRenderable> entry : renderables.entrySet()) {
+                String path = entry.getKey();
+                Renderable image;
+                try {
+                    image = imageReader.readImage(path, transparencies.get(path));
+                } catch (RuntimeException e) {
+                    failure = new IllegalStateException(DECODING_FAILED_MSG + path, e);
+                    return;
+                }
+                if (image == null) {
+                    failure = new IllegalStateException(DECODING_FAILED_MSG + path);
+                    return;
+                }
+                entry.getValue().resolve(image);
+            }
+        }
+    }
+}
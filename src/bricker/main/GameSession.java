@@ -0,0 +1,753 @@
+package bricker.main;
+
+import bricker.brick_strategies.BrickStrategyFactory;
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.BasicBall;
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.BrickDebris;
+import bricker.gameobjects.FallingObject;
+import bricker.gameobjects.Heart;
+import bricker.gameobjects.Paddle;
+import bricker.gameobjects.SecondPaddle;
+import bricker.input.AutopilotPaddleInput;
+import bricker.input.PaddleInput;
+import bricker.utils.CameraManager;
+import bricker.utils.CollisionSound;
+import bricker.utils.EffectScheduler;
+import bricker.utils.ExtraBallsLimit;
+import bricker.utils.GameObjectCommandBuffer;
+import bricker.utils.LivesManager;
+import bricker.utils.SpawnScheduler;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Camera;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * The GameSession class holds the whole state of one game of Bricker: the board, the balls,
+ * the paddles, the lives and the camera, together with the random source they draw from.
+ * Nothing in a session is shared with other sessions, so many of them can run in the same
+ * JVM, whether hosted by a {@link BrickerGameManager} window or stepped headless.
+ *
+ * The host is responsible for the physics step of the session's game objects; the session
+ * applies the game rules after it in {@link #update(float)}. The board is built separately with
+ * {@link #buildBoard(long)}, which a window can spread over several frames; the game is playable,
+ * and the main ball enters it, once the board is complete.
+ *
+ * A session can also play a campaign of levels, each on a new board of the same size. The board
+ * of the next level is built in the background while a level is played and swapped in by
+ * {@link #startNextLevel()}.
+ */
+public class GameSession {
+
+    /**
+     * the size of a heart object in the game.
+     */
+    public static final float HEART_SIZE = 15f;
+
+    /**
+     * The state of the game after an update.
+     */
+    public enum Outcome {
+        /** The game goes on. */
+        PLAYING,
+        /** All the bricks are broken. */
+        WON,
+        /** The last life was lost. */
+        LOST
+    }
+
+    private static final String TAG_BALL="Ball";
+    private static final String TAG_MAIN_PADDLE="MainPaddle";
+    private static final float WALLS_THICK = 5f;
+    private static final int NUMBER_OF_WALLS_SIDES = 2;
+    private static final int ONE_LESS = 1;
+    private static final float BRICK_HIGHT = 15f;
+    private static final int MAX_LIVES_AUTHORIZED = 4;
+    private static final Vector2 PADDLE_SIZE = new Vector2(100, 15);
+    private static final float HALF = 0.5f;
+    private static final int HEIGHT_OF_PADDLE=30;
+    private static final Vector2 BALL_SIZE = new Vector2(20, 20);
+    private static final float BRICK_DISTANCE_FROM_WALLS = 20f;
+    private static final float BRICK_TO_BRICK_DISTANCE = 5f;
+    private static final int INITIAL_LIVES = 3;
+    private static final long STATE_HASH_MULTIPLIER = 31;
+    private static final int MAX_SPAWNS_PER_FRAME = 6;
+    private static final int MAX_LOW_PRIORITY_SPAWN_DELAY = 8;   // Frames.
+    static final int FIRST_LEVEL = 1;
+
+    private final GameObjectCollection gameObjects;
+    private final GameObjectCommandBuffer commands;
+    private final GameAssets assets;
+    private final Vector2 windowDimensions;
+    private final Vector2 windowCenter;
+    private final int bricksRowsNum;
+    private final int bricksColsNum;
+    private final Random random;
+    private final PaddleInput paddleInput;
+    private final Counter bricksCounter;
+    private final Counter secondPaddlesCounter = new Counter();
+    private final EffectScheduler effectScheduler = new EffectScheduler();
+    private final CollisionSound collisionSound;
+    private final ExtraBallsLimit extraBallsLimit = new ExtraBallsLimit();
+    private final SpawnScheduler spawnScheduler =
+            new SpawnScheduler(MAX_SPAWNS_PER_FRAME, MAX_LOW_PRIORITY_SPAWN_DELAY);
+    private final BrickDebris brickDebris;   // Null when no debris is shown.
+    private Ball ball;
+    private Paddle paddle;
+    private Vector2 paddleStartCenter;
+    private final CameraManager cameraManager;
+    private final LivesManager livesManager;
+    private BrickStrategyFactory brickStrategyFactory;
+    private final Brick[] bricks;
+    private final short[] brickStrategyCodes;
+    private Vector2 brickDimensions;
+    private int builtBricksNum;
+    private boolean boardGenerated;
+    private final BoardGenerator boardGenerator;
+    private LevelPreloader levelPreloader;   // Null unless playing a campaign.
+    private int levelsNum = FIRST_LEVEL;
+    private int level = FIRST_LEVEL;
+    private final GameStateSnapshot gameStateSnapshot;
+
+    /**
+     * Constructs a new GameSession and creates all of its game objects but the bricks, which
+     * are created by {@link #buildBoard(long)}.
+     *
+     * @param gameObjects       Collection the session's game objects are added to. The session
+     *                          changes it only in {@link #update(float)} and when reset.
+     * @param assets            The decoded images and sounds of the game.
+     * @param windowDimensions  The dimensions of the game window.
+     * @param bricksRowsNum     The number of rows of bricks.
+     * @param bricksColsNum     The number of bricks in a row.
+     * @param random            The random source of the session.
+     * @param paddleInput       The source of the paddles' movement, such as the arrow keys.
+     *                          Can be null, in which case an autopilot moves them.
+     * @param cameraSetter      Sets the camera of the game, or clears it when given null.
+     * @param brickDebris       Shows the debris of broken bricks. Can be null, in which case
+     *                          broken bricks leave no debris, as in sessions never rendered.
+     */
+    public GameSession(GameObjectCollection gameObjects,
+                       GameAssets assets,
+                       Vector2 windowDimensions,
+                       int bricksRowsNum,
+                       int bricksColsNum,
+                       Random random,
+                       PaddleInput paddleInput,
+                       Consumer<Camera> cameraSetter,
+                       BrickDebris brickDebris) {
+        this.gameObjects = gameObjects;
+        this.commands = new GameObjectCommandBuffer(gameObjects);
+        this.assets = assets;
+        this.windowDimensions = windowDimensions;
+        this.windowCenter = windowDimensions.mult(HALF);
+        this.bricksRowsNum = bricksRowsNum;
+        this.bricksColsNum = bricksColsNum;
+        this.random = random;
+        this.bricksCounter = new Counter(bricksRowsNum * bricksColsNum);
+        this.bricks = new Brick[bricksRowsNum * bricksColsNum];
+        this.brickStrategyCodes = new short[bricks.length];
+        this.boardGenerator = new BoardGenerator(bricksRowsNum, bricksColsNum, ForkJoinPool.commonPool());
+        this.collisionSound = new CollisionSound(assets.getCollisionSound());
+        this.brickDebris = brickDebris;
+
+        // Creating the Ball
+        createBall();
+
+        // Creating the paddles' input
+        this.paddleInput = paddleInput != null ?
+                paddleInput :
+                new AutopilotPaddleInput(ball, WALLS_THICK, windowDimensions.x() - WALLS_THICK, WALLS_THICK);
+
+        // Creating the camera
+        cameraManager = new CameraManager(cameraSetter, ball, windowDimensions, effectScheduler);
+
+        // Creating the paddle
+        createPaddle();
+
+        // Creating the walls
+        createWalls();
+
+        // The debris of broken bricks is drawn over the game
+        if (brickDebris != null) {
+            commands.addGameObject(brickDebris, Layer.FOREGROUND);
+        }
+
+        // Creating the lives manager
+        livesManager = new LivesManager(
+                INITIAL_LIVES,
+                MAX_LIVES_AUTHORIZED,
+                windowDimensions,
+                commands,
+                assets.getHeartImage());
+
+        // Creating the bricks' strategy factory
+        createBrickStrategyFactory();
+
+        gameStateSnapshot = new GameStateSnapshot(this,
+                gameObjects,
+                commands,
+                bricks,
+                brickStrategyCodes,
+                brickStrategyFactory,
+                bricksCounter,
+                secondPaddlesCounter,
+                ball,
+                paddle,
+                livesManager,
+                cameraManager,
+                windowDimensions,
+                assets.getExtraBallImage(),
+                collisionSound,
+                assets.getHeartImage(),
+                TAG_MAIN_PADDLE,
+                assets.getSecondPaddleImage(),
+                paddleInput,
+                effectScheduler,
+                spawnScheduler);
+        commands.flush();
+    }
+
+    /**
+     * Adds bricks of the board to the game, in row-major order, until the board is complete or
+     * the time budget is spent. At least one brick is added per call. The first call generates
+     * every brick in parallel with the {@link BoardGenerator}, from a seed drawn from the
+     * session's random source. Once the board is complete the main ball is added and the game
+     * becomes playable.
+     *
+     * @param budgetNanos The time the call may spend creating bricks, in nanoseconds.
+     * @return True if the board is complete.
+     */
+    public boolean buildBoard(long budgetNanos) {
+        if (isPlayable()) {
+            return true;
+        }
+        long startTime = System.nanoTime();
+        if (!boardGenerated) {
+            boardGenerator.generate(random.nextLong(), brickStrategyCodes, this::createBrick);
+            boardGenerated = true;
+        }
+        do {
+            commands.addGameObject(bricks[builtBricksNum++], Layer.STATIC_OBJECTS);
+        } while (builtBricksNum < bricks.length && System.nanoTime() - startTime < budgetNanos);
+        if (builtBricksNum == bricks.length) {
+            commands.addGameObject(ball);
+            preloadNextLevel();
+        }
+        commands.flush();
+        return isPlayable();
+    }
+
+    /**
+     * Makes the session play a campaign, preloading the board of each next level while a level
+     * is played. Must be called before the board is complete.
+     *
+     * @param levelsNum The number of levels of the campaign.
+     */
+    public void playCampaign(int levelsNum) {
+        this.levelsNum = levelsNum;
+        levelPreloader = new LevelPreloader(bricksRowsNum, bricksColsNum, this::newBrick);
+    }
+
+    /**
+     * Checks if the campaign has a level after the current one.
+     *
+     * @return True if {@link #startNextLevel()} can be called.
+     */
+    public boolean hasNextLevel() {
+        return levelPreloader != null && level < levelsNum;
+    }
+
+    /**
+     * Checks if the board of the next level is finished, so starting it will not wait.
+     *
+     * @return True if the next level's board is ready.
+     */
+    public boolean isNextLevelReady() {
+        return levelPreloader != null && levelPreloader.isReady();
+    }
+
+    /**
+     * Starts the next level of the campaign with its preloaded board, keeping the lives. The
+     * bricks of the board replace the current ones in one step, waiting only if the board is
+     * not finished; the ball, paddle and camera are reset as for a new game.
+     */
+    public void startNextLevel() {
+        LevelPreloader.PreparedBoard board = levelPreloader.take();
+        removeSpawnedObjects();
+        spawnScheduler.clear();
+        for (Brick brick : bricks) {
+            if (brick.isActive()) {
+                commands.removeGameObject(brick, Layer.STATIC_OBJECTS);
+            }
+        }
+        // The arrays are shared with the snapshots, so the new board is copied into them.
+        System.arraycopy(board.getStrategyCodes(), 0, brickStrategyCodes, 0, bricks.length);
+        System.arraycopy(board.getBricks(), 0, bricks, 0, bricks.length);
+        for (Brick brick : bricks) {
+            commands.addGameObject(brick, Layer.STATIC_OBJECTS);
+        }
+        bricksCounter.reset();
+        bricksCounter.increaseBy(bricks.length);
+        secondPaddlesCounter.reset();
+        effectScheduler.clear();
+        cameraManager.turnCameraOff();
+        paddle.endWidening();
+        paddle.setCenter(paddleStartCenter);
+        resetBall();
+        level++;
+        commands.flush();
+        countExtraBalls();
+        preloadNextLevel();
+    }
+
+    /**
+     * Retrieves the current level of the campaign.
+     *
+     * @return The level, 1 for the first.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Retrieves the number of levels of the campaign.
+     *
+     * @return The number of levels, 1 unless playing a campaign.
+     */
+    int getLevelsNum() {
+        return levelsNum;
+    }
+
+    /**
+     * Returns the campaign to a level restored from a snapshot. If the level changed, the board
+     * being preloaded is for the wrong level, so it is discarded and the board of the level
+     * after the restored one is preloaded instead, as when the game is reset.
+     *
+     * @param restoredLevel The level, between 1 and the number of levels.
+     */
+    void restoreLevel(int restoredLevel) {
+        if (restoredLevel == level) {
+            return;
+        }
+        level = restoredLevel;
+        if (levelPreloader != null) {
+            levelPreloader.discard();
+            preloadNextLevel();
+        }
+    }
+
+    /**
+     * Checks if the board is complete, so the game can be played.
+     *
+     * @return True once every brick has been created.
+     */
+    public boolean isPlayable() {
+        return builtBricksNum == bricks.length;
+    }
+
+    /**
+     * Applies the game rules after the physics step: removes the objects that fell below the
+     * window, advances the game time of temporary effects, updates the lives, returns the
+     * main ball to the center when it falls while lives remain, and creates the objects spawned
+     * by the bricks broken so far, within the frame's spawn budget.
+     *
+     * The changes to the game objects requested during the frame, including those of the
+     * collision callbacks, are applied together at the end of the update.
+     *
+     * @param deltaTime The game time elapsed in the physics step.
+     * @return The state of the game after the update.
+     */
+    public Outcome update(float deltaTime) {
+        removeFallenObjects();
+        effectScheduler.advanceTime(deltaTime);
+        livesManager.manageLives();
+        cameraManager.update();
+        Outcome outcome = checkOutcome();
+        spawnScheduler.update();
+        commands.flush();
+        collisionSound.endFrame();
+        if (extraBallsLimit.getCap() != ExtraBallsLimit.UNLIMITED) {
+            countExtraBalls();
+        }
+        return outcome;
+    }
+
+    /**
+     * Checks if the game is won or lost, resetting the main ball when it fell while lives remain.
+     *
+     * @return The state of the game.
+     */
+    private Outcome checkOutcome() {
+        boolean lost = false;
+        if (ball.hasFallen()) {
+            livesManager.decrementLife();
+            if (!livesManager.isLosing()) {
+                resetBall();
+                return Outcome.PLAYING;
+            }
+            lost = true;
+        }
+        if (bricksCounter.value() <= 0) {
+            return Outcome.WON;
+        }
+        return lost ? Outcome.LOST : Outcome.PLAYING;
+    }
+
+    /**
+     * Restarts the game without reloading it: decoded assets and existing objects are kept,
+     * bricks are revived with strategies from a newly generated board, and the ball, paddle,
+     * camera and lives are reset in place. A campaign restarts from its first level.
+     */
+    public void resetInPlace() {
+        removeSpawnedObjects();
+        spawnScheduler.clear();
+        boardGenerator.generate(random.nextLong(), brickStrategyCodes, null);
+        for (int i = 0; i < bricks.length; i++) {
+            if (!bricks[i].isActive()) {
+                commands.addGameObject(bricks[i], Layer.STATIC_OBJECTS);
+            }
+            bricks[i].revive(brickStrategyFactory.getStrategyByCode(brickStrategyCodes[i]));
+        }
+        bricksCounter.reset();
+        bricksCounter.increaseBy(bricks.length);
+        secondPaddlesCounter.reset();
+        effectScheduler.clear();
+        cameraManager.turnCameraOff();
+        paddle.endWidening();
+        livesManager.resetLives();
+        paddle.setCenter(paddleStartCenter);
+        resetBall();
+        level = FIRST_LEVEL;
+        commands.flush();
+        countExtraBalls();
+        if (levelPreloader != null && !levelPreloader.hasPending()) {
+            preloadNextLevel();
+        }
+    }
+
+    /**
+     * Sets the time the spawned objects of a frame may take to create, beyond which the rest
+     * wait for the next frames. Spawn times vary between machines, so a session that is
+     * recorded or compared with another should not set it.
+     *
+     * @param timeBudgetNanos The time budget in nanoseconds, or 0 for none.
+     */
+    public void setSpawnTimeBudget(long timeBudgetNanos) {
+        spawnScheduler.setTimeBudget(timeBudgetNanos);
+    }
+
+    /**
+     * Sets whether the ball collisions of a frame play the collision sound once.
+     *
+     * @param merged True to play the sound at most once per frame.
+     */
+    public void setCollisionSoundsMerged(boolean merged) {
+        collisionSound.setMerged(merged);
+    }
+
+    /**
+     * Shows or hides the decorative heart icons of the lives display.
+     *
+     * @param visible True to draw the heart icons.
+     */
+    public void setHudDecorationsVisible(boolean visible) {
+        livesManager.setDecorationsVisible(visible);
+    }
+
+    /**
+     * Sets how often the camera follows the main ball while it is on.
+     *
+     * @param followInterval The number of frames between moves of the camera, 1 for every frame.
+     */
+    public void setCameraFollowInterval(int followInterval) {
+        cameraManager.setFollowInterval(followInterval);
+    }
+
+    /**
+     * Caps the number of extra balls in the game at once; strategies adding balls past the cap
+     * add fewer. Balls already in the game are kept. The cap changes how the game goes on, so a
+     * recorded game must record its changes.
+     *
+     * @param cap The cap, or {@link ExtraBallsLimit#UNLIMITED}.
+     */
+    public void setExtraBallsCap(int cap) {
+        extraBallsLimit.setCap(cap);
+        countExtraBalls();
+    }
+
+    /**
+     * Retrieves the cap on the number of extra balls in the game at once.
+     *
+     * @return The cap, or {@link ExtraBallsLimit#UNLIMITED}.
+     */
+    public int getExtraBallsCap() {
+        return extraBallsLimit.getCap();
+    }
+
+    /**
+     * Retrieves the number of bricks still in the game.
+     *
+     * @return The number of remaining bricks.
+     */
+    public int getBricksLeft() {
+        return bricksCounter.value();
+    }
+
+    /**
+     * Retrieves the number of spawned objects waiting for the spawn budget of a later frame.
+     *
+     * @return The number of pending spawns.
+     */
+    public int getPendingSpawnsCount() {
+        return spawnScheduler.getPendingCount();
+    }
+
+    /**
+     * Retrieves the number of lives left.
+     *
+     * @return The number of lives left.
+     */
+    public int getLives() {
+        return livesManager.getLives();
+    }
+
+    /**
+     * Retrieves the color the lives display shows the number of lives in.
+     *
+     * @return The color of the number of lives.
+     */
+    public Color getLivesColor() {
+        return livesManager.getLivesColor(livesManager.getLives());
+    }
+
+    /**
+     * Hashes the state that decides how the game goes on: the remaining bricks, the lives, the
+     * exact positions and velocities of the main ball and paddle, and the paddle's width. Two sessions stepped
+     * identically from the same seed have the same hash.
+     *
+     * @return The hash of the session's state.
+     */
+    public long stateHash() {
+        long hash = bricksCounter.value();
+        for (Brick brick : bricks) {
+            hash = STATE_HASH_MULTIPLIER * hash + (brick.isActive() ? 1 : 0);
+        }
+        hash = STATE_HASH_MULTIPLIER * hash + livesManager.getLives();
+        hash = STATE_HASH_MULTIPLIER * hash + level;
+        hash = hashVector(hash, ball.getTopLeftCorner());
+        hash = hashVector(hash, ball.getVelocity());
+        hash = hashVector(hash, paddle.getTopLeftCorner());
+        return hashVector(hash, paddle.getDimensions());
+    }
+
+    /**
+     * Retrieves the snapshot of this session's state.
+     *
+     * @return The snapshot that saves and restores this session.
+     */
+    GameStateSnapshot getSnapshot() {
+        return gameStateSnapshot;
+    }
+
+    /**
+     * Retrieves the bricks of the board.
+     *
+     * @return The bricks, in row-major order.
+     */
+    Brick[] getBricks() {
+        return bricks;
+    }
+
+    /**
+     * Retrieves the counter of remaining bricks.
+     *
+     * @return The counter of remaining bricks.
+     */
+    Counter getBricksCounter() {
+        return bricksCounter;
+    }
+
+    /**
+     * Creates the walls around the game area.
+     */
+    private void createWalls() {
+        GameObject upperWall =
+                new GameObject(Vector2.ZERO, new Vector2(windowDimensions.x(), WALLS_THICK), null);
+        GameObject leftWall =
+                new GameObject(Vector2.ZERO, new Vector2(WALLS_THICK, windowDimensions.y()), null);
+        GameObject rightWall = new GameObject(new Vector2(windowDimensions.x() - WALLS_THICK, 0),
+                new Vector2(WALLS_THICK, windowDimensions.y()),
+                null);
+        commands.addGameObject(upperWall);
+        commands.addGameObject(leftWall);
+        commands.addGameObject(rightWall);
+    }
+
+    /**
+     * Creates the paddle for the game.
+     */
+    private void createPaddle() {
+        paddle = new Paddle(Vector2.ZERO, PADDLE_SIZE, assets.getPaddleImage(), paddleInput,
+                windowDimensions.x());
+        paddleStartCenter = new Vector2(windowDimensions.x() / 2, windowDimensions.y()-HEIGHT_OF_PADDLE);
+        paddle.setCenter(paddleStartCenter);
+        commands.addGameObject(paddle);
+        paddle.setTag(TAG_MAIN_PADDLE);
+    }
+
+    /**
+     * Creates the main Ball for the game.
+     */
+    private void createBall() {
+        ball = new Ball(windowCenter,
+                BALL_SIZE,
+                assets.getBallImage(),
+                collisionSound,
+                windowDimensions,
+                effectScheduler);
+        ball.setRandomVelocity(random);
+        ball.setTag(TAG_BALL);
+    }
+
+    /**
+     * Creates the factory drawing the strategies of the bricks, and the dimensions shared by
+     * all the bricks.
+     */
+    private void createBrickStrategyFactory() {
+        brickStrategyFactory = new BrickStrategyFactory(commands,
+                bricksCounter,
+                assets.getExtraBallImage(),
+                collisionSound,
+                windowDimensions,
+                paddleInput,
+                cameraManager,
+                livesManager,
+                PADDLE_SIZE,
+                assets.getSecondPaddleImage(),
+                assets.getHeartImage(),
+                BALL_SIZE,
+                TAG_BALL
+                ,TAG_MAIN_PADDLE,
+                paddle,
+                secondPaddlesCounter,
+                effectScheduler,
+                random,
+                extraBallsLimit,
+                spawnScheduler,
+                brickDebris
+        );
+        float brickWidth = (windowDimensions.x() -
+                (((WALLS_THICK + BRICK_DISTANCE_FROM_WALLS) * NUMBER_OF_WALLS_SIDES) +
+                        (BRICK_TO_BRICK_DISTANCE * (bricksColsNum - ONE_LESS)))) / bricksColsNum;
+        brickDimensions = new Vector2(brickWidth, BRICK_HIGHT);
+    }
+
+    /**
+     * Creates a brick of the board with its generated strategy, without adding it to the game.
+     * Called by the board generator, possibly from several threads for distinct bricks.
+     *
+     * @param brickIndex The index of the brick in row-major order.
+     */
+    private void createBrick(int brickIndex) {
+        bricks[brickIndex] = newBrick(brickIndex, brickStrategyCodes[brickIndex]);
+    }
+
+    /**
+     * Creates a brick of a board with a strategy, without adding it to the game. Safe to call
+     * from any thread.
+     *
+     * @param brickIndex   The index of the brick in row-major order.
+     * @param strategyCode The brick's strategy code.
+     * @return The brick.
+     */
+    private Brick newBrick(int brickIndex, short strategyCode) {
+        int row = brickIndex / bricksColsNum;
+        int col = brickIndex % bricksColsNum;
+        return new Brick(
+                new Vector2(WALLS_THICK + BRICK_DISTANCE_FROM_WALLS +
+                        col * (brickDimensions.x() + BRICK_TO_BRICK_DISTANCE),
+                        WALLS_THICK + BRICK_DISTANCE_FROM_WALLS +
+                                row * (BRICK_HIGHT + BRICK_TO_BRICK_DISTANCE)),
+                brickDimensions,
+                assets.getBrickImage(),
+                brickStrategyFactory.getStrategyByCode(strategyCode));
+    }
+
+    /**
+     * Starts building the board of the next level in the background, from a seed drawn from
+     * the session's random source, if the campaign has a next level.
+     */
+    private void preloadNextLevel() {
+        if (hasNextLevel()) {
+            levelPreloader.preload(random.nextLong());
+        }
+    }
+
+    /**
+     * Returns the main ball to the center of the window with a new random velocity,
+     * adding it back to the game if it fell out.
+     */
+    private void resetBall() {
+        commands.removeGameObject(ball);
+        commands.addGameObject(ball);
+        ball.setCenter(windowCenter);
+        ball.setRandomVelocity(random);
+    }
+
+    /**
+     * Mixes the exact bits of a vector into a hash.
+     */
+    private static long hashVector(long hash, Vector2 vector) {
+        hash = STATE_HASH_MULTIPLIER * hash + Float.floatToRawIntBits(vector.x());
+        return STATE_HASH_MULTIPLIER * hash + Float.floatToRawIntBits(vector.y());
+    }
+
+    /**
+     * Removes the falling objects that fell below the window, in collection order.
+     */
+    private void removeFallenObjects() {
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.DEFAULT)) {
+            if (gameObject instanceof FallingObject && ((FallingObject) gameObject).hasFallen()) {
+                commands.removeGameObject(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Counts the extra balls in the game for their cap.
+     */
+    private void countExtraBalls() {
+        int extraBallsNum = 0;
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.DEFAULT)) {
+            if (gameObject instanceof BasicBall && gameObject != ball) {
+                extraBallsNum++;
+            }
+        }
+        extraBallsLimit.setCount(extraBallsNum);
+    }
+
+    /**
+     * Removes the objects spawned by brick strategies during play: extra balls, falling
+     * hearts and the second paddle, and clears the debris of the broken bricks.
+     */
+    private void removeSpawnedObjects() {
+        if (brickDebris != null) {
+            brickDebris.clear();
+        }
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.DEFAULT)) {
+            if ((gameObject instanceof BasicBall && gameObject != ball) ||
+                    gameObject instanceof Heart ||
+                    gameObject instanceof SecondPaddle) {
+                commands.removeGameObject(gameObject);
+            }
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package bricker.main;
+
+import bricker.brick_strategies.BrickStrategyFactory;
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.BasicBall;
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.Heart;
+import bricker.gameobjects.Paddle;
+import bricker.gameobjects.SecondPaddle;
+import bricker.utils.CameraManager;
+import bricker.utils.EffectScheduler;
+import bricker.utils.GameObjectCommandBuffer;
+import bricker.utils.LivesManager;
+import bricker.utils.SpawnScheduler;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import bricker.utils.CollisionSound;
+import bricker.input.PaddleInput;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The GameStateSnapshot class saves and restores the full state of a running game
+ * using a compact binary encoding.
+ *
+ * Layout (big-endian):
+ * - header: magic number, number of bricks and level of the campaign.
+ * - alive-brick bitset, one bit per brick, packed in longs.
+ * - per-brick strategy codes, as drawn by {@link BrickStrategyFactory#drawStrategyCode()}.
+ * - dynamic state, which can also be captured on its own:
+ * - main ball body and hit count, main paddle x and the game time it stays widened.
+ * - extra balls and hearts, each as a count followed by their bodies.
+ * - spawns not yet served, as written by {@link SpawnScheduler#writeTo(ByteBuffer)}.
+ * - second paddle presence, body and hit count.
+ * - lives, bricks counter, camera state and its hit limit.
+ *
+ * A body is center, dimensions and velocity, six floats. The same buffer is reused for
+ * every snapshot, so capturing a game allocates nothing once the buffer has grown to size.
+ */
+class GameStateSnapshot {
+
+    private static final int MAGIC = 0x42524B34;
+    private static final int BITS_IN_WORD = Long.SIZE;
+    private static final int WORD_INDEX_SHIFT = 6;
+    private static final float HALF = 0.5f;
+    private static final int BODY_BYTES = 6 * Float.BYTES;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int FIXED_DYNAMIC_BYTES =
+            BODY_BYTES + Integer.BYTES + 2 * Float.BYTES +           // main ball and paddle
+            2 * Integer.BYTES +                                      // extra balls and hearts counts
+            Integer.BYTES +                                          // pending spawns count
+            Byte.BYTES + BODY_BYTES + Integer.BYTES +                // second paddle
+            2 * Integer.BYTES + Byte.BYTES + Integer.BYTES;          // lives, bricks and camera
+    private static final String BAD_SNAPSHOT_MSG = "Snapshot does not match the current board";
+    private static final String CORRUPT_SNAPSHOT_MSG = "Snapshot is truncated or corrupt at byte %d";
+
+    private final GameSession session;
+    private final GameObjectCollection gameObjects;
+    private final GameObjectCommandBuffer commands;
+    private final Brick[] bricks;
+    private final short[] brickStrategyCodes;
+    private final BrickStrategyFactory brickStrategyFactory;
+    private final Counter bricksCounter;
+    private final Counter secondPaddlesCounter;
+    private final Ball ball;
+    private final Paddle paddle;
+    private final LivesManager livesManager;
+    private final CameraManager cameraManager;
+    private final Vector2 windowDimensions;
+    private final Renderable extraBallImage;
+    private final CollisionSound collisionSound;
+    private final Renderable heartImage;
+    private final String mainPaddleTag;
+    private final Renderable secondPaddleImage;
+    private final PaddleInput paddleInput;
+    private final EffectScheduler effectScheduler;
+    private final SpawnScheduler spawnScheduler;
+
+    // Reused between snapshots so capturing does not allocate.
+    private final List<GameObject> extraBalls = new ArrayList<>();
+    private final List<GameObject> hearts = new ArrayList<>();
+    private SecondPaddle secondPaddle;
+    private ByteBuffer buffer = ByteBuffer.allocate(0);
+    private ByteBuffer dynamicBuffer = ByteBuffer.allocate(0);
+
+    /**
+     * Constructs a new GameStateSnapshot instance.
+     *
+     * @param session             The session whose campaign level is saved with the state.
+     * @param gameObjects         Collection of GameObjects in the game.
+     * @param commands            Buffer through which the restore changes the game objects.
+     * @param bricks              The bricks of the board, in row-major order.
+     * @param brickStrategyCodes  The strategy code of every brick, parallel to bricks.
+     * @param brickStrategyFactory Factory for rebuilding brick strategies from their codes.
+     * @param bricksCounter       Counter for tracking the number of bricks.
+     * @param secondPaddlesCounter Counter of second paddles in the game.
+     * @param ball                The main ball.
+     * @param paddle              The main paddle.
+     * @param livesManager        Manages the player's lives.
+     * @param cameraManager       Manages the camera state.
+     * @param windowDimensions    Dimensions of the game window.
+     * @param extraBallImage      Renderable of the extra balls.
+     * @param collisionSound      Sound played on ball collisions.
+     * @param heartImage          Renderable of the falling hearts.
+     * @param mainPaddleTag       Tag of mainPaddle object type.
+     * @param secondPaddleImage   Renderable of the second paddle.
+     * @param paddleInput         Source of the second paddle's movement commands.
+     * @param effectScheduler     The scheduler ending temporary effects.
+     * @param spawnScheduler      The scheduler of spawns not yet served.
+     */
+    GameStateSnapshot(GameSession session,
+                      GameObjectCollection gameObjects,
+                      GameObjectCommandBuffer commands,
+                      Brick[] bricks,
+                      short[] brickStrategyCodes,
+                      BrickStrategyFactory brickStrategyFactory,
+                      Counter bricksCounter,
+                      Counter secondPaddlesCounter,
+                      Ball ball,
+                      Paddle paddle,
+                      LivesManager livesManager,
+                      CameraManager cameraManager,
+                      Vector2 windowDimensions,
+                      Renderable extraBallImage,
+                      CollisionSound collisionSound,
+                      Renderable heartImage,
+                      String mainPaddleTag,
+                      Renderable secondPaddleImage,
+                      PaddleInput paddleInput,
+                      EffectScheduler effectScheduler,
+                      SpawnScheduler spawnScheduler) {
+        this.session = session;
+        this.gameObjects = gameObjects;
+        this.commands = commands;
+        this.bricks = bricks;
+        this.brickStrategyCodes = brickStrategyCodes;
+        this.brickStrategyFactory = brickStrategyFactory;
+        this.bricksCounter = bricksCounter;
+        this.secondPaddlesCounter = secondPaddlesCounter;
+        this.ball = ball;
+        this.paddle = paddle;
+        this.livesManager = livesManager;
+        this.cameraManager = cameraManager;
+        this.windowDimensions = windowDimensions;
+        this.extraBallImage = extraBallImage;
+        this.collisionSound = collisionSound;
+        this.heartImage = heartImage;
+        this.mainPaddleTag = mainPaddleTag;
+        this.secondPaddleImage = secondPaddleImage;
+        this.paddleInput = paddleInput;
+        this.effectScheduler = effectScheduler;
+        this.spawnScheduler = spawnScheduler;
+    }
+
+    /**
+     * Encodes the current game state.
+     *
+     * @return A buffer holding the encoded state, positioned at its start. The buffer is
+     *         reused by the next capture.
+     */
+    ByteBuffer capture() {
+        collectSpawnedObjects();
+        int dynamicOffset = dynamicStateOffset(bricks.length);
+        if (buffer.capacity() < dynamicOffset + dynamicStateBytes()) {
+            buffer = grow(buffer, dynamicOffset + dynamicStateBytes());
+        }
+        buffer.clear();
+        buffer.putInt(MAGIC).putInt(bricks.length).putInt(session.getLevel());
+        long word = 0;
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i].isActive()) {
+                word |= 1L << i;
+            }
+            if ((i & (BITS_IN_WORD - 1)) == BITS_IN_WORD - 1 || i == bricks.length - 1) {
+                buffer.putLong(word);
+                word = 0;
+            }
+        }
+        for (short strategyCode : brickStrategyCodes) {
+            buffer.putShort(strategyCode);
+        }
+        putDynamicState(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes only the dynamic part of the current game state: everything but the bricks.
+     * It is laid out exactly as in a full snapshot from offset
+     * {@link #dynamicStateOffset(int)}.
+     *
+     * @return A buffer holding the encoded dynamic state, positioned at its start. The buffer
+     *         is reused by the next capture.
+     */
+    ByteBuffer captureDynamicState() {
+        collectSpawnedObjects();
+        if (dynamicBuffer.capacity() < dynamicStateBytes()) {
+            dynamicBuffer = grow(dynamicBuffer, dynamicStateBytes());
+        }
+        dynamicBuffer.clear();
+        putDynamicState(dynamicBuffer);
+        dynamicBuffer.flip();
+        return dynamicBuffer;
+    }
+
+    /**
+     * Retrieves the offset of the alive-brick bitset in a snapshot.
+     *
+     * @return The offset of the bitset, in bytes.
+     */
+    static int bitsetOffset() {
+        return HEADER_BYTES;
+    }
+
+    /**
+     * Retrieves the offset of the dynamic state in a snapshot of a board.
+     *
+     * @param brickCount The number of bricks on the board.
+     * @return The offset of the dynamic state, in bytes.
+     */
+    static int dynamicStateOffset(int brickCount) {
+        return HEADER_BYTES + wordsFor(brickCount) * Long.BYTES + brickCount * Short.BYTES;
+    }
+
+    /**
+     * Restores a state encoded by {@link #capture()}, rebuilding the live game objects.
+     * Bricks are revived or removed to match the saved bitset, and their strategies are
+     * rebuilt only where the saved code differs from the current one. The campaign returns to
+     * the saved level, preloading the board of the level after it again if the level changed.
+     *
+     * The whole encoding is checked before anything is changed, so a snapshot that cannot be
+     * restored leaves the game as it was.
+     *
+     * @param in The encoded state, positioned at its start.
+     * @throws IllegalArgumentException If the snapshot was taken on a different board, or is
+     *                                  truncated or corrupt.
+     */
+    void restore(ByteBuffer in) {
+        validate(in);
+        session.restoreLevel(in.getInt(in.position() + 2 * Integer.BYTES));
+        in.position(in.position() + HEADER_BYTES);
+        int bitsetStart = in.position();
+        int codesStart = bitsetStart + wordsFor(bricks.length) * Long.BYTES;
+        for (int i = 0; i < bricks.length; i++) {
+            long word = in.getLong(bitsetStart + (i >>> WORD_INDEX_SHIFT) * Long.BYTES);
+            boolean alive = (word & (1L << i)) != 0;
+            short strategyCode = in.getShort(codesStart + i * Short.BYTES);
+            restoreBrick(i, alive, strategyCode);
+        }
+        in.position(codesStart + bricks.length * Short.BYTES);
+
+        commands.removeGameObject(ball);
+        commands.addGameObject(ball);
+        readBody(in, ball);
+        ball.setCollisionCounter(in.getInt());
+        float paddleX = in.getFloat();
+        float paddleWideningSeconds = in.getFloat();
+
+        collectSpawnedObjects();
+        for (GameObject extraBall : extraBalls) {
+            commands.removeGameObject(extraBall);
+        }
+        for (GameObject heart : hearts) {
+            commands.removeGameObject(heart);
+        }
+        if (secondPaddle != null) {
+            commands.removeGameObject(secondPaddle);
+        }
+        // The pending expiries belong to the removed objects; the restored ones reschedule.
+        effectScheduler.clear();
+        if (paddleWideningSeconds > 0) {
+            paddle.widen(effectScheduler, paddleWideningSeconds);
+        } else {
+            paddle.endWidening();
+        }
+        paddle.setTopLeftCorner(new Vector2(paddleX, paddle.getTopLeftCorner().y()));
+        restoreExtraBalls(in);
+        restoreHearts(in);
+        spawnScheduler.readFrom(in);
+        restoreSecondPaddle(in);
+
+        livesManager.setLives(in.getInt());
+        bricksCounter.reset();
+        bricksCounter.increaseBy(in.getInt());
+        boolean cameraOn = in.get() != 0;
+        cameraManager.restore(cameraOn, in.getInt());
+        commands.flush();
+    }
+
+    /**
+     * Writes the current game state to a file.
+     *
+     * @param path The file to write.
+     * @return The number of bytes written.
+     * @throws IOException If the file cannot be written.
+     */
+    int save(Path path) throws IOException {
+        ByteBuffer state = capture();
+        int size = state.remaining();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (state.hasRemaining()) {
+                channel.write(state);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Restores the game state from a file written by {@link #save(Path)}.
+     *
+     * @param path The file to read.
+     * @throws IOException If the file cannot be read.
+     */
+    void load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (buffer.capacity() < channel.size()) {
+                buffer = grow(buffer, (int) channel.size());
+            }
+            buffer.clear();
+            while (channel.read(buffer) > 0) {
+                // Keep reading until the whole file is in the buffer.
+            }
+        }
+        buffer.flip();
+        restore(buffer);
+    }
+
+    /**
+     * Checks that a buffer holds a snapshot of this board that can be restored, without moving
+     * its position: the layout fits in the buffer and every code, kind, flag and count is in
+     * range.
+     */
+    private void validate(ByteBuffer in) {
+        int start = in.position();
+        requireBytes(in, start, HEADER_BYTES);
+        if (in.getInt(start) != MAGIC || in.getInt(start + Integer.BYTES) != bricks.length) {
+            throw new IllegalArgumentException(BAD_SNAPSHOT_MSG);
+        }
+        int level = in.getInt(start + 2 * Integer.BYTES);
+        if (level < GameSession.FIRST_LEVEL || level > session.getLevelsNum()) {
+            throw corrupt(start + 2 * Integer.BYTES);
+        }
+        int dynamicStart = start + dynamicStateOffset(bricks.length);
+        requireBytes(in, start, dynamicStart - start);
+        int codesStart = dynamicStart - bricks.length * Short.BYTES;
+        for (int i = 0; i < bricks.length; i++) {
+            int position = codesStart + i * Short.BYTES;
+            if (!BrickStrategyFactory.isValidStrategyCode(in.getShort(position))) {
+                throw corrupt(position);
+            }
+        }
+
+        int position = dynamicStart;
+        requireBytes(in, position, BODY_BYTES + Integer.BYTES + 2 * Float.BYTES);
+        position += BODY_BYTES + Integer.BYTES + Float.BYTES;
+        float paddleWideningSeconds = in.getFloat(position);
+        if (!(paddleWideningSeconds >= 0) || Float.isInfinite(paddleWideningSeconds)) {
+            throw corrupt(position);
+        }
+        position += Float.BYTES;
+        position = skipCounted(in, position, BODY_BYTES);   // Extra balls.
+        position = skipCounted(in, position, BODY_BYTES);   // Hearts.
+        int spawnsStart = position;
+        position = skipCounted(in, position, SpawnScheduler.REQUEST_BYTES);
+        for (int request = spawnsStart + Integer.BYTES; request < position;
+             request += SpawnScheduler.REQUEST_BYTES) {
+            int kind = in.get(request);
+            int waited = in.getInt(request + Byte.BYTES + 2 * Float.BYTES);
+            if (kind < 0 || kind >= spawnScheduler.getKindsNum() || waited < 0) {
+                throw corrupt(request);
+            }
+        }
+
+        requireBytes(in, position, Byte.BYTES + BODY_BYTES + 3 * Integer.BYTES + Byte.BYTES + Integer.BYTES);
+        requireFlag(in, position);                           // Second paddle presence.
+        position += Byte.BYTES + BODY_BYTES + Integer.BYTES;
+        int lives = in.getInt(position);
+        if (lives < 0 || lives > livesManager.getMaxLives()) {
+            throw corrupt(position);
+        }
+        position += Integer.BYTES;
+        int bricksLeft = in.getInt(position);
+        if (bricksLeft < 0 || bricksLeft > bricks.length) {
+            throw corrupt(position);
+        }
+        position += Integer.BYTES;
+        requireFlag(in, position);                           // Camera state.
+    }
+
+    /**
+     * Skips a count followed by that many items of a fixed size, checking they fit.
+     *
+     * @return The position after the items.
+     */
+    private static int skipCounted(ByteBuffer in, int position, int itemBytes) {
+        requireBytes(in, position, Integer.BYTES);
+        int count = in.getInt(position);
+        position += Integer.BYTES;
+        if (count < 0 || count > (in.limit() - position) / itemBytes) {
+            throw corrupt(position - Integer.BYTES);
+        }
+        return position + count * itemBytes;
+    }
+
+    private static void requireBytes(ByteBuffer in, int position, int bytes) {
+        if (bytes > in.limit() - position) {
+            throw corrupt(in.limit());
+        }
+    }
+
+    private static void requireFlag(ByteBuffer in, int position) {
+        byte flag = in.get(position);
+        if (flag != 0 && flag != 1) {
+            throw corrupt(position);
+        }
+    }
+
+    private static IllegalArgumentException corrupt(int position) {
+        return new IllegalArgumentException(String.format(CORRUPT_SNAPSHOT_MSG, position));
+    }
+
+    private void restoreBrick(int index, boolean alive, short strategyCode) {
+        Brick brick = bricks[index];
+        boolean codeChanged = brickStrategyCodes[index] != strategyCode;
+        brickStrategyCodes[index] = strategyCode;
+        if (alive) {
+            if (!brick.isActive()) {
+                commands.addGameObject(brick, Layer.STATIC_OBJECTS);
+                brick.revive(brickStrategyFactory.getStrategyByCode(strategyCode));
+            } else if (codeChanged) {
+                brick.revive(brickStrategyFactory.getStrategyByCode(strategyCode));
+            }
+        } else if (brick.isActive()) {
+            commands.removeGameObject(brick, Layer.STATIC_OBJECTS);
+            brick.deactivate();
+        }
+    }
+
+    private void restoreExtraBalls(ByteBuffer in) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            BasicBall extraBall = new BasicBall(Vector2.ZERO, Vector2.ONES, extraBallImage,
+                    windowDimensions, collisionSound);
+            readBody(in, extraBall);
+            commands.addGameObject(extraBall);
+        }
+    }
+
+    private void restoreHearts(ByteBuffer in) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Heart heart = new Heart(Vector2.ZERO, Vector2.ONES, heartImage, commands,
+                    windowDimensions, livesManager, mainPaddleTag);
+            readBody(in, heart);
+            commands.addGameObject(heart);
+        }
+    }
+
+    private void restoreSecondPaddle(ByteBuffer in) {
+        if (in.get() == 0) {
+            in.position(in.position() + BODY_BYTES + Integer.BYTES);
+            secondPaddlesCounter.reset();
+            return;
+        }
+        SecondPaddle restoredPaddle = new SecondPaddle(Vector2.ZERO, Vector2.ONES, secondPaddleImage,
+                paddleInput, windowDimensions.x(), commands, secondPaddlesCounter, effectScheduler);
+        readBody(in, restoredPaddle);
+        restoredPaddle.setHitsCount(in.getInt());
+        commands.addGameObject(restoredPaddle);
+        secondPaddlesCounter.reset();
+        secondPaddlesCounter.increment();
+    }
+
+    private void collectSpawnedObjects() {
+        extraBalls.clear();
+        hearts.clear();
+        secondPaddle = null;
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.DEFAULT)) {
+            if (gameObject instanceof SecondPaddle) {
+                secondPaddle = (SecondPaddle) gameObject;
+            } else if (gameObject instanceof Heart) {
+                hearts.add(gameObject);
+            } else if (gameObject instanceof BasicBall && gameObject != ball) {
+                extraBalls.add(gameObject);
+            }
+        }
+    }
+
+    private void putDynamicState(ByteBuffer out) {
+        putBody(out, ball);
+        out.putInt(ball.getCollisionCounter());
+        out.putFloat(paddle.getTopLeftCorner().x());
+        out.putFloat(paddle.getWideningSecondsLeft(effectScheduler));
+        putBodies(out, extraBalls);
+        putBodies(out, hearts);
+        spawnScheduler.writeTo(out);
+        out.put((byte) (secondPaddle != null ? 1 : 0));
+        if (secondPaddle != null) {
+            putBody(out, secondPaddle);
+            out.putInt(secondPaddle.getHitsCount());
+        } else {
+            out.position(out.position() + BODY_BYTES + Integer.BYTES);
+        }
+        out.putInt(livesManager.getLives());
+        out.putInt(bricksCounter.value());
+        out.put((byte) (cameraManager.isCameraOn() ? 1 : 0));
+        out.putInt(cameraManager.getHitsToReach());
+    }
+
+    private int dynamicStateBytes() {
+        return FIXED_DYNAMIC_BYTES + (extraBalls.size() + hearts.size()) * BODY_BYTES +
+                spawnScheduler.getPendingCount() * SpawnScheduler.REQUEST_BYTES;
+    }
+
+    private static void putBodies(ByteBuffer out, List<GameObject> bodies) {
+        out.putInt(bodies.size());
+        for (GameObject body : bodies) {
+            putBody(out, body);
+        }
+    }
+
+    private static void putBody(ByteBuffer out, GameObject body) {
+        // The center is computed from the corner, as getCenter would build a new vector
+        Vector2 topLeftCorner = body.getTopLeftCorner();
+        Vector2 dimensions = body.getDimensions();
+        Vector2 velocity = body.getVelocity();
+        out.putFloat(topLeftCorner.x() + dimensions.x() * HALF)
+                .putFloat(topLeftCorner.y() + dimensions.y() * HALF)
+                .putFloat(dimensions.x()).putFloat(dimensions.y())
+                .putFloat(velocity.x()).putFloat(velocity.y());
+    }
+
+    private static void readBody(ByteBuffer in, GameObject body) {
+        float centerX = in.getFloat();
+        float centerY = in.getFloat();
+        body.setDimensions(new Vector2(in.getFloat(), in.getFloat()));
+        body.setCenter(new Vector2(centerX, centerY));
+        body.setVelocity(new Vector2(in.getFloat(), in.getFloat()));
+    }
+
+    private static ByteBuffer grow(ByteBuffer current, int bytes) {
+        return ByteBuffer.allocate(Math.max(bytes, current.capacity() * 2));
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + BITS_IN_WORD - 1) / BITS_IN_WORD;
+    }
+}
@@ -0,0 +1,180 @@
+package bricker.main;
+
+import bricker.diagnostics.FlightRecording;
+import bricker.diagnostics.TraceRecorder;
+import bricker.diagnostics.FrameEvent;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The HeadlessSessionDriver class runs many independent {@link GameSession}s in one JVM
+ * without a window, each stepped on its own virtual thread with a fixed time step.
+ * It is meant for validating submitted scores and running bot tournaments, and reports the
+ * throughput as the number of real-time sessions a single core can sustain.
+ *
+ * Usage: HeadlessSessionDriver [sessions] [frames per session] [rows] [columns] [--jfr[=file]]
+ */
+public class HeadlessSessionDriver {
+
+    private static final int DEFAULT_SESSIONS_NUM = 1000;
+    private static final int DEFAULT_FRAMES_NUM = 3600;
+    private static final int DEFAULT_BRICKS_ROWS_NUM = 7;
+    private static final int DEFAULT_BRICKS_COLS_NUM = 8;
+    private static final int TARGET_FRAME_RATE = 60;
+    private static final float FRAME_DELTA = 1f / TARGET_FRAME_RATE;
+    private static final Vector2 GAME_DIMENSIONS = new Vector2(700, 500);
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+    private static final String REPORT_MSG =
+            "%d sessions, %d frames in %.3f s: %.0f frames/s, %.1f real-time sessions per core%n";
+
+    private final GameObjectCollection gameObjects;
+    private final ParallelUpdatePhase updatePhase;
+    private final GameSession session;
+
+    /**
+     * Constructs a headless session updated on the calling thread.
+     *
+     * @param seed          The seed of the session's random source.
+     * @param bricksRowsNum The number of rows of bricks.
+     * @param bricksColsNum The number of bricks in a row.
+     */
+    public HeadlessSessionDriver(long seed, int bricksRowsNum, int bricksColsNum) {
+        this(seed, bricksRowsNum, bricksColsNum, null);
+    }
+
+    /**
+     * Constructs a headless session whose balls and hearts are updated on a fork/join pool.
+     *
+     * @param seed          The seed of the session's random source.
+     * @param bricksRowsNum The number of rows of bricks.
+     * @param bricksColsNum The number of bricks in a row.
+     * @param updatePool    The pool updating the falling objects, or null to update them on
+     *                      the calling thread.
+     */
+    public HeadlessSessionDriver(long seed, int bricksRowsNum, int bricksColsNum,
+                                 ForkJoinPool updatePool) {
+        gameObjects = new GameObjectCollection();
+        updatePhase = new ParallelUpdatePhase(gameObjects, updatePool);
+        session = new GameSession(gameObjects,
+                GameAssets.headless(),
+                GAME_DIMENSIONS,
+                bricksRowsNum,
+                bricksColsNum,
+                new Random(seed),
+                null,
+                camera -> { },
+                null);
+        session.buildBoard(Long.MAX_VALUE);
+    }
+
+    /**
+     * Advances the session by one frame: the physics step of its game objects followed by the
+     * game rules. A finished game is restarted in place.
+     *
+     * @param deltaTime The simulated time of the frame.
+     * @return The state of the game after the frame, before any restart.
+     */
+    public GameSession.Outcome step(float deltaTime) {
+        FrameEvent frameEvent = FlightRecording.isRecordingFrames() ? new FrameEvent() : null;
+        boolean recording = frameEvent != null;
+        if (recording) {
+            frameEvent.begin();
+        }
+        long physicsStart = recording ? System.nanoTime() : 0;
+        long tracePhysicsStart = TraceRecorder.now();
+        updatePhase.update(deltaTime);
+        TraceRecorder.complete(TraceRecorder.PHYSICS, tracePhysicsStart);
+        long collisionsStart = recording ? System.nanoTime() : 0;
+        long traceCollisionsStart = TraceRecorder.now();
+        gameObjects.handleCollisions();
+        TraceRecorder.complete(TraceRecorder.COLLISIONS, traceCollisionsStart);
+        long rulesStart = recording ? System.nanoTime() : 0;
+        long traceRulesStart = TraceRecorder.now();
+        GameSession.Outcome outcome = session.update(deltaTime);
+        TraceRecorder.complete(TraceRecorder.RULES, traceRulesStart);
+        TraceRecorder.complete(TraceRecorder.FRAME, tracePhysicsStart);
+        if (recording && frameEvent.shouldCommit()) {
+            frameEvent.physicsDuration = collisionsStart - physicsStart;
+            frameEvent.collisionsDuration = rulesStart - collisionsStart;
+            frameEvent.rulesDuration = System.nanoTime() - rulesStart;
+            frameEvent.countObjects(gameObjects);
+            frameEvent.commit();
+        }
+        if (outcome != GameSession.Outcome.PLAYING) {
+            session.resetInPlace();
+        }
+        return outcome;
+    }
+
+    /**
+     * Retrieves the session driven by this driver.
+     *
+     * @return The driven session.
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Runs headless sessions concurrently and reports their throughput.
+     *
+     * @param args Optionally the number of sessions, frames per session, rows and columns, and
+     *             --jfr or --jfr=file to record flight data, and --trace or --trace=file to
+     *             record a timeline.
+     * @throws InterruptedException If interrupted while waiting for the sessions.
+     * @throws ExecutionException   If a session failed.
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        List<String> numbers = new ArrayList<>();
+        for (String arg : args) {
+            if (FlightRecording.isRecordingArg(arg)) {
+                FlightRecording.start(arg);
+            } else if (TraceRecorder.isTracingArg(arg)) {
+                TraceRecorder.start(arg);
+            } else {
+                numbers.add(arg);
+            }
+        }
+        int sessionsNum = numbers.size() > 0 ? Integer.parseInt(numbers.get(0)) : DEFAULT_SESSIONS_NUM;
+        int framesNum = numbers.size() > 1 ? Integer.parseInt(numbers.get(1)) : DEFAULT_FRAMES_NUM;
+        int bricksRowsNum = numbers.size() > 2 ?
+                Integer.parseInt(numbers.get(2)) : DEFAULT_BRICKS_ROWS_NUM;
+        int bricksColsNum = numbers.size() > 3 ?
+                Integer.parseInt(numbers.get(3)) : DEFAULT_BRICKS_COLS_NUM;
+
+        long startTime = System.nanoTime();
+        List<Future<?>> sessions = new ArrayList<>(sessionsNum);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessionsNum; i++) {
+                long seed = i;
+                sessions.add(executor.submit(() -> {
+                    HeadlessSessionDriver driver =
+                            new HeadlessSessionDriver(seed, bricksRowsNum, bricksColsNum);
+                    for (int frame = 0; frame < framesNum; frame++) {
+                        driver.step(FRAME_DELTA);
+                        // Let the other sessions on this carrier thread take their turn.
+                        Thread.yield();
+                    }
+                }));
+            }
+            for (Future<?> session : sessions) {
+                session.get();
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / NANOS_IN_SECOND;
+        long totalFrames = (long) sessionsNum * framesNum;
+        double framesPerSecond = totalFrames / seconds;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf(REPORT_MSG, sessionsNum, totalFrames, seconds, framesPerSecond,
+                framesPerSecond / TARGET_FRAME_RATE / cores);
+    }
+}
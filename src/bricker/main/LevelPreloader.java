@@ -0,0 +1,162 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The LevelPreloader class builds the board of a campaign's next level on a background thread
+ * while the current level is played: it draws the strategy codes with a single-threaded
+ * {@link BoardGenerator}, so the game keeps the other cores, and creates every brick with its
+ * strategy. At the end of the level the finished board is taken whole and swapped in.
+ *
+ * The board depends only on its seed, so a preloaded level is the same however long it took
+ * to build.
+ */
+class LevelPreloader {
+
+    private static final String THREAD_NAME = "Level preloader";
+    private static final String PRELOAD_FAILED_MSG = "Preloading the next level failed";
+
+    /**
+     * Creates a brick of a board without adding it to the game.
+     */
+    interface BrickFactory {
+        /**
+         * Creates a brick.
+         *
+         * @param brickIndex    The index of the brick in row-major order.
+         * @param strategyCode  The brick's strategy code.
+         * @return The brick.
+         */
+        Brick createBrick(int brickIndex, short strategyCode);
+    }
+
+    /**
+     * A board built ahead of its level.
+     */
+    static final class PreparedBoard {
+        private final short[] strategyCodes;
+        private final Brick[] bricks;
+
+        private PreparedBoard(short[] strategyCodes, Brick[] bricks) {
+            this.strategyCodes = strategyCodes;
+            this.bricks = bricks;
+        }
+
+        /**
+         * Retrieves the strategy codes of the board.
+         *
+         * @return The strategy code of every brick, in row-major order.
+         */
+        short[] getStrategyCodes() {
+            return strategyCodes;
+        }
+
+        /**
+         * Retrieves the bricks of the board.
+         *
+         * @return The bricks, in row-major order, none of them in the game yet.
+         */
+        Brick[] getBricks() {
+            return bricks;
+        }
+    }
+
+    private final int bricksNum;
+    private final BoardGenerator boardGenerator;
+    private final BrickFactory brickFactory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private Future<PreparedBoard> pendingBoard;   // The board being built, or null.
+
+    /**
+     * Constructs a new LevelPreloader.
+     *
+     * @param bricksRowsNum The number of rows of bricks.
+     * @param bricksColsNum The number of bricks in a row.
+     * @param brickFactory  Creates the bricks; called on the background thread.
+     */
+    LevelPreloader(int bricksRowsNum, int bricksColsNum, BrickFactory brickFactory) {
+        this.bricksNum = bricksRowsNum * bricksColsNum;
+        this.boardGenerator = new BoardGenerator(bricksRowsNum, bricksColsNum, null);
+        this.brickFactory = brickFactory;
+    }
+
+    /**
+     * Starts building a board in the background.
+     *
+     * @param seed The seed of the board.
+     */
+    void preload(long seed) {
+        pendingBoard = executor.submit(() -> build(seed));
+    }
+
+    /**
+     * Checks if a board was asked for and not taken yet.
+     *
+     * @return True if a board is being built or ready.
+     */
+    boolean hasPending() {
+        return pendingBoard != null;
+    }
+
+    /**
+     * Checks if the board asked for is finished.
+     *
+     * @return True if taking the board will not wait.
+     */
+    boolean isReady() {
+        return pendingBoard != null && pendingBoard.isDone();
+    }
+
+    /**
+     * Takes the board asked for, waiting for it if it is not finished.
+     *
+     * @return The board.
+     * @throws IllegalStateException If no board was asked for or building it failed.
+     */
+    PreparedBoard take() {
+        if (pendingBoard == null) {
+            throw new IllegalStateException(PRELOAD_FAILED_MSG);
+        }
+        try {
+            return pendingBoard.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(PRELOAD_FAILED_MSG, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(PRELOAD_FAILED_MSG, e);
+        } finally {
+            pendingBoard = null;
+        }
+    }
+
+    /**
+     * Discards the board asked for, stopping its building if it has not started.
+     */
+    void discard() {
+        if (pendingBoard != null) {
+            pendingBoard.cancel(false);
+            pendingBoard = null;
+        }
+    }
+
+    /**
+     * Builds a board on the background thread.
+     */
+    private PreparedBoard build(long seed) {
+        short[] strategyCodes = new short[bricksNum];
+        Brick[] bricks = new Brick[bricksNum];
+        boardGenerator.generate(seed, strategyCodes,
+                brickIndex -> bricks[brickIndex] = brickFactory.createBrick(brickIndex, strategyCodes[brickIndex]));
+        return new PreparedBoard(strategyCodes, bricks);
+    }
+}
@@ -0,0 +1,122 @@
+package bricker.main;
+
+import bricker.gameobjects.BasicBall;
+import bricker.gameobjects.Heart;
+import bricker.utils.GameObjectCommandBuffer;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Vector2;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The ParallelUpdateBenchmark class measures the {@link ParallelUpdatePhase} on a collection of
+ * thousands of balls and falling hearts, from one thread up to the number of cores. For every
+ * thread count it prints the time per frame, the speedup over one thread, and whether the final
+ * state is bit-identical to the single-threaded run.
+ *
+ * Usage: ParallelUpdateBenchmark [balls] [frames]
+ */
+public class ParallelUpdateBenchmark {
+
+    private static final int DEFAULT_BALLS_NUM = 20_000;
+    private static final int DEFAULT_FRAMES_NUM = 600;
+    private static final int HEARTS_PER_BALLS = 4;   // One heart for this many balls.
+    private static final long SEED = 1;
+    private static final float FRAME_DELTA = 1f / 60;
+    private static final Vector2 GAME_DIMENSIONS = new Vector2(700, 500);
+    private static final Vector2 BALL_SIZE = new Vector2(15, 15);
+    private static final Vector2 HEART_SIZE = new Vector2(15, 15);
+    private static final Vector2 HEART_VELOCITY = new Vector2(0, 100);
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final String HEADER_MSG = "%d balls, %d hearts, %d frames%n";
+    private static final String RESULT_MSG =
+            "%2d threads: %8.3f ms per frame, speedup %5.2f, bit-identical: %b%n";
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optionally the number of balls and the number of frames.
+     */
+    public static void main(String[] args) {
+        int ballsNum = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BALLS_NUM;
+        int framesNum = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FRAMES_NUM;
+        System.out.printf(HEADER_MSG, ballsNum, ballsNum / HEARTS_PER_BALLS, framesNum);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double singleThreadMillis = 0;
+        long singleThreadHash = 0;
+        for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores)) {
+            ForkJoinPool pool = threads == 1 ? null : new ForkJoinPool(threads);
+            GameObjectCollection gameObjects = createObjects(ballsNum);
+            ParallelUpdatePhase updatePhase = new ParallelUpdatePhase(gameObjects, pool);
+
+            long startTime = System.nanoTime();
+            for (int frame = 0; frame < framesNum; frame++) {
+                updatePhase.update(FRAME_DELTA);
+            }
+            double millisPerFrame = (System.nanoTime() - startTime) / NANOS_IN_MILLI / framesNum;
+            long hash = hashState(gameObjects);
+            if (pool != null) {
+                pool.shutdown();
+            }
+
+            if (threads == 1) {
+                singleThreadMillis = millisPerFrame;
+                singleThreadHash = hash;
+            }
+            System.out.printf(RESULT_MSG, threads, millisPerFrame,
+                    singleThreadMillis / millisPerFrame, hash == singleThreadHash);
+        }
+    }
+
+    /**
+     * Doubles the thread count, ending with exactly the number of cores.
+     */
+    private static int nextThreadCount(int threads, int cores) {
+        if (threads == cores) {
+            return cores + 1;
+        }
+        return Math.min(threads * 2, cores);
+    }
+
+    /**
+     * Creates balls moving in random directions and hearts falling among them.
+     */
+    private static GameObjectCollection createObjects(int ballsNum) {
+        Random random = new Random(SEED);
+        GameObjectCollection gameObjects = new GameObjectCollection();
+        GameObjectCommandBuffer commands = new GameObjectCommandBuffer(gameObjects);
+        for (int i = 0; i < ballsNum; i++) {
+            Vector2 topLeftCorner = new Vector2(random.nextFloat() * GAME_DIMENSIONS.x(),
+                    random.nextFloat() * GAME_DIMENSIONS.y());
+            BasicBall ball = new BasicBall(topLeftCorner, BALL_SIZE, null, GAME_DIMENSIONS, null);
+            ball.setRandomVelocity(random);
+            gameObjects.addGameObject(ball);
+            if (i % HEARTS_PER_BALLS == 0) {
+                Heart heart = new Heart(topLeftCorner, HEART_SIZE, null, commands,
+                        GAME_DIMENSIONS, null, null);
+                heart.setVelocity(HEART_VELOCITY);
+                gameObjects.addGameObject(heart);
+            }
+        }
+        return gameObjects;
+    }
+
+    /**
+     * Hashes the exact bits of every object's position and velocity, in collection order.
+     */
+    private static long hashState(GameObjectCollection gameObjects) {
+        long hash = 1;
+        for (GameObject gameObject : gameObjects) {
+            Vector2 center = gameObject.getCenter();
+            Vector2 velocity = gameObject.getVelocity();
+            hash = 31 * hash + Float.floatToRawIntBits(center.x());
+            hash = 31 * hash + Float.floatToRawIntBits(center.y());
+            hash = 31 * hash + Float.floatToRawIntBits(velocity.x());
+            hash = 31 * hash + Float.floatToRawIntBits(velocity.y());
+        }
+        return hash;
+    }
+}
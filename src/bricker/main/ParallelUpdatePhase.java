@@ -0,0 +1,113 @@
+package bricker.main;
+
+import bricker.gameobjects.FallingObject;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ParallelUpdatePhase class runs the update walk of a game object collection, splitting
+ * the falling objects, balls and hearts, across a fork/join pool.
+ *
+ * The objects are updated in collection order, as the window's game loop does. Falling objects
+ * only change their own state when updated, so each run of consecutive falling objects is
+ * updated concurrently; the other objects, such as paddles that may follow a ball, are updated
+ * on the calling thread between the runs, and see every object before them already updated and
+ * every object after them not yet. Nothing is added to or removed from the collection during the
+ * phase: fallen objects are removed by the session afterwards, in collection order. The results
+ * are therefore bit-identical to the window's loop whatever the number of threads.
+ */
+public class ParallelUpdatePhase {
+
+    private static final int SPLIT_THRESHOLD = 256;   // Objects updated by a task without forking.
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final GameObjectCollection gameObjects;
+    private final ForkJoinPool pool;
+    private GameObject[] objects = new GameObject[INITIAL_CAPACITY];
+
+    /**
+     * Constructs a new ParallelUpdatePhase instance.
+     *
+     * @param gameObjects The collection whose objects are updated.
+     * @param pool        The pool updating the falling objects. Can be null, in which case
+     *                    every object is updated on the calling thread.
+     */
+    public ParallelUpdatePhase(GameObjectCollection gameObjects, ForkJoinPool pool) {
+        this.gameObjects = gameObjects;
+        this.pool = pool;
+    }
+
+    /**
+     * Updates every object of the collection, in collection order.
+     *
+     * @param deltaTime The time elapsed since the last update.
+     */
+    public void update(float deltaTime) {
+        int count = 0;
+        for (GameObject gameObject : gameObjects) {
+            if (count == objects.length) {
+                objects = Arrays.copyOf(objects, count * 2);
+            }
+            objects[count++] = gameObject;
+        }
+
+        int i = 0;
+        while (i < count) {
+            if (!(objects[i] instanceof FallingObject)) {
+                objects[i++].update(deltaTime);
+                continue;
+            }
+            int runEnd = i + 1;
+            while (runEnd < count && objects[runEnd] instanceof FallingObject) {
+                runEnd++;
+            }
+            if (pool == null || runEnd - i <= SPLIT_THRESHOLD) {
+                updateRange(objects, i, runEnd, deltaTime);
+            } else {
+                pool.invoke(new UpdateTask(i, runEnd, deltaTime));
+            }
+            i = runEnd;
+        }
+
+        Arrays.fill(objects, 0, count, null);
+    }
+
+    /**
+     * Updates a range of objects in order.
+     */
+    private static void updateRange(GameObject[] objects, int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            objects[i].update(deltaTime);
+        }
+    }
+
+    /**
+     * Updates a run of falling objects, halving it until it is small enough.
+     */
+    @SuppressWarnings("serial")   // Tasks are forked, never serialized.
+    private class UpdateTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final float deltaTime;
+
+        UpdateTask(int from, int to, float deltaTime) {
+            this.from = from;
+            this.to = to;
+            this.deltaTime = deltaTime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                updateRange(objects, from, to, deltaTime);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new UpdateTask(from, middle, deltaTime), new UpdateTask(middle, to, deltaTime));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package bricker.main;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The PipelinedSimulation class steps the game on a simulation thread while the window's
+ * thread renders the previous frame, so a frame takes about as long as the slower of the two
+ * instead of their sum.
+ *
+ * At the end of every step the simulation thread captures a {@link FrameSnapshot} of what the
+ * frame shows and publishes it through a lock-free triple buffer: the simulation writes the
+ * back snapshot, swaps it with the middle one and marks it fresh, and the renderer swaps the
+ * middle one into the front when it is fresh. Neither side ever waits for the other to draw
+ * or capture. The window's thread hands a step over and takes its outcome back through a
+ * single atomic state, and changes the game itself only between steps.
+ */
+class PipelinedSimulation {
+
+    /**
+     * Advances the game by one frame.
+     */
+    interface Step {
+        /**
+         * Advances the game by one frame.
+         *
+         * @param deltaTime The duration of the frame.
+         * @return The outcome of the frame.
+         */
+        GameSession.Outcome step(float deltaTime);
+    }
+
+    private static final String THREAD_NAME = "Simulation";
+    private static final String STEP_FAILED_MSG = "The simulation step failed";
+    private static final String NOT_STEPPING_MSG = "No step was submitted";
+    private static final int IDLE = 0;
+    private static final int REQUESTED = 1;
+    private static final int DONE = 2;
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;     // Set on the middle index when it holds a new frame.
+
+    private final Step step;
+    private final Consumer<FrameSnapshot> capture;
+    private final Thread thread;
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    private final FrameSnapshot[] snapshots = {new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot()};
+    private final AtomicInteger middleIndex = new AtomicInteger(1);
+    private int backIndex = 0;          // Written by the thread capturing.
+    private int frontIndex = 2;         // Drawn by the renderer.
+    private boolean hasFront;           // False until the renderer takes the first snapshot.
+    private Thread waiter;              // The thread waiting for the step.
+    // Handed over through the state, which orders them between the threads.
+    private float deltaTime;
+    private GameSession.Outcome outcome;
+    private long stepNanos;
+    private Throwable failure;
+
+    /**
+     * Constructs a new PipelinedSimulation and starts its thread.
+     *
+     * @param step    Advances the game by one frame; called on the simulation thread.
+     * @param capture Captures the game into a snapshot; called by the thread that changed it.
+     */
+    PipelinedSimulation(Step step, Consumer<FrameSnapshot> capture) {
+        this.step = step;
+        this.capture = capture;
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts stepping the game on the simulation thread. The game must not be changed until
+     * the step is awaited.
+     *
+     * @param deltaTime The duration of the frame.
+     */
+    void submit(float deltaTime) {
+        this.deltaTime = deltaTime;
+        waiter = Thread.currentThread();
+        state.set(REQUESTED);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Checks if a step was submitted and not awaited yet.
+     *
+     * @return True if a step is running or finished.
+     */
+    boolean isStepping() {
+        return state.get() != IDLE;
+    }
+
+    /**
+     * Waits for the submitted step to finish.
+     *
+     * @return The outcome of the step.
+     * @throws IllegalStateException If no step was submitted or the step failed.
+     */
+    GameSession.Outcome awaitStep() {
+        if (state.get() == IDLE) {
+            throw new IllegalStateException(NOT_STEPPING_MSG);
+        }
+        while (state.get() != DONE) {
+            LockSupport.park(this);
+        }
+        state.set(IDLE);
+        if (failure != null) {
+            Throwable stepFailure = failure;
+            failure = null;
+            throw new IllegalStateException(STEP_FAILED_MSG, stepFailure);
+        }
+        return outcome;
+    }
+
+    /**
+     * Retrieves how long the last awaited step took, without capturing its snapshot.
+     *
+     * @return The duration of the step in nanoseconds.
+     */
+    long getLastStepNanos() {
+        return stepNanos;
+    }
+
+    /**
+     * Captures and publishes the game as it is, for frames the window's thread changed without
+     * a step. Must not be called while a step is running.
+     */
+    void captureSnapshot() {
+        publish();
+    }
+
+    /**
+     * Retrieves the newest published snapshot. Called by the renderer only; the snapshot stays
+     * unchanged until the next call.
+     *
+     * @return The snapshot, or null if none was published yet.
+     */
+    FrameSnapshot latestSnapshot() {
+        if ((middleIndex.get() & FRESH) != 0) {
+            frontIndex = middleIndex.getAndSet(frontIndex) & INDEX_MASK;
+            hasFront = true;
+        }
+        return hasFront ? snapshots[frontIndex] : null;
+    }
+
+    /**
+     * Captures the game into the back snapshot and swaps it into the middle.
+     */
+    private void publish() {
+        capture.accept(snapshots[backIndex]);
+        backIndex = middleIndex.getAndSet(backIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Runs the steps handed over until the game exits.
+     */
+    private void run() {
+        while (true) {
+            while (state.get() != REQUESTED) {
+                LockSupport.park(this);
+            }
+            try {
+                long startTime = System.nanoTime();
+                outcome = step.step(deltaTime);
+                stepNanos = System.nanoTime() - startTime;
+                publish();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+            state.set(DONE);
+            LockSupport.unpark(waiter);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bricker.main;
+
+import bricker.diagnostics.GameMetrics;
+import bricker.utils.ExtraBallsLimit;
+import bricker.utils.WindowedBudget;
+
+/**
+ * The QualityGovernor class keeps a {@link GameSession}'s frames within a time budget by
+ * degrading what the player notices least, one step at a time and always in the same order:
+ * 1. Ball collisions in the same frame play the collision sound once.
+ * 2. The decorative heart icons of the lives display are not drawn.
+ * 3. Strategies adding balls stop once a few extra balls are in the game.
+ * 4. The camera follows the ball every few frames instead of every frame.
+ * The steps are undone in the reverse order once the frames have headroom again.
+ *
+ * When to apply or undo a step is decided by a {@link WindowedBudget} on the frame times.
+ * Every decision is printed and published in the {@link GameMetrics}.
+ */
+public class QualityGovernor {
+
+    /**
+     * The level at which no step is applied.
+     */
+    public static final int FULL_QUALITY = 0;
+    private static final String[] LEVEL_NAMES = {
+            "full quality",
+            "merged collision sounds",
+            "no HUD decorations",
+            "capped extra balls",
+            "slower camera follow"
+    };
+    private static final int MAX_LEVEL = LEVEL_NAMES.length - 1;
+    private static final int MERGED_SOUNDS_LEVEL = 1;
+    private static final int HIDDEN_HUD_LEVEL = 2;
+    private static final int CAPPED_BALLS_LEVEL = 3;
+    private static final int SLOW_CAMERA_LEVEL = 4;
+    private static final int EXTRA_BALLS_CAP = 12;
+    private static final int SLOW_CAMERA_FOLLOW_INTERVAL = 4;     // Frames between camera moves.
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final String DEGRADED_MSG = "Quality degraded to level %d (%s): average frame %.3f ms, budget %.3f ms%n";
+    private static final String RESTORED_MSG = "Quality restored to level %d (%s): average frame %.3f ms, budget %.3f ms%n";
+
+    private final GameSession session;
+    private final WindowedBudget budget;
+    private int level = FULL_QUALITY;
+
+    /**
+     * Constructs a new QualityGovernor for a session at full quality.
+     *
+     * @param session     The governed session.
+     * @param budgetNanos The time a frame may take, in nanoseconds.
+     */
+    public QualityGovernor(GameSession session, long budgetNanos) {
+        this.session = session;
+        this.budget = new WindowedBudget(budgetNanos);
+        GameMetrics.recordQualityLevel(level, false);
+    }
+
+    /**
+     * Records the time a frame took, applying or undoing a step at the end of a window.
+     *
+     * @param frameNanos The time the frame took, in nanoseconds.
+     * @return True if the quality level changed.
+     */
+    public boolean recordFrame(long frameNanos) {
+        switch (budget.recordFrame(frameNanos, level < MAX_LEVEL, level > FULL_QUALITY)) {
+            case WindowedBudget.DEGRADE:
+                setLevel(level + 1, DEGRADED_MSG);
+                return true;
+            case WindowedBudget.RESTORE:
+                setLevel(level - 1, RESTORED_MSG);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Retrieves the current quality level.
+     *
+     * @return The number of steps applied, {@link #FULL_QUALITY} for none.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Applies the steps of a new level to the session, then logs and publishes the decision.
+     */
+    private void setLevel(int level, String message) {
+        this.level = level;
+        session.setCollisionSoundsMerged(level >= MERGED_SOUNDS_LEVEL);
+        session.setHudDecorationsVisible(level < HIDDEN_HUD_LEVEL);
+        int extraBallsCap = level >= CAPPED_BALLS_LEVEL ? EXTRA_BALLS_CAP : ExtraBallsLimit.UNLIMITED;
+        if (session.getExtraBallsCap() != extraBallsCap) {
+            session.setExtraBallsCap(extraBallsCap);
+        }
+        session.setCameraFollowInterval(level >= SLOW_CAMERA_LEVEL ? SLOW_CAMERA_FOLLOW_INTERVAL : 1);
+        System.out.printf(message, level, LEVEL_NAMES[level], budget.getLastAverageNanos() / NANOS_IN_MILLI,
+                budget.getBudgetNanos() / NANOS_IN_MILLI);
+        GameMetrics.recordQualityLevel(level, true);
+    }
+}
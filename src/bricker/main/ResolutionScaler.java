@@ -0,0 +1,112 @@
+package bricker.main;
+
+import bricker.diagnostics.GameMetrics;
+import bricker.utils.WindowedBudget;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * The ResolutionScaler class renders the playfield at a lower internal resolution when the
+ * window's frames take too long to draw. The scene is drawn to an offscreen buffer scaled
+ * down from the window, then stretched to the window in a single blit; the game objects stay
+ * in world coordinates, as the buffer's graphics context does the scaling.
+ *
+ * The scale is lowered or raised one step at a time as a {@link WindowedBudget} decides on the
+ * render times. At full scale the scene is drawn straight to the window. Every change is
+ * printed and published in the {@link GameMetrics}.
+ */
+public class ResolutionScaler {
+
+    private static final float[] SCALES = {1f, 0.85f, 0.7f, 0.5f};
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final String SCALE_MSG =
+            "Render scale %.2f (%d x %d): average render %.3f ms, budget %.3f ms%n";
+
+    private final Vector2 windowDimensions;
+    private final WindowedBudget budget;
+    private int scaleIndex;
+    private BufferedImage buffer;   // The offscreen playfield, or null at full scale.
+
+    /**
+     * Constructs a new ResolutionScaler at full scale.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param budgetNanos      The time a frame may take to render, in nanoseconds.
+     */
+    public ResolutionScaler(Vector2 windowDimensions, long budgetNanos) {
+        this.windowDimensions = windowDimensions;
+        this.budget = new WindowedBudget(budgetNanos);
+        GameMetrics.recordRenderScale(SCALES[scaleIndex]);
+    }
+
+    /**
+     * Renders a scene to the window at the current scale and adapts the scale to the time it
+     * took.
+     *
+     * @param g           The window's graphics context.
+     * @param renderScene Draws the scene in world coordinates on a graphics context.
+     */
+    public void render(Graphics2D g, Consumer<Graphics2D> renderScene) {
+        long startTime = System.nanoTime();
+        if (buffer == null) {
+            renderScene.accept(g);
+        } else {
+            Graphics2D bufferGraphics = buffer.createGraphics();
+            try {
+                bufferGraphics.clearRect(0, 0, buffer.getWidth(), buffer.getHeight());
+                bufferGraphics.scale(SCALES[scaleIndex], SCALES[scaleIndex]);
+                renderScene.accept(bufferGraphics);
+            } finally {
+                bufferGraphics.dispose();
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(buffer, 0, 0, (int) windowDimensions.x(), (int) windowDimensions.y(), null);
+        }
+        recordFrame(g, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Retrieves the current scale of the internal resolution.
+     *
+     * @return The scale, 1 for the window's resolution.
+     */
+    public float getScale() {
+        return SCALES[scaleIndex];
+    }
+
+    /**
+     * Records the time a frame took to render, changing the scale when the budget decides to.
+     */
+    private void recordFrame(Graphics2D g, long renderNanos) {
+        switch (budget.recordFrame(renderNanos, scaleIndex < SCALES.length - 1, scaleIndex > 0)) {
+            case WindowedBudget.DEGRADE:
+                setScale(g, scaleIndex + 1);
+                break;
+            case WindowedBudget.RESTORE:
+                setScale(g, scaleIndex - 1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Switches to a scale, allocating the offscreen buffer for it in the window's pixel format.
+     */
+    private void setScale(Graphics2D g, int scaleIndex) {
+        this.scaleIndex = scaleIndex;
+        float scale = SCALES[scaleIndex];
+        int width = (int) Math.ceil(windowDimensions.x() * scale);
+        int height = (int) Math.ceil(windowDimensions.y() * scale);
+        buffer = scaleIndex == 0 ? null :
+                g.getDeviceConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+        System.out.printf(SCALE_MSG, scale, width, height, budget.getLastAverageNanos() / NANOS_IN_MILLI,
+                budget.getBudgetNanos() / NANOS_IN_MILLI);
+        GameMetrics.recordRenderScale(scale);
+    }
+}
@@ -0,0 +1,388 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+import danogl.util.Counter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The RewindBuffer class records the last frames of play so they can be scrubbed back,
+ * to debug physics glitches such as double flips and balls escaping through walls.
+ *
+ * Frames are kept in a ring buffer preallocated to a fixed memory budget. Every
+ * keyframeInterval frames a full {@link GameStateSnapshot} is stored as a keyframe; the
+ * frames in between store only what changed since the previous frame:
+ * - the bricks destroyed during the frame, as varint gaps between their indices.
+ * - the dynamic state (balls, hearts, paddles, lives, camera), as runs of the bytes that
+ *   differ from the previous frame's dynamic state, each run prefixed by the varint number
+ *   of unchanged bytes before it and its own varint length.
+ *
+ * Seeking restores the nearest earlier keyframe and replays at most keyframeInterval deltas.
+ * When old frames are evicted, frames up to the next keyframe are evicted with them, so the
+ * oldest retained frame is always a keyframe.
+ */
+class RewindBuffer {
+
+    private static final byte KEYFRAME = 0;
+    private static final byte DELTA_FRAME = 1;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUE = 0x80;
+    private static final int BITS_IN_WORD = Long.SIZE;
+    private static final int WORD_INDEX_SHIFT = 6;
+    private static final int INITIAL_SCRATCH_BYTES = 1024;
+
+    private final GameStateSnapshot snapshot;
+    private final Brick[] bricks;
+    private final Counter bricksCounter;
+    private final int keyframeInterval;
+    private final int dynamicStateOffset;
+
+    // The ring of encoded frames and, per frame slot, where its record lies in the ring.
+    private final ByteBuffer ring;
+    private final int[] frameStart;
+    private final int[] frameLength;
+    private final boolean[] keyframe;
+    private int oldestSlot;
+    private int frameCount;
+    private int writePosition;
+
+    // What the next delta is computed against.
+    private final long[] aliveBits;
+    private byte[] previousDynamicState = new byte[INITIAL_SCRATCH_BYTES];
+    private int previousDynamicLength;
+    private int previousBricksCount;
+    private int framesSinceKeyframe;
+    private boolean keyframeNeeded = true;
+
+    // Scratch space, grown on demand and then reused.
+    private ByteBuffer record = ByteBuffer.allocate(INITIAL_SCRATCH_BYTES);
+    private ByteBuffer seekBuffer = ByteBuffer.allocate(INITIAL_SCRATCH_BYTES);
+    private byte[] frameBytes = new byte[INITIAL_SCRATCH_BYTES];
+    private int[] destroyedBricks = new int[INITIAL_SCRATCH_BYTES];
+    private int readPosition;
+
+    private long recordingNanos;
+    private long recordedFrames;
+
+    /**
+     * Constructs a new RewindBuffer instance.
+     *
+     * @param snapshot          Captures and restores the game state.
+     * @param bricks            The bricks of the board, in row-major order.
+     * @param bricksCounter     Counter for tracking the number of bricks.
+     * @param memoryBudget      The size of the ring buffer, in bytes.
+     * @param maxFrames         The maximal number of frames kept.
+     * @param keyframeInterval  The number of frames between keyframes.
+     */
+    RewindBuffer(GameStateSnapshot snapshot,
+                 Brick[] bricks,
+                 Counter bricksCounter,
+                 int memoryBudget,
+                 int maxFrames,
+                 int keyframeInterval) {
+        this.snapshot = snapshot;
+        this.bricks = bricks;
+        this.bricksCounter = bricksCounter;
+        this.keyframeInterval = keyframeInterval;
+        this.dynamicStateOffset = GameStateSnapshot.dynamicStateOffset(bricks.length);
+        ring = ByteBuffer.allocate(memoryBudget);
+        frameStart = new int[maxFrames];
+        frameLength = new int[maxFrames];
+        keyframe = new boolean[maxFrames];
+        aliveBits = new long[(bricks.length + BITS_IN_WORD - 1) / BITS_IN_WORD];
+    }
+
+    /**
+     * Records the current frame.
+     */
+    void recordFrame() {
+        long startTime = System.nanoTime();
+        if (keyframeNeeded || framesSinceKeyframe >= keyframeInterval || !encodeDelta()) {
+            encodeKeyframe();
+        }
+        append();
+        recordingNanos += System.nanoTime() - startTime;
+        recordedFrames++;
+    }
+
+    /**
+     * Restores the game to the frame before the newest recorded one and discards the newest
+     * frame, so calling this repeatedly scrubs back through the recorded history.
+     *
+     * @return True if the game was moved back a frame, false if no earlier frame is recorded.
+     */
+    boolean stepBack() {
+        if (frameCount < 2) {
+            return false;
+        }
+        seek(frameCount - 2);
+        return true;
+    }
+
+    /**
+     * Forgets all recorded frames, for when the game state jumps, such as on reset or restore.
+     */
+    void clear() {
+        frameCount = 0;
+        writePosition = 0;
+        keyframeNeeded = true;
+    }
+
+    /**
+     * Retrieves the average time spent recording a frame.
+     *
+     * @return The average recording time per frame, in nanoseconds.
+     */
+    double averageRecordingNanos() {
+        return recordedFrames == 0 ? 0 : (double) recordingNanos / recordedFrames;
+    }
+
+    /**
+     * Retrieves the number of recorded frames.
+     *
+     * @return The number of frames that can be scrubbed back.
+     */
+    int frameCount() {
+        return frameCount;
+    }
+
+    private void encodeKeyframe() {
+        ByteBuffer state = snapshot.capture();
+        int dynamicLength = state.limit() - dynamicStateOffset;
+        ensureRecordCapacity(Byte.BYTES + state.remaining());
+        record.clear();
+        record.put(KEYFRAME);
+        record.put(state.array(), state.arrayOffset(), state.limit());
+        record.flip();
+
+        for (int i = 0; i < aliveBits.length; i++) {
+            aliveBits[i] = state.getLong(GameStateSnapshot.bitsetOffset() + i * Long.BYTES);
+        }
+        rememberDynamicState(state.array(), state.arrayOffset() + dynamicStateOffset, dynamicLength);
+        previousBricksCount = bricksCounter.value();
+        framesSinceKeyframe = 0;
+        keyframeNeeded = false;
+    }
+
+    /**
+     * Encodes the current frame as a delta from the previous one.
+     *
+     * @return False if the frame cannot be expressed as a delta and needs a keyframe.
+     */
+    private boolean encodeDelta() {
+        int destroyedCount = 0;
+        if (bricksCounter.value() != previousBricksCount) {
+            for (int i = 0; i < bricks.length; i++) {
+                boolean wasAlive = (aliveBits[i >>> WORD_INDEX_SHIFT] & (1L << i)) != 0;
+                if (wasAlive != bricks[i].isActive()) {
+                    if (!wasAlive) {
+                        return false;
+                    }
+                    if (destroyedCount == destroyedBricks.length) {
+                        int[] grown = new int[destroyedBricks.length * 2];
+                        System.arraycopy(destroyedBricks, 0, grown, 0, destroyedCount);
+                        destroyedBricks = grown;
+                    }
+                    destroyedBricks[destroyedCount++] = i;
+                }
+            }
+        }
+        ByteBuffer dynamicState = snapshot.captureDynamicState();
+        byte[] current = dynamicState.array();
+        int currentOffset = dynamicState.arrayOffset();
+        int currentLength = dynamicState.limit();
+
+        // A run costs at most two bytes of varints per byte it covers.
+        ensureRecordCapacity(Byte.BYTES + (destroyedCount + 2) * Long.BYTES + currentLength * 4);
+        record.clear();
+        record.put(DELTA_FRAME);
+        putVarint(record, destroyedCount);
+        int previousIndex = 0;
+        for (int i = 0; i < destroyedCount; i++) {
+            putVarint(record, destroyedBricks[i] - previousIndex);
+            previousIndex = destroyedBricks[i];
+            aliveBits[previousIndex >>> WORD_INDEX_SHIFT] &= ~(1L << previousIndex);
+        }
+        putVarint(record, currentLength);
+        int i = 0;
+        while (i < currentLength) {
+            int unchangedStart = i;
+            while (i < currentLength && i < previousDynamicLength &&
+                    current[currentOffset + i] == previousDynamicState[i]) {
+                i++;
+            }
+            int changedStart = i;
+            while (i < currentLength && (i >= previousDynamicLength ||
+                    current[currentOffset + i] != previousDynamicState[i])) {
+                i++;
+            }
+            putVarint(record, changedStart - unchangedStart);
+            putVarint(record, i - changedStart);
+            record.put(current, currentOffset + changedStart, i - changedStart);
+        }
+        record.flip();
+
+        rememberDynamicState(current, currentOffset, currentLength);
+        previousBricksCount = bricksCounter.value();
+        framesSinceKeyframe++;
+        return true;
+    }
+
+    private void append() {
+        int length = record.remaining();
+        if (length > ring.capacity()) {
+            clear();
+            return;
+        }
+        int start = writePosition;
+        if (start + length > ring.capacity()) {
+            // The frames left at the end of the ring are the oldest ones; drop them and wrap.
+            while (frameCount > 0 && frameStart[oldestSlot] >= writePosition) {
+                evictOldest();
+            }
+            start = 0;
+        }
+        while (frameCount > 0 && frameStart[oldestSlot] < start + length &&
+                start < frameStart[oldestSlot] + frameLength[oldestSlot]) {
+            evictOldest();
+        }
+        if (frameCount == frameStart.length) {
+            evictOldest();
+        }
+        if (frameCount == 0 && record.get(0) != KEYFRAME) {
+            // The delta lost its base; start the history over from the next frame.
+            keyframeNeeded = true;
+            writePosition = 0;
+            return;
+        }
+        ring.put(start, record, 0, length);
+        int slot = slotOf(frameCount);
+        frameStart[slot] = start;
+        frameLength[slot] = length;
+        keyframe[slot] = record.get(0) == KEYFRAME;
+        frameCount++;
+        writePosition = start + length;
+    }
+
+    private void evictOldest() {
+        do {
+            oldestSlot = (oldestSlot + 1) % frameStart.length;
+            frameCount--;
+        } while (frameCount > 0 && !keyframe[oldestSlot]);
+    }
+
+    /**
+     * Restores the game to a recorded frame and discards the frames after it.
+     *
+     * @param frame The index of the frame, 0 being the oldest retained one.
+     */
+    private void seek(int frame) {
+        int keyframeIndex = frame;
+        while (!keyframe[slotOf(keyframeIndex)]) {
+            keyframeIndex--;
+        }
+        int keySlot = slotOf(keyframeIndex);
+        int stateLength = frameLength[keySlot] - Byte.BYTES;
+        if (seekBuffer.capacity() < stateLength) {
+            seekBuffer = ByteBuffer.allocate(stateLength * 2);
+        }
+        seekBuffer.clear();
+        seekBuffer.put(0, ring, frameStart[keySlot] + Byte.BYTES, stateLength);
+        rememberDynamicState(seekBuffer.array(), dynamicStateOffset, stateLength - dynamicStateOffset);
+
+        for (int i = keyframeIndex + 1; i <= frame; i++) {
+            applyDelta(slotOf(i));
+        }
+
+        int stateEnd = dynamicStateOffset + previousDynamicLength;
+        if (seekBuffer.capacity() < stateEnd) {
+            ByteBuffer grown = ByteBuffer.allocate(stateEnd * 2);
+            grown.put(0, seekBuffer, 0, dynamicStateOffset);
+            seekBuffer = grown;
+        }
+        seekBuffer.put(dynamicStateOffset, previousDynamicState, 0, previousDynamicLength);
+        seekBuffer.position(0).limit(stateEnd);
+        snapshot.restore(seekBuffer);
+
+        for (int i = 0; i < aliveBits.length; i++) {
+            aliveBits[i] = seekBuffer.getLong(GameStateSnapshot.bitsetOffset() + i * Long.BYTES);
+        }
+        int slot = slotOf(frame);
+        frameCount = frame + 1;
+        writePosition = frameStart[slot] + frameLength[slot];
+        framesSinceKeyframe = frame - keyframeIndex;
+        previousBricksCount = bricksCounter.value();
+    }
+
+    private void applyDelta(int slot) {
+        int length = frameLength[slot];
+        if (frameBytes.length < length) {
+            frameBytes = new byte[length * 2];
+        }
+        ring.get(frameStart[slot], frameBytes, 0, length);
+        readPosition = Byte.BYTES;
+
+        int destroyedCount = getVarint();
+        int brickIndex = 0;
+        for (int i = 0; i < destroyedCount; i++) {
+            brickIndex += getVarint();
+            int wordOffset = GameStateSnapshot.bitsetOffset() + (brickIndex >>> WORD_INDEX_SHIFT) * Long.BYTES;
+            seekBuffer.putLong(wordOffset, seekBuffer.getLong(wordOffset) & ~(1L << brickIndex));
+        }
+
+        int dynamicLength = getVarint();
+        if (previousDynamicState.length < dynamicLength) {
+            byte[] grown = new byte[dynamicLength * 2];
+            System.arraycopy(previousDynamicState, 0, grown, 0, previousDynamicLength);
+            previousDynamicState = grown;
+        }
+        int position = 0;
+        while (position < dynamicLength) {
+            position += getVarint();
+            int changed = getVarint();
+            System.arraycopy(frameBytes, readPosition, previousDynamicState, position, changed);
+            readPosition += changed;
+            position += changed;
+        }
+        previousDynamicLength = dynamicLength;
+    }
+
+    private void rememberDynamicState(byte[] source, int offset, int length) {
+        if (previousDynamicState.length < length) {
+            previousDynamicState = new byte[length * 2];
+        }
+        System.arraycopy(source, offset, previousDynamicState, 0, length);
+        previousDynamicLength = length;
+    }
+
+    private void ensureRecordCapacity(int bytes) {
+        if (record.capacity() < bytes) {
+            record = ByteBuffer.allocate(Math.max(bytes, record.capacity() * 2));
+        }
+    }
+
+    private int slotOf(int frame) {
+        return (oldestSlot + frame) % frameStart.length;
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.put((byte) ((value & VARINT_PAYLOAD_MASK) | VARINT_CONTINUE));
+            value >>>= VARINT_PAYLOAD_BITS;
+        }
+        out.put((byte) value);
+    }
+
+    private int getVarint() {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = frameBytes[readPosition++];
+            value |= (current & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((current & VARINT_CONTINUE) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,48 @@
+package bricker.replay;
+
+/**
+ * The layout of a replay file shared by the {@link ReplayRecorder} and the {@link ReplayPlayer}.
+ *
+ * A replay starts with a header: the magic number, the format version, the session's seed, the
+ * number of rows and of bricks in a row, the window's width and height, whether the autopilot
+ * moved the paddles, and the number of levels of the campaign. Then come the events, each
+ * starting with a varint holding the number of frames since the previous event shifted left by
+ * EVENT_KIND_BITS, with the event's kind in the low bits, followed by its payload:
+ * - DIRECTION: the new paddle direction, as a zigzag varint.
+ * - DELTA_TIME: the new frame duration, as the four bytes of the float.
+ * - RESTART: nothing; the game was restarted in place.
+ * - CHECKPOINT: the eight bytes of the session's state hash.
+ * - END: nothing; the recording stopped.
+ * - EXTRA_BALLS_CAP: the new cap on the extra balls in the game, as a varint.
+ * - NEXT_LEVEL: nothing; the next level of the campaign was started.
+ * An event at frame f takes effect before frame f is stepped; frame 0 is the first playable frame.
+ */
+final class ReplayFormat {
+
+    static final int MAGIC = 0x42524B52;
+    // The version changes with every change to the simulation a replay re-runs, not only to
+    // the layout: 2 added the extra balls cap, 3 deferred spawns to the spawn budget and moved
+    // the paddle in the frame of its input, 4 added the campaign's levels, and 5 added the
+    // bricks widening the paddle.
+    static final byte VERSION = 5;
+    // The oldest version the player still reads; older replays drew their bricks without the
+    // widening power-up.
+    static final byte FIRST_VERSION = 5;
+
+    static final int EVENT_KIND_BITS = 3;
+    static final int EVENT_KIND_MASK = (1 << EVENT_KIND_BITS) - 1;
+    static final int DIRECTION = 0;
+    static final int DELTA_TIME = 1;
+    static final int RESTART = 2;
+    static final int CHECKPOINT = 3;
+    static final int END = 4;
+    static final int EXTRA_BALLS_CAP = 5;
+    static final int NEXT_LEVEL = 6;
+
+    static final int VARINT_PAYLOAD_BITS = 7;
+    static final int VARINT_PAYLOAD_MASK = 0x7F;
+    static final int VARINT_CONTINUE = 0x80;
+
+    private ReplayFormat() {
+    }
+}
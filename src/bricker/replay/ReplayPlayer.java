@@ -0,0 +1,184 @@
+package bricker.replay;
+
+import bricker.input.ScriptedPaddleInput;
+import bricker.main.GameAssets;
+import bricker.main.GameSession;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Vector2;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * The ReplayPlayer class re-simulates a replay recorded by the {@link ReplayRecorder} headless and
+ * as fast as the machine allows, stepping the session exactly as the window does and asserting
+ * at every checkpoint that the state is identical to the recorded one.
+ *
+ * Usage: ReplayPlayer [replay file]
+ */
+public class ReplayPlayer {
+
+    private static final Path DEFAULT_FILE = Path.of("bricker.replay");
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+    private static final String BAD_REPLAY_MSG = "Not a replay file of a supported version";
+    private static final String DIVERGED_MSG = "Replay diverged at frame %d: expected state %016x, got %016x";
+    private static final String RESULT_MSG =
+            "Replayed %d frames (%.1f s of play), %d checkpoints verified in %.1f ms, %.0fx real time%n";
+    private static final String INCOMPLETE_MSG = "The replay was not ended; verified up to its last checkpoint";
+    private static final String FAILED_MSG = "Replay failed: ";
+
+    private final DataInputStream in;
+    private final GameObjectCollection gameObjects = new GameObjectCollection();
+    private final ScriptedPaddleInput paddleInput = new ScriptedPaddleInput();
+    private final GameSession session;
+    private float deltaTime;
+    private int frame;
+    private int checkpointsNum;
+    private double playedSeconds;
+    private boolean ended;
+
+    /**
+     * Constructs a new ReplayPlayer, reading the replay's header and building its board.
+     *
+     * @param in The replay, positioned at its start.
+     * @throws IOException If the replay cannot be read.
+     * @throws IllegalArgumentException If the input is not a replay of a supported version.
+     */
+    public ReplayPlayer(DataInputStream in) throws IOException {
+        this.in = in;
+        if (in.readInt() != ReplayFormat.MAGIC) {
+            throw new IllegalArgumentException(BAD_REPLAY_MSG);
+        }
+        byte version = in.readByte();
+        if (version < ReplayFormat.FIRST_VERSION || version > ReplayFormat.VERSION) {
+            throw new IllegalArgumentException(BAD_REPLAY_MSG);
+        }
+        long seed = in.readLong();
+        int bricksRowsNum = in.readInt();
+        int bricksColsNum = in.readInt();
+        Vector2 windowDimensions = new Vector2(in.readFloat(), in.readFloat());
+        boolean autopilot = in.readBoolean();
+        int levelsNum = in.readInt();
+        session = new GameSession(gameObjects,
+                GameAssets.headless(),
+                windowDimensions,
+                bricksRowsNum,
+                bricksColsNum,
+                new Random(seed),
+                autopilot ? null : paddleInput,
+                camera -> { },
+                null);
+        session.playCampaign(levelsNum);
+        session.buildBoard(Long.MAX_VALUE);
+    }
+
+    /**
+     * Plays the whole replay.
+     *
+     * @return The number of frames played.
+     * @throws IOException If the replay cannot be read.
+     * @throws IllegalStateException If the state differs from a recorded checkpoint.
+     */
+    public int play() throws IOException {
+        while (!ended) {
+            int header;
+            try {
+                header = readVarint();
+            } catch (EOFException e) {
+                // The game was closed without ending the replay.
+                System.err.println(INCOMPLETE_MSG);
+                break;
+            }
+            int eventFrame = frame + (header >>> ReplayFormat.EVENT_KIND_BITS);
+            while (frame < eventFrame) {
+                step();
+            }
+            applyEvent(header & ReplayFormat.EVENT_KIND_MASK);
+        }
+        return frame;
+    }
+
+    /**
+     * Applies an event at the current frame.
+     */
+    private void applyEvent(int kind) throws IOException {
+        switch (kind) {
+            case ReplayFormat.DIRECTION:
+                int zigzag = readVarint();
+                paddleInput.setDirection((zigzag >>> 1) ^ -(zigzag & 1));
+                break;
+            case ReplayFormat.DELTA_TIME:
+                deltaTime = in.readFloat();
+                break;
+            case ReplayFormat.RESTART:
+                session.resetInPlace();
+                break;
+            case ReplayFormat.CHECKPOINT:
+                long expected = in.readLong();
+                long actual = session.stateHash();
+                if (actual != expected) {
+                    throw new IllegalStateException(String.format(DIVERGED_MSG, frame, expected, actual));
+                }
+                checkpointsNum++;
+                break;
+            case ReplayFormat.NEXT_LEVEL:
+                session.startNextLevel();
+                break;
+            case ReplayFormat.EXTRA_BALLS_CAP:
+                session.setExtraBallsCap(readVarint());
+                break;
+            default:
+                ended = true;
+        }
+    }
+
+    /**
+     * Steps one frame the way the window's game manager does: the update walk of the game
+     * objects in collection order, the collisions, and the game rules.
+     */
+    private void step() {
+        gameObjects.update(deltaTime);
+        gameObjects.handleCollisions();
+        session.update(deltaTime);
+        playedSeconds += deltaTime;
+        frame++;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & ReplayFormat.VARINT_PAYLOAD_MASK) << shift;
+            shift += ReplayFormat.VARINT_PAYLOAD_BITS;
+        } while ((b & ReplayFormat.VARINT_CONTINUE) != 0);
+        return value;
+    }
+
+    /**
+     * Plays a replay file and reports how fast it was re-simulated.
+     *
+     * @param args Optionally the replay file, bricker.replay by default.
+     */
+    public static void main(String[] args) {
+        Path path = args.length > 0 ? Path.of(args[0]) : DEFAULT_FILE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            long startTime = System.nanoTime();
+            ReplayPlayer player = new ReplayPlayer(in);
+            int framesNum = player.play();
+            long elapsed = System.nanoTime() - startTime;
+            System.out.printf(RESULT_MSG, framesNum, player.playedSeconds, player.checkpointsNum,
+                    elapsed / NANOS_IN_MILLI, player.playedSeconds * NANOS_IN_SECOND / elapsed);
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println(FAILED_MSG + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
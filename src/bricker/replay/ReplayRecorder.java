@@ -0,0 +1,319 @@
+package bricker.replay;
+
+import bricker.main.GameSession;
+import bricker.utils.ExtraBallsLimit;
+import danogl.util.Vector2;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The ReplayRecorder class records a game as its seed and the changes of its inputs, so the
+ * {@link ReplayPlayer} can re-simulate it exactly.
+ *
+ * The game thread encodes each event into a preallocated ring buffer and publishes it with a
+ * release store; a background writer thread drains the ring to the file. There are no locks and
+ * no allocations on the game thread, which only waits if the writer falls a whole ring behind.
+ * A frame whose inputs did not change costs a counter increment.
+ */
+public class ReplayRecorder implements AutoCloseable {
+
+    /**
+     * The command line argument asking for a replay, optionally followed by =file.
+     */
+    public static final String ARG = "--replay";
+    private static final String ARG_WITH_FILE = ARG + "=";
+    private static final Path DEFAULT_FILE = Path.of("bricker.replay");
+    private static final int RING_CAPACITY = 1 << 16;          // Bytes, a power of two.
+    private static final int RING_MASK = RING_CAPACITY - 1;
+    private static final int MAX_EVENT_BYTES = 16;
+    private static final long WRITER_PARK_NANOS = 1_000_000;    // The writer's idle wait.
+    private static final String WRITER_THREAD_NAME = "Replay writer";
+    private static final String WRITE_FAILED_MSG = "Replay writing failed: ";
+
+    private final Path path;
+    private final byte[] ring = new byte[RING_CAPACITY];
+    private final AtomicLong published = new AtomicLong();   // Bytes the game thread wrote.
+    private final AtomicLong drained = new AtomicLong();     // Bytes the writer wrote to the file.
+    private final byte[] event = new byte[MAX_EVENT_BYTES];  // The event being encoded.
+    private final OutputStream out;
+    private final Thread writer;
+    private volatile boolean closing;
+    private IOException writeFailure;
+
+    // Written by the game thread only.
+    private long position;
+    private int eventLength;
+    private int frame;
+    private int lastEventFrame;
+    private int lastDirection;
+    private float lastDeltaTime = Float.NaN;
+    private int lastExtraBallsCap = ExtraBallsLimit.UNLIMITED;
+    private boolean ended;
+
+    /**
+     * Checks if a command line argument asks for a replay.
+     *
+     * @param arg The argument.
+     * @return True for --replay and --replay=file.
+     */
+    public static boolean isRecordingArg(String arg) {
+        return arg.equals(ARG) || arg.startsWith(ARG_WITH_FILE);
+    }
+
+    /**
+     * Gets the file a replay argument names, bricker.replay by default.
+     *
+     * @param arg The --replay or --replay=file argument.
+     * @return The replay file.
+     */
+    public static Path pathOf(String arg) {
+        return arg.startsWith(ARG_WITH_FILE) ? Path.of(arg.substring(ARG_WITH_FILE.length())) : DEFAULT_FILE;
+    }
+
+    /**
+     * Constructs a new ReplayRecorder, writing the header and starting the writer thread.
+     *
+     * @param path             The replay file, overwritten if it exists.
+     * @param seed             The seed of the session's random source.
+     * @param bricksRowsNum    The number of rows of bricks.
+     * @param bricksColsNum    The number of bricks in a row.
+     * @param windowDimensions The dimensions of the game window.
+     * @param autopilot        True if the autopilot moves the paddles, in which case no
+     *                         directions are recorded.
+     * @param levelsNum        The number of levels of the session's campaign.
+     * @throws IOException If the file cannot be created.
+     */
+    public ReplayRecorder(Path path, long seed, int bricksRowsNum, int bricksColsNum,
+                          Vector2 windowDimensions, boolean autopilot, int levelsNum) throws IOException {
+        this.path = path;
+        out = new BufferedOutputStream(Files.newOutputStream(path));
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(ReplayFormat.MAGIC);
+        header.writeByte(ReplayFormat.VERSION);
+        header.writeLong(seed);
+        header.writeInt(bricksRowsNum);
+        header.writeInt(bricksColsNum);
+        header.writeFloat(windowDimensions.x());
+        header.writeFloat(windowDimensions.y());
+        header.writeBoolean(autopilot);
+        header.writeInt(levelsNum);
+        writer = new Thread(this::drain, WRITER_THREAD_NAME);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records the inputs of the frame about to be stepped, writing only what changed.
+     *
+     * @param deltaTime The duration of the frame.
+     * @param direction The paddle direction of the frame.
+     */
+    public void recordFrame(float deltaTime, int direction) {
+        if (ended) {
+            return;
+        }
+        if (Float.floatToRawIntBits(deltaTime) != Float.floatToRawIntBits(lastDeltaTime)) {
+            beginEvent(ReplayFormat.DELTA_TIME);
+            putInt(Float.floatToRawIntBits(deltaTime));
+            publishEvent();
+            lastDeltaTime = deltaTime;
+        }
+        if (direction != lastDirection) {
+            beginEvent(ReplayFormat.DIRECTION);
+            putVarint((direction << 1) ^ (direction >> (Integer.SIZE - 1)));
+            publishEvent();
+            lastDirection = direction;
+        }
+        frame++;
+    }
+
+    /**
+     * Records that the game was restarted in place after the last frame.
+     */
+    public void recordRestart() {
+        if (ended) {
+            return;
+        }
+        beginEvent(ReplayFormat.RESTART);
+        publishEvent();
+    }
+
+    /**
+     * Records that the next level of the campaign was started after the last frame.
+     */
+    public void recordNextLevel() {
+        if (ended) {
+            return;
+        }
+        beginEvent(ReplayFormat.NEXT_LEVEL);
+        publishEvent();
+    }
+
+    /**
+     * Records the cap on the extra balls in the game set after the last frame, if it changed.
+     *
+     * @param extraBallsCap The cap, or {@link ExtraBallsLimit#UNLIMITED}.
+     */
+    public void recordExtraBallsCap(int extraBallsCap) {
+        if (ended || extraBallsCap == lastExtraBallsCap) {
+            return;
+        }
+        beginEvent(ReplayFormat.EXTRA_BALLS_CAP);
+        putVarint(extraBallsCap);
+        publishEvent();
+        lastExtraBallsCap = extraBallsCap;
+    }
+
+    /**
+     * Records the state of the session after the last frame, for the player to check against.
+     *
+     * @param session The recorded session.
+     */
+    public void recordCheckpoint(GameSession session) {
+        if (ended) {
+            return;
+        }
+        beginEvent(ReplayFormat.CHECKPOINT);
+        long hash = session.stateHash();
+        putInt((int) (hash >>> Integer.SIZE));
+        putInt((int) hash);
+        publishEvent();
+    }
+
+    /**
+     * Records the end of the replay after a final checkpoint. Later calls record nothing, so
+     * the game can go on after something that cannot be replayed, such as rewinding.
+     *
+     * @param session The recorded session.
+     */
+    public void end(GameSession session) {
+        if (ended) {
+            return;
+        }
+        recordCheckpoint(session);
+        beginEvent(ReplayFormat.END);
+        publishEvent();
+        ended = true;
+    }
+
+    /**
+     * Retrieves the number of frames recorded.
+     *
+     * @return The number of recorded frames.
+     */
+    public int getFrameCount() {
+        return frame;
+    }
+
+    /**
+     * Retrieves the replay file.
+     *
+     * @return The file the replay is written to.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Waits for the writer to drain the ring and closes the file. A replay closed without
+     * {@link #end(GameSession)} can still be played up to its last checkpoint.
+     */
+    @Override
+    public void close() {
+        closing = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeFailure != null) {
+            System.err.println(WRITE_FAILED_MSG + writeFailure.getMessage());
+        }
+    }
+
+    /**
+     * Starts encoding an event at the current frame.
+     */
+    private void beginEvent(int kind) {
+        eventLength = 0;
+        putVarint(((frame - lastEventFrame) << ReplayFormat.EVENT_KIND_BITS) | kind);
+        lastEventFrame = frame;
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~ReplayFormat.VARINT_PAYLOAD_MASK) != 0) {
+            event[eventLength++] = (byte) ((value & ReplayFormat.VARINT_PAYLOAD_MASK) |
+                    ReplayFormat.VARINT_CONTINUE);
+            value >>>= ReplayFormat.VARINT_PAYLOAD_BITS;
+        }
+        event[eventLength++] = (byte) value;
+    }
+
+    private void putInt(int value) {
+        for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            event[eventLength++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Copies the encoded event into the ring and publishes it to the writer, waiting only if
+     * the ring is full.
+     */
+    private void publishEvent() {
+        while (position + eventLength - drained.get() > RING_CAPACITY) {
+            Thread.onSpinWait();
+        }
+        for (int i = 0; i < eventLength; i++) {
+            ring[(int) (position + i) & RING_MASK] = event[i];
+        }
+        position += eventLength;
+        published.lazySet(position);
+    }
+
+    /**
+     * The writer thread's loop: writes the published bytes to the file until closed.
+     */
+    private void drain() {
+        long drainedPosition = 0;
+        try {
+            while (true) {
+                boolean closed = closing;
+                long publishedPosition = published.get();
+                if (publishedPosition == drainedPosition) {
+                    if (closed) {
+                        break;
+                    }
+                    out.flush();
+                    LockSupport.parkNanos(WRITER_PARK_NANOS);
+                    continue;
+                }
+                int from = (int) drainedPosition & RING_MASK;
+                int length = (int) (publishedPosition - drainedPosition);
+                int firstPart = Math.min(length, RING_CAPACITY - from);
+                out.write(ring, from, firstPart);
+                out.write(ring, 0, length - firstPart);
+                drainedPosition = publishedPosition;
+                drained.lazySet(drainedPosition);
+            }
+        } catch (IOException e) {
+            writeFailure = e;
+            drained.set(Long.MAX_VALUE);   // Never leave the game thread waiting for the ring.
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (writeFailure == null) {
+                    writeFailure = e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package bricker.solver;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The LevelSolver class searches for the fastest way to clear a board, for validating generated
+ * levels and setting their par times. It runs a beam search over {@link SolverState} copies:
+ * every state of the beam is expanded by each paddle direction held for a few frames, the
+ * children are scored, and the best of them form the next beam, until a child clears the board.
+ *
+ * The children of a beam are expanded in parallel on a fork/join pool, each into its own slot,
+ * and ranked by a stable sort on their score and slot, so the solution is the same whatever the
+ * number of threads. The moves are kept as a chain of small nodes apart from the states, so the
+ * states of pruned branches can be collected.
+ *
+ * Usage: LevelSolver [seed] [rows] [columns] [beam width]
+ */
+public class LevelSolver {
+
+    private static final int[] DIRECTIONS = {-1, 0, 1};
+    private static final char[] DIRECTION_NAMES = {'L', '-', 'R'};
+    private static final int DEFAULT_BEAM_WIDTH = 512;
+    private static final int DEFAULT_BRICKS_ROWS_NUM = 7;
+    private static final int DEFAULT_BRICKS_COLS_NUM = 8;
+    private static final long DEFAULT_SEED = 1;
+    private static final float WINDOW_WIDTH = 700;
+    private static final float WINDOW_HEIGHT = 500;
+    private static final float FRAME_DELTA = 1f / 60;
+    private static final int FRAMES_PER_MOVE = 6;           // Frames a direction is held.
+    private static final int MAX_FRAMES = 60 * 60 * 10;     // Ten minutes of play.
+    private static final int SPLIT_THRESHOLD = 16;          // Beam states expanded without forking.
+    private static final double BRICK_SCORE = 1000;
+    private static final double LIFE_SCORE = 5000;
+    private static final double EXTRA_BALL_SCORE = 50;
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+    private static final double SECONDS_IN_MINUTE = 60;
+    private static final String HEADER_MSG =
+            "Solving seed %d: %d x %d bricks, beam width %d, %d threads%n";
+    private static final String SOLVED_MSG = "Cleared in %d frames (par %.2f s) with %d lives left%n";
+    private static final String UNSOLVED_MSG = "Not cleared within %d frames, best left %d bricks%n";
+    private static final String MOVES_MSG = "Moves, %d frames each: %s%n";
+    private static final String RATE_MSG = "%d nodes expanded in %.2f s: %.0f nodes per minute%n";
+
+    /**
+     * A move of a solution and the moves before it.
+     */
+    private static final class Move {
+        private final Move previous;
+        private final int directionIndex;
+
+        private Move(Move previous, int directionIndex) {
+            this.previous = previous;
+            this.directionIndex = directionIndex;
+        }
+    }
+
+    /**
+     * A state of the search with the moves leading to it and its score.
+     */
+    private static final class Node {
+        private final SolverState state;
+        private final Move move;
+        private final double score;
+        private final int slot;    // The node's position among its siblings, to break ties.
+
+        private Node(SolverState state, Move move, int slot) {
+            this.state = state;
+            this.move = move;
+            this.score = score(state);
+            this.slot = slot;
+        }
+    }
+
+    private static final Comparator<Node> BEST_FIRST =
+            Comparator.comparingDouble((Node node) -> -node.score).thenComparingInt(node -> node.slot);
+
+    private final int beamWidth;
+    private final ForkJoinPool pool;
+    private long nodesNum;
+
+    /**
+     * Constructs a new LevelSolver.
+     *
+     * @param beamWidth The number of states kept after every move.
+     * @param pool      The pool expanding the states. Can be null, in which case they are
+     *                  expanded on the calling thread.
+     */
+    public LevelSolver(int beamWidth, ForkJoinPool pool) {
+        this.beamWidth = beamWidth;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs the solver on a generated board and prints the par time, the moves and the number
+     * of nodes expanded per minute.
+     *
+     * @param args Optionally the seed of the board, its number of rows and of columns, and the
+     *             beam width.
+     */
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_SEED;
+        int rowsNum = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BRICKS_ROWS_NUM;
+        int colsNum = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BRICKS_COLS_NUM;
+        int beamWidth = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_BEAM_WIDTH;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.printf(HEADER_MSG, seed, rowsNum, colsNum, beamWidth, pool.getParallelism());
+
+        SolverBoard board = new SolverBoard(WINDOW_WIDTH, WINDOW_HEIGHT, rowsNum, colsNum, seed);
+        LevelSolver solver = new LevelSolver(beamWidth, pool);
+        long startTime = System.nanoTime();
+        Node best = solver.solve(new SolverState(board, seed));
+        double seconds = (System.nanoTime() - startTime) / NANOS_IN_SECOND;
+
+        SolverState state = best.state;
+        if (state.isCleared()) {
+            System.out.printf(SOLVED_MSG, state.getFrame(), state.getFrame() * FRAME_DELTA, state.getLives());
+            System.out.printf(MOVES_MSG, FRAMES_PER_MOVE, describeMoves(best.move));
+        } else {
+            System.out.printf(UNSOLVED_MSG, MAX_FRAMES, state.getBricksLeft());
+        }
+        System.out.printf(RATE_MSG, solver.nodesNum, seconds, solver.nodesNum / seconds * SECONDS_IN_MINUTE);
+    }
+
+    /**
+     * Searches for the fastest clear of the board from a state.
+     *
+     * @param start The state to start from, left unchanged.
+     * @return The node clearing the board first, or the best node found if none did in time.
+     */
+    private Node solve(SolverState start) {
+        Node[] beam = {new Node(start.copy(), null, 0)};
+        Node best = beam[0];
+        while (beam.length > 0 && beam[0].state.getFrame() < MAX_FRAMES) {
+            Node[] children = new Node[beam.length * DIRECTIONS.length];
+            if (pool == null || beam.length <= SPLIT_THRESHOLD) {
+                expand(beam, 0, beam.length, children);
+            } else {
+                pool.invoke(new ExpandTask(beam, 0, beam.length, children));
+            }
+            nodesNum += children.length;
+
+            Node cleared = null;
+            int aliveNum = 0;
+            for (Node child : children) {
+                // A child stops at the frame clearing the board, which may be before its move ends.
+                if (child.state.isCleared() &&
+                        (cleared == null || child.state.getFrame() < cleared.state.getFrame())) {
+                    cleared = child;
+                } else if (!child.state.isLost()) {
+                    children[aliveNum++] = child;
+                }
+            }
+            if (cleared != null) {
+                return cleared;
+            }
+            Arrays.sort(children, 0, aliveNum, BEST_FIRST);
+            beam = Arrays.copyOf(children, Math.min(aliveNum, beamWidth));
+            if (beam.length > 0 && beam[0].state.getBricksLeft() < best.state.getBricksLeft()) {
+                best = beam[0];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Expands a range of the beam, writing the children of each state to its own slots.
+     */
+    private static void expand(Node[] beam, int from, int to, Node[] children) {
+        for (int i = from; i < to; i++) {
+            Node parent = beam[i];
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                SolverState state = parent.state.copy();
+                for (int frame = 0; frame < FRAMES_PER_MOVE && !state.isCleared(); frame++) {
+                    state.step(DIRECTIONS[d], FRAME_DELTA);
+                }
+                int slot = i * DIRECTIONS.length + d;
+                children[slot] = new Node(state, new Move(parent.move, d), slot);
+            }
+        }
+    }
+
+    /**
+     * Scores a state: bricks broken first, then the lives kept and the extra balls in play,
+     * then how close the paddle is to where the main ball will come down.
+     */
+    private static double score(SolverState state) {
+        return -state.getBricksLeft() * BRICK_SCORE +
+                state.getLives() * LIFE_SCORE +
+                (state.getBallsNum() - 1) * EXTRA_BALL_SCORE -
+                Math.abs(state.predictMainBallLandingX() - state.getPaddleCenterX());
+    }
+
+    /**
+     * Describes the moves of a solution, runs of the same direction as the direction and its
+     * length, such as "R3 -2 L1".
+     */
+    private static String describeMoves(Move last) {
+        int movesNum = 0;
+        for (Move move = last; move != null; move = move.previous) {
+            movesNum++;
+        }
+        int[] directions = new int[movesNum];
+        for (Move move = last; move != null; move = move.previous) {
+            directions[--movesNum] = move.directionIndex;
+        }
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < directions.length; ) {
+            int runEnd = i;
+            while (runEnd < directions.length && directions[runEnd] == directions[i]) {
+                runEnd++;
+            }
+            if (description.length() > 0) {
+                description.append(' ');
+            }
+            description.append(DIRECTION_NAMES[directions[i]]).append(runEnd - i);
+            i = runEnd;
+        }
+        return description.toString();
+    }
+
+    /**
+     * Expands a range of the beam, halving it until it is small enough.
+     */
+    @SuppressWarnings("serial")   // Tasks are forked, never serialized.
+    private static class ExpandTask extends RecursiveAction {
+        private final Node[] beam;
+        private final int from;
+        private final int to;
+        private final Node[] children;
+
+        ExpandTask(Node[] beam, int from, int to, Node[] children) {
+            this.beam = beam;
+            this.from = from;
+            this.to = to;
+            this.children = children;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                expand(beam, from, to, children);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ExpandTask(beam, from, middle, children), new ExpandTask(beam, middle, to, children));
+        }
+    }
+}
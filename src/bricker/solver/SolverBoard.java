@@ -0,0 +1,193 @@
+package bricker.solver;
+
+import bricker.brick_strategies.BrickStrategyFactory;
+import bricker.main.BoardGenerator;
+
+/**
+ * The SolverBoard class holds what the solver's model of a level never changes: the layout of
+ * the window, walls, paddles and bricks, and the effects of every brick's strategy, decoded
+ * once from the board generated for a seed. The layout is the one a game session builds for the
+ * same window and board size. It is shared by every state of a search.
+ */
+public class SolverBoard {
+
+    static final float WALLS_THICK = 5f;
+    static final float BALL_SIZE = 20f;
+    static final float EXTRA_BALL_SIZE = BALL_SIZE * 0.75f;
+    static final float BALL_SPEED = 250f;
+    static final float PADDLE_WIDTH = 100f;
+    static final float PADDLE_HEIGHT = 15f;
+    static final float PADDLE_SPEED = 300f;
+    static final float PADDLE_MIN_DISTANCE_FROM_EDGE = 7f;
+    static final float PADDLE_DISTANCE_FROM_BOTTOM = 30f;
+    static final float HEART_SIZE = 15f;
+    static final float HEART_SPEED = 100f;
+    static final int INITIAL_LIVES = 3;
+    static final int MAX_LIVES = 4;
+    static final int BALLS_PER_EFFECT = 2;
+    static final int SECOND_PADDLE_HITS = 4;
+    static final int CAMERA_HITS = 4;
+    private static final float BRICK_HEIGHT = 15f;
+    private static final float BRICK_DISTANCE_FROM_WALLS = 20f;
+    private static final float BRICK_TO_BRICK_DISTANCE = 5f;
+    private static final int EFFECT_BITS = 6;   // Bits per effect kind in a packed brick effect.
+
+    private final float windowWidth;
+    private final float windowHeight;
+    private final int bricksRowsNum;
+    private final int bricksColsNum;
+    private final float brickWidth;
+    private final float bricksLeft;      // The left edge of the first column.
+    private final float bricksTop;       // The top edge of the first row.
+    private final int[] brickEffects;    // Effect counts per kind, EFFECT_BITS each, by brick.
+
+    /**
+     * Constructs a new SolverBoard for the board a seed generates.
+     *
+     * @param windowWidth    The width of the game window.
+     * @param windowHeight   The height of the game window.
+     * @param bricksRowsNum  The number of rows of bricks.
+     * @param bricksColsNum  The number of bricks in a row.
+     * @param seed           The seed of the board.
+     */
+    public SolverBoard(float windowWidth, float windowHeight, int bricksRowsNum, int bricksColsNum,
+                       long seed) {
+        this.windowWidth = windowWidth;
+        this.windowHeight = windowHeight;
+        this.bricksRowsNum = bricksRowsNum;
+        this.bricksColsNum = bricksColsNum;
+        brickWidth = (windowWidth - ((WALLS_THICK + BRICK_DISTANCE_FROM_WALLS) * 2 +
+                BRICK_TO_BRICK_DISTANCE * (bricksColsNum - 1))) / bricksColsNum;
+        bricksLeft = WALLS_THICK + BRICK_DISTANCE_FROM_WALLS;
+        bricksTop = WALLS_THICK + BRICK_DISTANCE_FROM_WALLS;
+
+        short[] strategyCodes = new short[bricksRowsNum * bricksColsNum];
+        new BoardGenerator(bricksRowsNum, bricksColsNum, null).generate(seed, strategyCodes, null);
+        brickEffects = new int[strategyCodes.length];
+        int[] effectCounts = new int[BrickStrategyFactory.EFFECT_KINDS_NUM];
+        for (int brick = 0; brick < strategyCodes.length; brick++) {
+            BrickStrategyFactory.countEffects(strategyCodes[brick], effectCounts);
+            int packed = 0;
+            for (int kind = 0; kind < effectCounts.length; kind++) {
+                packed |= effectCounts[kind] << (kind * EFFECT_BITS);
+            }
+            brickEffects[brick] = packed;
+        }
+    }
+
+    /**
+     * Retrieves the number of bricks of the board.
+     *
+     * @return The number of bricks.
+     */
+    public int getBricksNum() {
+        return brickEffects.length;
+    }
+
+    /**
+     * Retrieves the width of the game window.
+     *
+     * @return The width.
+     */
+    float getWindowWidth() {
+        return windowWidth;
+    }
+
+    /**
+     * Retrieves the height of the game window.
+     *
+     * @return The height.
+     */
+    float getWindowHeight() {
+        return windowHeight;
+    }
+
+    /**
+     * Retrieves the number of rows of bricks.
+     *
+     * @return The number of rows.
+     */
+    int getBricksRowsNum() {
+        return bricksRowsNum;
+    }
+
+    /**
+     * Retrieves the number of bricks in a row.
+     *
+     * @return The number of columns.
+     */
+    int getBricksColsNum() {
+        return bricksColsNum;
+    }
+
+    /**
+     * Retrieves how many effects of a kind a brick applies when broken.
+     *
+     * @param brick The index of the brick in row-major order.
+     * @param kind  The effect kind, one of the {@link BrickStrategyFactory} effect constants.
+     * @return The number of effects.
+     */
+    int getEffectCount(int brick, int kind) {
+        return (brickEffects[brick] >>> (kind * EFFECT_BITS)) & ((1 << EFFECT_BITS) - 1);
+    }
+
+    /**
+     * Finds the column whose bricks span an x coordinate, or the nearest one.
+     *
+     * @param x The x coordinate.
+     * @return The column, clamped to the board.
+     */
+    int columnAt(float x) {
+        int col = (int) Math.floor((x - bricksLeft) / (brickWidth + BRICK_TO_BRICK_DISTANCE));
+        return Math.max(0, Math.min(col, bricksColsNum - 1));
+    }
+
+    /**
+     * Finds the row whose bricks span a y coordinate, or the nearest one.
+     *
+     * @param y The y coordinate.
+     * @return The row, clamped to the board.
+     */
+    int rowAt(float y) {
+        int row = (int) Math.floor((y - bricksTop) / (BRICK_HEIGHT + BRICK_TO_BRICK_DISTANCE));
+        return Math.max(0, Math.min(row, bricksRowsNum - 1));
+    }
+
+    /**
+     * Retrieves the left edge of the bricks of a column.
+     *
+     * @param col The column.
+     * @return The left edge.
+     */
+    float brickLeft(int col) {
+        return bricksLeft + col * (brickWidth + BRICK_TO_BRICK_DISTANCE);
+    }
+
+    /**
+     * Retrieves the top edge of the bricks of a row.
+     *
+     * @param row The row.
+     * @return The top edge.
+     */
+    float brickTop(int row) {
+        return bricksTop + row * (BRICK_HEIGHT + BRICK_TO_BRICK_DISTANCE);
+    }
+
+    /**
+     * Retrieves the width of every brick.
+     *
+     * @return The width.
+     */
+    float getBrickWidth() {
+        return brickWidth;
+    }
+
+    /**
+     * Retrieves the height of every brick.
+     *
+     * @return The height.
+     */
+    float getBrickHeight() {
+        return BRICK_HEIGHT;
+    }
+}
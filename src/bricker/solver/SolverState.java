@@ -0,0 +1,460 @@
+package bricker.solver;
+
+import bricker.brick_strategies.BrickStrategyFactory;
+
+import java.util.Arrays;
+
+/**
+ * The SolverState class is a stripped-down model of a game in progress, made to be copied and
+ * stepped millions of times by the {@link LevelSolver}: the bricks left, the balls, the falling
+ * hearts, the paddle and second paddle, the lives and the camera, all in primitive fields and
+ * arrays. It steps with the game's sizes, speeds and effects, but with its own simple collision
+ * response instead of danogl's, no spawn budget, and a random source of its own, so a solution
+ * is a close guide for the real game rather than an exact replay of it. The paddle keeps its
+ * normal width when a brick widens it, so the model never catches a ball the game would miss.
+ *
+ * Copies are copy-on-write: the bit set of the bricks, the largest part of the state, is shared
+ * between a state and its copies until one of them breaks a brick. The balls and hearts are few
+ * and change every frame, so they are copied outright.
+ */
+public class SolverState {
+
+    private static final int BALL_STRIDE = 4;    // x, y, velocity x, velocity y.
+    private static final int HEART_STRIDE = 2;   // x, y.
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int VELOCITY_X = 2;
+    private static final int VELOCITY_Y = 3;
+    private static final int MAIN_BALL = 0;      // The main ball is always the first.
+    private static final int INITIAL_BALLS_CAPACITY = 4;
+    private static final float HALF = 0.5f;
+    private static final long RANDOM_MULTIPLIER = 6364136223846793005L;
+    private static final long RANDOM_INCREMENT = 1442695040888963407L;
+
+    private final SolverBoard board;
+    private long[] bricks;              // A bit per brick still in the game.
+    private boolean bricksOwned;        // False while the bricks are shared with another state.
+    private int bricksLeft;
+    private float[] balls;
+    private int ballsNum;
+    private float[] hearts;
+    private int heartsNum;
+    private float paddleX;
+    private float secondPaddleX;
+    private int secondPaddleHitsLeft;   // 0 when there is no second paddle.
+    private int cameraHitsLeft;         // 0 when the camera is off.
+    private int lives;
+    private int frame;
+    private long randomState;
+
+    /**
+     * Constructs the state at the start of a level: every brick in place, the paddle centered
+     * and the main ball at the center of the window with a random diagonal velocity.
+     *
+     * @param board The board of the level.
+     * @param seed  The seed of the state's random source.
+     */
+    public SolverState(SolverBoard board, long seed) {
+        this.board = board;
+        int bricksNum = board.getBricksNum();
+        bricks = new long[(bricksNum + Long.SIZE - 1) / Long.SIZE];
+        Arrays.fill(bricks, -1L);
+        if (bricksNum % Long.SIZE != 0) {
+            bricks[bricks.length - 1] = (1L << (bricksNum % Long.SIZE)) - 1;
+        }
+        bricksOwned = true;
+        bricksLeft = bricksNum;
+        balls = new float[INITIAL_BALLS_CAPACITY * BALL_STRIDE];
+        ballsNum = 1;
+        hearts = new float[0];
+        paddleX = (board.getWindowWidth() - SolverBoard.PADDLE_WIDTH) * HALF;
+        lives = SolverBoard.INITIAL_LIVES;
+        randomState = seed;
+        resetMainBall();
+    }
+
+    /**
+     * Constructs a copy of a state, sharing its bricks until either breaks one.
+     */
+    private SolverState(SolverState other) {
+        board = other.board;
+        bricks = other.bricks;
+        bricksOwned = false;
+        other.bricksOwned = false;
+        bricksLeft = other.bricksLeft;
+        balls = Arrays.copyOf(other.balls, Math.max(other.ballsNum, INITIAL_BALLS_CAPACITY) * BALL_STRIDE);
+        ballsNum = other.ballsNum;
+        hearts = Arrays.copyOf(other.hearts, other.heartsNum * HEART_STRIDE);
+        heartsNum = other.heartsNum;
+        paddleX = other.paddleX;
+        secondPaddleX = other.secondPaddleX;
+        secondPaddleHitsLeft = other.secondPaddleHitsLeft;
+        cameraHitsLeft = other.cameraHitsLeft;
+        lives = other.lives;
+        frame = other.frame;
+        randomState = other.randomState;
+    }
+
+    /**
+     * Copies the state. Neither state changes the other when stepped.
+     *
+     * @return The copy.
+     */
+    public SolverState copy() {
+        return new SolverState(this);
+    }
+
+    /**
+     * Advances the state by one frame: moves the paddles in a direction, then every ball and
+     * heart, applying their bounces, broken bricks, caught hearts and lost lives.
+     *
+     * @param direction The direction of the paddles: -1 for left, 1 for right, 0 to stay.
+     * @param deltaTime The duration of the frame.
+     */
+    public void step(int direction, float deltaTime) {
+        frame++;
+        paddleX = movePaddle(paddleX, direction, deltaTime);
+        if (secondPaddleHitsLeft > 0) {
+            secondPaddleX = movePaddle(secondPaddleX, direction, deltaTime);
+        }
+        int ball = 0;
+        while (ball < ballsNum) {
+            if (moveBall(ball, deltaTime)) {
+                ball++;
+            }
+        }
+        int heart = 0;
+        while (heart < heartsNum) {
+            if (moveHeart(heart, deltaTime)) {
+                heart++;
+            }
+        }
+    }
+
+    /**
+     * Checks if every brick is broken.
+     *
+     * @return True if the level is cleared.
+     */
+    public boolean isCleared() {
+        return bricksLeft == 0;
+    }
+
+    /**
+     * Checks if the last life was lost.
+     *
+     * @return True if the game is lost.
+     */
+    public boolean isLost() {
+        return lives <= 0;
+    }
+
+    /**
+     * Retrieves the number of bricks still in the game.
+     *
+     * @return The number of bricks left.
+     */
+    public int getBricksLeft() {
+        return bricksLeft;
+    }
+
+    /**
+     * Retrieves the number of lives left.
+     *
+     * @return The number of lives.
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Retrieves the number of frames stepped since the start of the level.
+     *
+     * @return The number of frames.
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Retrieves the number of balls in the game, the main ball included.
+     *
+     * @return The number of balls.
+     */
+    public int getBallsNum() {
+        return ballsNum;
+    }
+
+    /**
+     * Retrieves the x coordinate of the center of the paddle.
+     *
+     * @return The center of the paddle.
+     */
+    public float getPaddleCenterX() {
+        return paddleX + SolverBoard.PADDLE_WIDTH * HALF;
+    }
+
+    /**
+     * Predicts the x coordinate of the main ball's center when it next reaches the paddle's
+     * height, folding its bounces off the side walls and the ceiling and ignoring the bricks.
+     *
+     * @return The predicted center.
+     */
+    public float predictMainBallLandingX() {
+        int offset = MAIN_BALL * BALL_STRIDE;
+        float x = balls[offset + X];
+        float y = balls[offset + Y];
+        float velocityX = balls[offset + VELOCITY_X];
+        float velocityY = balls[offset + VELOCITY_Y];
+        float landingY = paddleTop() - SolverBoard.BALL_SIZE;
+        float distanceY = velocityY > 0 ?
+                landingY - y :
+                (y - SolverBoard.WALLS_THICK) + (landingY - SolverBoard.WALLS_THICK);
+        float time = Math.max(0, distanceY) / Math.abs(velocityY);
+        float minX = SolverBoard.WALLS_THICK;
+        float span = board.getWindowWidth() - 2 * SolverBoard.WALLS_THICK - SolverBoard.BALL_SIZE;
+        // Unfold the side walls: the path is a line on a strip twice the span wide.
+        float unfolded = (x - minX + velocityX * time) % (2 * span);
+        if (unfolded < 0) {
+            unfolded += 2 * span;
+        }
+        float landingX = minX + (unfolded > span ? 2 * span - unfolded : unfolded);
+        return landingX + SolverBoard.BALL_SIZE * HALF;
+    }
+
+    /**
+     * Moves a paddle in a direction, keeping it inside the window.
+     */
+    private float movePaddle(float x, int direction, float deltaTime) {
+        x += direction * SolverBoard.PADDLE_SPEED * deltaTime;
+        float maxX = board.getWindowWidth() - SolverBoard.PADDLE_MIN_DISTANCE_FROM_EDGE -
+                SolverBoard.PADDLE_WIDTH;
+        return Math.max(SolverBoard.PADDLE_MIN_DISTANCE_FROM_EDGE, Math.min(x, maxX));
+    }
+
+    /**
+     * Moves a ball and bounces it off the walls, paddles and the first brick it overlaps.
+     *
+     * @return False if the ball fell and was removed, so another ball took its slot.
+     */
+    private boolean moveBall(int ball, float deltaTime) {
+        int offset = ball * BALL_STRIDE;
+        float size = ball == MAIN_BALL ? SolverBoard.BALL_SIZE : SolverBoard.EXTRA_BALL_SIZE;
+        balls[offset + X] += balls[offset + VELOCITY_X] * deltaTime;
+        balls[offset + Y] += balls[offset + VELOCITY_Y] * deltaTime;
+        boolean bounced = bounceOffWalls(offset, size);
+        if (bounceOff(offset, size, paddleX, paddleTop(), SolverBoard.PADDLE_WIDTH, SolverBoard.PADDLE_HEIGHT)) {
+            bounced = true;
+        }
+        if (secondPaddleHitsLeft > 0 && bounceOff(offset, size, secondPaddleX,
+                board.getWindowHeight() * HALF, SolverBoard.PADDLE_WIDTH, SolverBoard.PADDLE_HEIGHT)) {
+            secondPaddleHitsLeft--;
+            bounced = true;
+        }
+        if (hitBrick(ball, offset, size)) {
+            bounced = true;
+        }
+        if (bounced && ball == MAIN_BALL && cameraHitsLeft > 0) {
+            cameraHitsLeft--;
+        }
+        if (balls[offset + Y] + size * HALF <= board.getWindowHeight()) {
+            return true;
+        }
+        if (ball == MAIN_BALL) {
+            lives--;
+            if (lives > 0) {
+                resetMainBall();
+            }
+            return true;
+        }
+        removeBall(ball);
+        return false;
+    }
+
+    /**
+     * Bounces a ball off the side walls and the ceiling.
+     *
+     * @return True if the ball bounced.
+     */
+    private boolean bounceOffWalls(int offset, float size) {
+        boolean bounced = false;
+        float maxX = board.getWindowWidth() - SolverBoard.WALLS_THICK - size;
+        if (balls[offset + X] < SolverBoard.WALLS_THICK) {
+            balls[offset + X] = SolverBoard.WALLS_THICK;
+            balls[offset + VELOCITY_X] = Math.abs(balls[offset + VELOCITY_X]);
+            bounced = true;
+        } else if (balls[offset + X] > maxX) {
+            balls[offset + X] = maxX;
+            balls[offset + VELOCITY_X] = -Math.abs(balls[offset + VELOCITY_X]);
+            bounced = true;
+        }
+        if (balls[offset + Y] < SolverBoard.WALLS_THICK) {
+            balls[offset + Y] = SolverBoard.WALLS_THICK;
+            balls[offset + VELOCITY_Y] = Math.abs(balls[offset + VELOCITY_Y]);
+            bounced = true;
+        }
+        return bounced;
+    }
+
+    /**
+     * Bounces a ball off a box it overlaps, along the axis it overlaps the least, and moves it
+     * out of the box.
+     *
+     * @return True if the ball overlapped the box.
+     */
+    private boolean bounceOff(int offset, float size, float left, float top, float width, float height) {
+        float x = balls[offset + X];
+        float y = balls[offset + Y];
+        float overlapX = Math.min(x + size, left + width) - Math.max(x, left);
+        float overlapY = Math.min(y + size, top + height) - Math.max(y, top);
+        if (overlapX <= 0 || overlapY <= 0) {
+            return false;
+        }
+        boolean fromLeftOrTop;
+        if (overlapX < overlapY) {
+            fromLeftOrTop = x + size * HALF < left + width * HALF;
+            balls[offset + X] = fromLeftOrTop ? left - size : left + width;
+            balls[offset + VELOCITY_X] = Math.abs(balls[offset + VELOCITY_X]) * (fromLeftOrTop ? -1 : 1);
+        } else {
+            fromLeftOrTop = y + size * HALF < top + height * HALF;
+            balls[offset + Y] = fromLeftOrTop ? top - size : top + height;
+            balls[offset + VELOCITY_Y] = Math.abs(balls[offset + VELOCITY_Y]) * (fromLeftOrTop ? -1 : 1);
+        }
+        return true;
+    }
+
+    /**
+     * Bounces a ball off the first brick it overlaps, breaking the brick and applying its effects.
+     *
+     * @return True if the ball hit a brick.
+     */
+    private boolean hitBrick(int ball, int offset, float size) {
+        float x = balls[offset + X];
+        float y = balls[offset + Y];
+        int lastRow = board.rowAt(y + size);
+        int lastCol = board.columnAt(x + size);
+        for (int row = board.rowAt(y); row <= lastRow; row++) {
+            for (int col = board.columnAt(x); col <= lastCol; col++) {
+                int brick = row * board.getBricksColsNum() + col;
+                if ((bricks[brick / Long.SIZE] & (1L << brick)) != 0 &&
+                        bounceOff(offset, size, board.brickLeft(col), board.brickTop(row),
+                                board.getBrickWidth(), board.getBrickHeight())) {
+                    breakBrick(brick, ball, row, col);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a brick, copying the shared bricks first, and applies its strategy's effects.
+     */
+    private void breakBrick(int brick, int ball, int row, int col) {
+        if (!bricksOwned) {
+            bricks = bricks.clone();
+            bricksOwned = true;
+        }
+        bricks[brick / Long.SIZE] &= ~(1L << brick);
+        bricksLeft--;
+        float centerX = board.brickLeft(col) + board.getBrickWidth() * HALF;
+        float centerY = board.brickTop(row) + board.getBrickHeight() * HALF;
+        int ballsToAdd = board.getEffectCount(brick, BrickStrategyFactory.MORE_BALLS_EFFECT) *
+                SolverBoard.BALLS_PER_EFFECT;
+        for (int i = 0; i < ballsToAdd; i++) {
+            addBall(centerX - SolverBoard.EXTRA_BALL_SIZE * HALF, centerY - SolverBoard.EXTRA_BALL_SIZE * HALF);
+        }
+        int heartsToAdd = board.getEffectCount(brick, BrickStrategyFactory.ADD_LIFE_EFFECT);
+        for (int i = 0; i < heartsToAdd; i++) {
+            addHeart(centerX - SolverBoard.HEART_SIZE * HALF, centerY - SolverBoard.HEART_SIZE * HALF);
+        }
+        if (secondPaddleHitsLeft == 0 &&
+                board.getEffectCount(brick, BrickStrategyFactory.ADD_PADDLE_EFFECT) > 0) {
+            secondPaddleX = (board.getWindowWidth() - SolverBoard.PADDLE_WIDTH) * HALF;
+            secondPaddleHitsLeft = SolverBoard.SECOND_PADDLE_HITS;
+        }
+        if (ball == MAIN_BALL && cameraHitsLeft == 0 &&
+                board.getEffectCount(brick, BrickStrategyFactory.CAMERA_ON_EFFECT) > 0) {
+            // One more, as the hit turning the camera on is counted with the others.
+            cameraHitsLeft = SolverBoard.CAMERA_HITS + 1;
+        }
+    }
+
+    /**
+     * Moves a heart down, adding a life if the paddle catches it.
+     *
+     * @return False if the heart was removed, so another heart took its slot.
+     */
+    private boolean moveHeart(int heart, float deltaTime) {
+        int offset = heart * HEART_STRIDE;
+        float y = hearts[offset + Y] + SolverBoard.HEART_SPEED * deltaTime;
+        hearts[offset + Y] = y;
+        float x = hearts[offset + X];
+        boolean caught = x + SolverBoard.HEART_SIZE > paddleX && x < paddleX + SolverBoard.PADDLE_WIDTH &&
+                y + SolverBoard.HEART_SIZE > paddleTop() && y < paddleTop() + SolverBoard.PADDLE_HEIGHT;
+        if (caught) {
+            lives = Math.min(lives + 1, SolverBoard.MAX_LIVES);
+        }
+        if (!caught && y + SolverBoard.HEART_SIZE * HALF <= board.getWindowHeight()) {
+            return true;
+        }
+        int last = --heartsNum * HEART_STRIDE;
+        hearts[offset + X] = hearts[last + X];
+        hearts[offset + Y] = hearts[last + Y];
+        return false;
+    }
+
+    private void addBall(float x, float y) {
+        if (ballsNum * BALL_STRIDE == balls.length) {
+            balls = Arrays.copyOf(balls, balls.length * 2);
+        }
+        int offset = ballsNum++ * BALL_STRIDE;
+        balls[offset + X] = x;
+        balls[offset + Y] = y;
+        setRandomVelocity(offset);
+    }
+
+    private void removeBall(int ball) {
+        int offset = ball * BALL_STRIDE;
+        int last = --ballsNum * BALL_STRIDE;
+        System.arraycopy(balls, last, balls, offset, BALL_STRIDE);
+    }
+
+    private void addHeart(float x, float y) {
+        if (heartsNum * HEART_STRIDE == hearts.length) {
+            hearts = Arrays.copyOf(hearts, Math.max(HEART_STRIDE, hearts.length * 2));
+        }
+        int offset = heartsNum++ * HEART_STRIDE;
+        hearts[offset + X] = x;
+        hearts[offset + Y] = y;
+    }
+
+    /**
+     * Returns the main ball to the center of the window with a random diagonal velocity.
+     */
+    private void resetMainBall() {
+        int offset = MAIN_BALL * BALL_STRIDE;
+        balls[offset + X] = (board.getWindowWidth() - SolverBoard.BALL_SIZE) * HALF;
+        balls[offset + Y] = (board.getWindowHeight() - SolverBoard.BALL_SIZE) * HALF;
+        setRandomVelocity(offset);
+    }
+
+    private void setRandomVelocity(int offset) {
+        balls[offset + VELOCITY_X] = nextBoolean() ? -SolverBoard.BALL_SPEED : SolverBoard.BALL_SPEED;
+        balls[offset + VELOCITY_Y] = nextBoolean() ? -SolverBoard.BALL_SPEED : SolverBoard.BALL_SPEED;
+    }
+
+    /**
+     * Draws a boolean from the state's own random source, a linear congruential generator whose
+     * state is copied with the rest.
+     */
+    private boolean nextBoolean() {
+        randomState = randomState * RANDOM_MULTIPLIER + RANDOM_INCREMENT;
+        return randomState < 0;
+    }
+
+    private float paddleTop() {
+        return board.getWindowHeight() - SolverBoard.PADDLE_DISTANCE_FROM_BOTTOM -
+                SolverBoard.PADDLE_HEIGHT * HALF;
+    }
+}
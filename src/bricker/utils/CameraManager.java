@@ -1,52 +1,65 @@
 package bricker.utils;
 
-import danogl.GameManager;
+import danogl.GameObject;
 import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
 import bricker.gameobjects.Ball;
 
+import java.util.function.Consumer;
+
 /**
  * The `CameraManager` class manages the camera behavior,
  * centering the view on the main mainBall during gameplay.
  *
  * Features:
  * - Activates the camera to focus on the mainBall when triggered.
- * - Automatically turns off the camera after a specified number of mainBall hits.
+ * - Automatically turns off the camera after a specified number of mainBall hits, scheduled
+ * with the `EffectScheduler`.
+ * - Can follow the mainBall every few frames instead of every frame, through a stand-in that
+ * is moved to the mainBall's position by `update`.
  *
  * Usage:
- * - Create an instance by providing the `GameManager`, the `MainBall` object, and window dimensions.
+ * - Create an instance by providing where to set the camera (usually `GameManager::setCamera`),
+ * the `MainBall` object, window dimensions and the effect scheduler.
  * - Use `turnCameraOn` to activate the camera, and it will follow the mainBall until the hit
  * limit is reached.
- * - Call `manageCamera` regularly to update the camera state and turn it off when needed.
  *
  * Example:
  * ```java
- * CameraManager cameraManager = new CameraManager(gameManager, mainBall, windowDimensions);
+ * CameraManager cameraManager =
+ *         new CameraManager(gameManager::setCamera, mainBall, windowDimensions, effectScheduler);
  * cameraManager.turnCameraOn();
- * // ...
- * cameraManager.manageCamera();
  * ```
  */
 public class CameraManager {
     private static final int HITS_UNTIL_STOP_CAMERA = 4;
     private static final float CAMERA_DIM_FACTOR = 1.2f;
     private boolean isCameraOn;
-    private final GameManager gameManager;
+    private final Consumer<Camera> cameraSetter;
     private final Ball mainBall;
     private final Vector2 windowDimension;
+    private final EffectScheduler effectScheduler;
+    private TimingWheel.Timeout cameraExpiry;
     private int hitsToReach;
+    private final GameObject followTarget;   // Stands in for the mainBall between follows.
+    private int followInterval = 1;          // Frames between moves of the camera.
+    private int framesSinceFollow;
 
     /**
      * Constructs a `CameraManager` instance.
      *
-     * @param gameManager      The game manager.
+     * @param cameraSetter     Sets the camera of the game, or clears it when given null.
      * @param mainBall             The main mainBall to be tracked by the camera.
      * @param windowDimension  The dimensions of the game window.
+     * @param effectScheduler  Turns the camera off once the hit limit is reached.
      */
-    public CameraManager(GameManager gameManager, Ball mainBall, Vector2 windowDimension){
-        this.gameManager = gameManager;
+    public CameraManager(Consumer<Camera> cameraSetter, Ball mainBall, Vector2 windowDimension,
+                         EffectScheduler effectScheduler){
+        this.cameraSetter = cameraSetter;
         this.mainBall = mainBall;
         this.windowDimension = windowDimension;
+        this.effectScheduler = effectScheduler;
+        this.followTarget = new GameObject(Vector2.ZERO, mainBall.getDimensions(), null);
     }
 
     /**
@@ -54,27 +67,47 @@ public class CameraManager {
      */
     public void turnCameraOn(){
         isCameraOn = true;
-        hitsToReach = mainBall.getCollisionCounter() + HITS_UNTIL_STOP_CAMERA;
-        gameManager.setCamera(
-                new Camera(
-                        mainBall,
-                        Vector2.ZERO,
-                        windowDimension.mult(CAMERA_DIM_FACTOR),
-                        windowDimension
-                )
-        );
+        scheduleCameraOff(mainBall.getCollisionCounter() + HITS_UNTIL_STOP_CAMERA);
+        setCamera();
     }
 
     /**
-     * Manages the camera state, turning it off when the hit limit is reached.
+     * Sets how often the camera follows the mainBall, taking effect immediately.
+     *
+     * @param followInterval The number of frames between moves of the camera, 1 for every frame.
      */
-    public void manageCamera(){
-        if (isCameraOn && mainBall.getCollisionCounter() > hitsToReach){
-            isCameraOn = false;
-            gameManager.setCamera(null);
+    public void setFollowInterval(int followInterval) {
+        if (followInterval == this.followInterval) {
+            return;
+        }
+        this.followInterval = followInterval;
+        if (isCameraOn) {
+            setCamera();
         }
     }
 
+    /**
+     * Moves the camera's stand-in to the mainBall once every follow interval. Called once per frame.
+     */
+    public void update() {
+        if (!isCameraOn || followInterval == 1 || ++framesSinceFollow < followInterval) {
+            return;
+        }
+        moveFollowTarget();
+    }
+
+    /**
+     * Deactivates the camera, returning to the default view.
+     */
+    public void turnCameraOff(){
+        isCameraOn = false;
+        if (cameraExpiry != null) {
+            cameraExpiry.cancel();
+            cameraExpiry = null;
+        }
+        cameraSetter.accept(null);
+    }
+
     /**
      * Checks if the camera is currently active.
      *
@@ -83,4 +116,68 @@ public class CameraManager {
     public boolean isCameraOn() {
         return isCameraOn;
     }
+
+    /**
+     * Retrieves the number of mainBall hits after which the camera turns off.
+     *
+     * @return The hit count at which the camera turns off.
+     */
+    public int getHitsToReach() {
+        return hitsToReach;
+    }
+
+    /**
+     * Restores a saved camera state.
+     *
+     * @param cameraOn     Whether the camera should be active.
+     * @param hitsToReach  The hit count at which the camera turns off.
+     */
+    public void restore(boolean cameraOn, int hitsToReach){
+        if (cameraOn) {
+            turnCameraOn();
+            scheduleCameraOff(hitsToReach);
+        } else {
+            turnCameraOff();
+        }
+    }
+
+    /**
+     * Sets a camera following the mainBall, or its stand-in when following every few frames.
+     */
+    private void setCamera() {
+        GameObject target = mainBall;
+        if (followInterval > 1) {
+            moveFollowTarget();
+            target = followTarget;
+        }
+        cameraSetter.accept(
+                new Camera(
+                        target,
+                        Vector2.ZERO,
+                        windowDimension.mult(CAMERA_DIM_FACTOR),
+                        windowDimension
+                )
+        );
+    }
+
+    private void moveFollowTarget() {
+        framesSinceFollow = 0;
+        Vector2 ballCorner = mainBall.getTopLeftCorner();
+        followTarget.transform().setTopLeftCornerX(ballCorner.x());
+        followTarget.transform().setTopLeftCornerY(ballCorner.y());
+    }
+
+    /**
+     * Schedules the camera to turn off on the first hit past a given hit count.
+     *
+     * @param hitsToReach The hit count at which the camera turns off.
+     */
+    private void scheduleCameraOff(int hitsToReach){
+        this.hitsToReach = hitsToReach;
+        if (cameraExpiry != null) {
+            cameraExpiry.cancel();
+        }
+        int hitsLeft = Math.max(1, hitsToReach - mainBall.getCollisionCounter() + 1);
+        cameraExpiry = effectScheduler.afterBallHits(hitsLeft, this::turnCameraOff);
+    }
 }
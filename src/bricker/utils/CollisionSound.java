@@ -0,0 +1,50 @@
+package bricker.utils;
+
+import danogl.gui.Sound;
+
+/**
+ * The CollisionSound class plays the sound of ball collisions. When merged, many collisions in
+ * the same frame play the sound once, which keeps dozens of balls from flooding the audio mixer.
+ */
+public class CollisionSound {
+
+    private final Sound sound;          // Can be null, in which case nothing is played.
+    private boolean merged;
+    private boolean playedThisFrame;
+
+    /**
+     * Constructs a new CollisionSound instance.
+     *
+     * @param sound The sound to play. Can be null, in which case nothing is played.
+     */
+    public CollisionSound(Sound sound) {
+        this.sound = sound;
+    }
+
+    /**
+     * Plays the sound for a collision, unless merged and already played this frame.
+     */
+    public void play() {
+        if (sound == null || (merged && playedThisFrame)) {
+            return;
+        }
+        playedThisFrame = true;
+        sound.play();
+    }
+
+    /**
+     * Sets whether the collisions of a frame play the sound once.
+     *
+     * @param merged True to play the sound at most once per frame.
+     */
+    public void setMerged(boolean merged) {
+        this.merged = merged;
+    }
+
+    /**
+     * Starts a new frame.
+     */
+    public void endFrame() {
+        playedThisFrame = false;
+    }
+}
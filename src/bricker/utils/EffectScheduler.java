@@ -0,0 +1,112 @@
+package bricker.utils;
+
+/**
+ * The EffectScheduler class ends temporary effects, such as the camera following the ball, the
+ * second paddle or the widened paddle, without each of them counting on its own.
+ *
+ * An effect registers its expiry by game time or by hits, and the scheduler keeps one
+ * {@link TimingWheel} per clock: game time advances in fixed ticks of a frame at 60 FPS,
+ * while the hit clocks advance when the main ball or the second paddle is hit. Nothing is
+ * polled per frame, so hundreds of overlapping timed power-ups cost only what expires.
+ */
+public class EffectScheduler {
+
+    private static final float TICK_SECONDS = 1f / 60;   // The duration of a game time tick.
+    private static final int GAME_TIME_SLOTS = 512;       // About eight seconds of ticks.
+    private static final int HITS_SLOTS = 16;
+
+    private final TimingWheel gameTime = new TimingWheel(GAME_TIME_SLOTS);
+    private final TimingWheel ballHits = new TimingWheel(HITS_SLOTS);
+    private final TimingWheel paddleHits = new TimingWheel(HITS_SLOTS);
+    private float unprocessedTime;   // Game time not yet making up a whole tick.
+
+    /**
+     * Schedules an effect to end after a given amount of game time.
+     *
+     * @param seconds The game time until the effect ends.
+     * @param expiry  The action ending the effect.
+     * @return The timeout, which can be used to cancel the expiry.
+     */
+    public TimingWheel.Timeout afterSeconds(float seconds, Runnable expiry) {
+        return gameTime.schedule(Math.max(1, Math.round(seconds / TICK_SECONDS)), expiry);
+    }
+
+    /**
+     * Retrieves the game time left until an effect scheduled by {@link #afterSeconds} ends,
+     * so it can be saved and scheduled again.
+     *
+     * @param timeout The timeout returned when the effect was scheduled.
+     * @return The game time left, or 0 if the effect already ended or was cancelled.
+     */
+    public float getSecondsLeft(TimingWheel.Timeout timeout) {
+        return timeout.getTicksLeft() * TICK_SECONDS;
+    }
+
+    /**
+     * Schedules an effect to end after the main ball is hit a given number of times.
+     *
+     * @param hits   The number of hits until the effect ends.
+     * @param expiry The action ending the effect.
+     * @return The timeout, which can be used to cancel the expiry.
+     */
+    public TimingWheel.Timeout afterBallHits(int hits, Runnable expiry) {
+        return ballHits.schedule(hits, expiry);
+    }
+
+    /**
+     * Schedules an effect to end after the second paddle is hit a given number of times.
+     *
+     * @param hits   The number of hits until the effect ends.
+     * @param expiry The action ending the effect.
+     * @return The timeout, which can be used to cancel the expiry.
+     */
+    public TimingWheel.Timeout afterPaddleHits(int hits, Runnable expiry) {
+        return paddleHits.schedule(hits, expiry);
+    }
+
+    /**
+     * Advances game time, ending the effects whose time is up.
+     *
+     * @param deltaTime The game time elapsed since the last call.
+     */
+    public void advanceTime(float deltaTime) {
+        unprocessedTime += deltaTime;
+        while (unprocessedTime >= TICK_SECONDS) {
+            unprocessedTime -= TICK_SECONDS;
+            gameTime.tick();
+        }
+    }
+
+    /**
+     * Counts a hit of the main ball, ending the effects waiting for it.
+     */
+    public void recordBallHit() {
+        ballHits.tick();
+    }
+
+    /**
+     * Counts a hit of the second paddle, ending the effects waiting for it.
+     */
+    public void recordPaddleHit() {
+        paddleHits.tick();
+    }
+
+    /**
+     * Cancels all the pending effects, used when the game is reset or restored.
+     */
+    public void clear() {
+        gameTime.clear();
+        ballHits.clear();
+        paddleHits.clear();
+        unprocessedTime = 0;
+    }
+
+    /**
+     * Retrieves the number of effects waiting to end.
+     *
+     * @return The number of pending effects on all clocks.
+     */
+    public int getPendingCount() {
+        return gameTime.getPendingCount() + ballHits.getPendingCount() + paddleHits.getPendingCount();
+    }
+}
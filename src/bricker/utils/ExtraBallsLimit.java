@@ -0,0 +1,57 @@
+package bricker.utils;
+
+/**
+ * The ExtraBallsLimit class caps the number of extra balls in the game at once. The count is
+ * refreshed from the game objects once per frame and grows as extra balls are added, so balls
+ * added and lost during a frame are accounted for.
+ */
+public class ExtraBallsLimit {
+
+    /**
+     * The cap that lets any number of extra balls into the game.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private int cap = UNLIMITED;
+    private int count;   // The extra balls in the game or waiting to be added.
+
+    /**
+     * Counts an extra ball about to be added, if the cap allows it.
+     *
+     * @return True if the ball may be added.
+     */
+    public boolean tryAdd() {
+        if (count >= cap) {
+            return false;
+        }
+        count++;
+        return true;
+    }
+
+    /**
+     * Sets the number of extra balls in the game.
+     *
+     * @param count The number of extra balls.
+     */
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * Sets the maximum number of extra balls in the game at once.
+     *
+     * @param cap The cap, or {@link #UNLIMITED}.
+     */
+    public void setCap(int cap) {
+        this.cap = cap;
+    }
+
+    /**
+     * Retrieves the maximum number of extra balls in the game at once.
+     *
+     * @return The cap, or {@link #UNLIMITED}.
+     */
+    public int getCap() {
+        return cap;
+    }
+}
@@ -0,0 +1,143 @@
+package bricker.utils;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The GameObjectCommandBuffer class defers additions to and removals from a game object
+ * collection until a single sync point in the frame, so collision callbacks never change the
+ * collection while collisions are still being processed.
+ *
+ * Commands are deduplicated per object: adding or removing an object twice is done once,
+ * adding and then removing an object cancels the addition and removes it, which does nothing if
+ * it was not in the collection, and removing and then adding an object re-adds it. {@link #flush()} applies all the removals and then all
+ * the additions, each grouped by layer and otherwise in the order they were requested.
+ */
+public class GameObjectCommandBuffer {
+
+    private static final Comparator<Command> BY_LAYER = Comparator.comparingInt(command -> command.layer);
+
+    /**
+     * A requested addition or removal.
+     */
+    private static final class Command {
+        private final GameObject gameObject;
+        private final int layer;
+        private boolean cancelled;
+
+        private Command(GameObject gameObject, int layer) {
+            this.gameObject = gameObject;
+            this.layer = layer;
+        }
+    }
+
+    private final GameObjectCollection gameObjects;
+    private final Map<GameObject, Command> pendingAdditions = new IdentityHashMap<>();
+    private final Map<GameObject, Command> pendingRemovals = new IdentityHashMap<>();
+    private final List<Command> additions = new ArrayList<>();
+    private final List<Command> removals = new ArrayList<>();
+
+    /**
+     * Constructs a new GameObjectCommandBuffer instance.
+     *
+     * @param gameObjects The collection the commands are applied to.
+     */
+    public GameObjectCommandBuffer(GameObjectCollection gameObjects) {
+        this.gameObjects = gameObjects;
+    }
+
+    /**
+     * Requests adding an object to the default layer.
+     *
+     * @param gameObject The object to add.
+     */
+    public void addGameObject(GameObject gameObject) {
+        addGameObject(gameObject, Layer.DEFAULT);
+    }
+
+    /**
+     * Requests adding an object to a layer.
+     *
+     * @param gameObject The object to add.
+     * @param layer      The layer to add it to.
+     */
+    public void addGameObject(GameObject gameObject, int layer) {
+        if (pendingAdditions.containsKey(gameObject)) {
+            return;
+        }
+        Command command = new Command(gameObject, layer);
+        pendingAdditions.put(gameObject, command);
+        additions.add(command);
+    }
+
+    /**
+     * Requests removing an object from the default layer.
+     *
+     * @param gameObject The object to remove.
+     */
+    public void removeGameObject(GameObject gameObject) {
+        removeGameObject(gameObject, Layer.DEFAULT);
+    }
+
+    /**
+     * Requests removing an object from a layer.
+     *
+     * @param gameObject The object to remove.
+     * @param layer      The layer to remove it from.
+     */
+    public void removeGameObject(GameObject gameObject, int layer) {
+        Command addition = pendingAdditions.remove(gameObject);
+        if (addition != null) {
+            // The object may already be in the collection, so it is still removed; removing an
+            // object that is not there does nothing.
+            addition.cancelled = true;
+        }
+        if (pendingRemovals.containsKey(gameObject)) {
+            return;
+        }
+        Command command = new Command(gameObject, layer);
+        pendingRemovals.put(gameObject, command);
+        removals.add(command);
+    }
+
+    /**
+     * Applies the pending commands to the collection: removals first, then additions, each
+     * batched by layer.
+     */
+    public void flush() {
+        if (!removals.isEmpty()) {
+            removals.sort(BY_LAYER);
+            for (Command command : removals) {
+                gameObjects.removeGameObject(command.gameObject, command.layer);
+            }
+        }
+        if (!additions.isEmpty()) {
+            additions.sort(BY_LAYER);
+            for (Command command : additions) {
+                if (!command.cancelled) {
+                    gameObjects.addGameObject(command.gameObject, command.layer);
+                }
+            }
+        }
+        removals.clear();
+        additions.clear();
+        pendingRemovals.clear();
+        pendingAdditions.clear();
+    }
+
+    /**
+     * Retrieves the number of commands waiting for the next flush.
+     *
+     * @return The number of pending additions and removals.
+     */
+    public int getPendingCount() {
+        return pendingAdditions.size() + pendingRemovals.size();
+    }
+}
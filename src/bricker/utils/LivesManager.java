@@ -1,6 +1,5 @@
 package bricker.utils;
 
-import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.gui.rendering.Renderable;
 import danogl.gui.rendering.TextRenderable;
@@ -50,8 +49,8 @@ public class LivesManager {
     // Window dimensions for layout calculations
     private final Vector2 windowDimensions;
 
-    // GameObjectCollection for managing game objects
-    private final GameObjectCollection gameObjects;
+    // Buffered changes to the game objects
+    private final GameObjectCommandBuffer gameObjects;
 
     // Initial number of lives
     private final int initialLivesNum;
@@ -59,6 +58,9 @@ public class LivesManager {
     // Numeric representation of lives
     private NumericLifeCounter numericLifeCounter;
 
+    // Text shown by the numeric representation of lives
+    private TextRenderable numericRenderable;
+
     // Current number of lives
     private int curLives;
 
@@ -74,13 +76,13 @@ public class LivesManager {
      * @param initialLivesNum   The initial number of lives.
      * @param maxLives          The maximum allowed lives.
      * @param windowDimensions  The dimensions of the game window.
-     * @param gameObjects       The GameObjectCollection for managing game objects.
+     * @param gameObjects       The buffer of changes to the game objects.
      * @param heartImage        The Renderable representing the heart image.
      */
     public LivesManager(int initialLivesNum,
                         int maxLives,
                         Vector2 windowDimensions,
-                        GameObjectCollection gameObjects,
+                        GameObjectCommandBuffer gameObjects,
                         Renderable heartImage) {
         // Initialize counters and parameters
         livesCounter = new Counter(initialLivesNum);
@@ -129,6 +131,74 @@ public class LivesManager {
         livesCounter.increaseBy(initialLivesNum);
     }
 
+    /**
+     * Restarts the player's lives in place, reusing the existing numeric and graphic
+     * representations instead of creating new ones.
+     */
+    public void resetLives() {
+        setLives(initialLivesNum);
+    }
+
+    /**
+     * Retrieves the largest number of lives the player can have.
+     *
+     * @return The maximum allowed lives.
+     */
+    public int getMaxLives() {
+        return maxLives;
+    }
+
+    /**
+     * Retrieves the player's current number of lives.
+     *
+     * @return The current number of lives.
+     */
+    public int getLives() {
+        return livesCounter.value();
+    }
+
+    /**
+     * Sets the player's lives in place, updating the existing numeric and graphic
+     * representations to match.
+     *
+     * @param lives The new number of lives.
+     */
+    public void setLives(int lives) {
+        livesCounter.reset();
+        livesCounter.increaseBy(lives);
+        for (int i = Math.max(lives, 0); i < curLives; i++) {
+            gameObjects.removeGameObject(graphicLifeCounters[i], Layer.BACKGROUND);
+        }
+        for (int i = Math.max(curLives, 0); i < lives; i++) {
+            gameObjects.addGameObject(graphicLifeCounters[i], Layer.BACKGROUND);
+        }
+        curLives = lives;
+        numericRenderable.setString(String.valueOf(curLives));
+        numericRenderable.setColor(getLivesColor(curLives));
+    }
+
+    /**
+     * Retrieves the color the numeric counter shows a number of lives in.
+     *
+     * @param lives The number of lives. No lives show in the color of one life.
+     * @return The color of the number.
+     */
+    public Color getLivesColor(int lives) {
+        return lives <= NOT_GREEN_LIMIT ? LIVES_TO_COLOR.get(Math.max(lives, 1)) : Color.GREEN;
+    }
+
+    /**
+     * Shows or hides the heart icons, leaving the numeric counter as the only display of the
+     * lives while hidden. Hidden hearts stay in the game objects but draw nothing.
+     *
+     * @param visible True to draw the heart icons.
+     */
+    public void setDecorationsVisible(boolean visible) {
+        for (GraphicLifeCounter graphicLifeCounter : graphicLifeCounters) {
+            graphicLifeCounter.renderer().setRenderable(visible ? heartImage : null);
+        }
+    }
+
     /**
      * Manages changes in the player's lives, updating both numeric and graphic representations.
      */
@@ -164,8 +234,8 @@ public class LivesManager {
 
         Vector2 size = new Vector2(HEART_SIZE, HEART_SIZE);
         TextRenderable counterRenderable = new TextRenderable(String.valueOf(lives));
-        counterRenderable.setColor(livesCounter.value() <= NOT_GREEN_LIMIT ?
-                LIVES_TO_COLOR.get(livesCounter.value()): Color.GREEN);
+        counterRenderable.setColor(getLivesColor(livesCounter.value()));
+        numericRenderable = counterRenderable;
         numericLifeCounter = new NumericLifeCounter(location, size, counterRenderable);
         gameObjects.addGameObject(numericLifeCounter, Layer.BACKGROUND);
     }
@@ -0,0 +1,273 @@
+package bricker.utils;
+
+import bricker.diagnostics.TraceRecorder;
+import danogl.util.Vector2;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SpawnScheduler class spreads the creation of the objects spawned by brick strategies over
+ * frames. Collision callbacks only queue a request, a kind and a position; the objects are
+ * created once per frame by {@link #update()}, under a budget of spawns and, optionally, of time.
+ *
+ * High priority spawns come first, at least one per frame. Low priority spawns use what is left
+ * of the budget, and once they have waited the maximum delay they are spawned whatever the
+ * budget, so every request is eventually served and none is lost. Without a burst, every request
+ * is served in the frame it was made.
+ *
+ * The pending requests are plain data, so they can be saved with the rest of the game state.
+ */
+public class SpawnScheduler {
+
+    /**
+     * Creates the objects of one kind of spawn.
+     */
+    public interface Spawner {
+        /**
+         * Creates an object at a position and adds it to the game.
+         *
+         * @param position The position given with the request.
+         */
+        void spawn(Vector2 position);
+    }
+
+    /**
+     * The order in which spawns are served when the budget is short.
+     */
+    public enum Priority {
+        /** Spawns that change the play at once, such as extra balls. */
+        HIGH,
+        /** Spawns the player has time to react to, such as falling hearts. */
+        LOW
+    }
+
+    /**
+     * The bytes of a pending request written by {@link #writeTo(ByteBuffer)}: its kind, position
+     * and the frames it has waited.
+     */
+    public static final int REQUEST_BYTES = Byte.BYTES + 2 * Float.BYTES + Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long NO_TIME_BUDGET = Long.MAX_VALUE;
+
+    /**
+     * A FIFO of requests in parallel arrays, so queueing allocates nothing once grown.
+     */
+    private static final class RequestQueue {
+        private int[] kinds = new int[INITIAL_CAPACITY];
+        private float[] xs = new float[INITIAL_CAPACITY];
+        private float[] ys = new float[INITIAL_CAPACITY];
+        private int[] frames = new int[INITIAL_CAPACITY];   // The frame of each request.
+        private int head;
+        private int size;
+
+        private void add(int kind, float x, float y, int frame) {
+            if (size == kinds.length) {
+                grow();
+            }
+            int index = (head + size++) % kinds.length;
+            kinds[index] = kind;
+            xs[index] = x;
+            ys[index] = y;
+            frames[index] = frame;
+        }
+
+        private int index(int i) {
+            return (head + i) % kinds.length;
+        }
+
+        private void removeFirst() {
+            head = (head + 1) % kinds.length;
+            size--;
+        }
+
+        private void grow() {
+            int capacity = kinds.length * 2;
+            int[] newKinds = new int[capacity];
+            float[] newXs = new float[capacity];
+            float[] newYs = new float[capacity];
+            int[] newFrames = new int[capacity];
+            for (int i = 0; i < size; i++) {
+                int index = index(i);
+                newKinds[i] = kinds[index];
+                newXs[i] = xs[index];
+                newYs[i] = ys[index];
+                newFrames[i] = frames[index];
+            }
+            kinds = newKinds;
+            xs = newXs;
+            ys = newYs;
+            frames = newFrames;
+            head = 0;
+        }
+    }
+
+    private final int maxSpawnsPerFrame;
+    private final int maxLowPriorityDelay;    // Frames a low priority spawn may wait.
+    private final List<Spawner> spawners = new ArrayList<>();
+    private final List<Priority> priorities = new ArrayList<>();
+    private final RequestQueue highPriority = new RequestQueue();
+    private final RequestQueue lowPriority = new RequestQueue();
+    private long timeBudgetNanos = NO_TIME_BUDGET;
+    private int frame;
+
+    /**
+     * Constructs a new SpawnScheduler instance, without a time budget.
+     *
+     * @param maxSpawnsPerFrame   The number of objects spawned per frame when requests pile up.
+     * @param maxLowPriorityDelay The number of frames a low priority spawn may be deferred.
+     */
+    public SpawnScheduler(int maxSpawnsPerFrame, int maxLowPriorityDelay) {
+        this.maxSpawnsPerFrame = maxSpawnsPerFrame;
+        this.maxLowPriorityDelay = maxLowPriorityDelay;
+    }
+
+    /**
+     * Registers a kind of spawn. Kinds are numbered in registration order, so sessions
+     * registering the same spawners in the same order can share saved requests.
+     *
+     * @param spawner  Creates the objects of the kind.
+     * @param priority The priority of the kind.
+     * @return The kind, to request spawns with.
+     */
+    public int register(Spawner spawner, Priority priority) {
+        spawners.add(spawner);
+        priorities.add(priority);
+        return spawners.size() - 1;
+    }
+
+    /**
+     * Queues a spawn, served by the next update at the earliest.
+     *
+     * @param kind     A kind returned by {@link #register(Spawner, Priority)}.
+     * @param position The position passed to the kind's spawner.
+     */
+    public void request(int kind, Vector2 position) {
+        queueOf(kind).add(kind, position.x(), position.y(), frame);
+    }
+
+    /**
+     * Retrieves the number of registered kinds of spawn.
+     *
+     * @return The number of kinds; valid kinds are below it.
+     */
+    public int getKindsNum() {
+        return spawners.size();
+    }
+
+    /**
+     * Sets the time the spawns of a frame may take. The time a spawn takes depends on the
+     * machine, so a game that must be re-simulated exactly, such as a recorded replay, should
+     * keep to the spawn budget alone.
+     *
+     * @param timeBudgetNanos The time budget in nanoseconds, or 0 for none.
+     */
+    public void setTimeBudget(long timeBudgetNanos) {
+        this.timeBudgetNanos = timeBudgetNanos > 0 ? timeBudgetNanos : NO_TIME_BUDGET;
+    }
+
+    /**
+     * Serves the pending requests of the frame. Called once per frame.
+     */
+    public void update() {
+        long startTime = timeBudgetNanos != NO_TIME_BUDGET ? System.nanoTime() : 0;
+        long traceStart = TraceRecorder.now();
+        int spawnedNum = 0;
+        // Low priority spawns that waited the maximum delay are served whatever the budget.
+        while (lowPriority.size > 0 &&
+                frame - lowPriority.frames[lowPriority.head] >= maxLowPriorityDelay) {
+            spawnFirst(lowPriority);
+            spawnedNum++;
+        }
+        // One high priority spawn per frame at least, so the queue always drains.
+        boolean first = true;
+        while (highPriority.size > 0 && (first || isWithinBudget(spawnedNum, startTime))) {
+            spawnFirst(highPriority);
+            spawnedNum++;
+            first = false;
+        }
+        while (lowPriority.size > 0 && isWithinBudget(spawnedNum, startTime)) {
+            spawnFirst(lowPriority);
+            spawnedNum++;
+        }
+        if (spawnedNum > 0) {
+            TraceRecorder.complete(TraceRecorder.SPAWN_BURST, traceStart, spawnedNum);
+        }
+        frame++;
+    }
+
+    /**
+     * Drops every pending request, for when the objects they would spawn no longer belong in
+     * the game.
+     */
+    public void clear() {
+        highPriority.head = highPriority.size = 0;
+        lowPriority.head = lowPriority.size = 0;
+    }
+
+    /**
+     * Retrieves the number of requests waiting to be served.
+     *
+     * @return The number of pending requests.
+     */
+    public int getPendingCount() {
+        return highPriority.size + lowPriority.size;
+    }
+
+    /**
+     * Writes the pending requests: their count, then each one as {@link #REQUEST_BYTES} bytes.
+     *
+     * @param out The buffer to write to.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(getPendingCount());
+        writeQueue(out, highPriority);
+        writeQueue(out, lowPriority);
+    }
+
+    /**
+     * Replaces the pending requests with those written by {@link #writeTo(ByteBuffer)}, keeping
+     * how long each had waited.
+     *
+     * @param in The buffer to read from, positioned at the requests.
+     */
+    public void readFrom(ByteBuffer in) {
+        clear();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int kind = in.get();
+            float x = in.getFloat();
+            float y = in.getFloat();
+            int waited = in.getInt();
+            queueOf(kind).add(kind, x, y, frame - waited);
+        }
+    }
+
+    private boolean isWithinBudget(int spawnedNum, long startTime) {
+        return spawnedNum < maxSpawnsPerFrame &&
+                (timeBudgetNanos == NO_TIME_BUDGET || System.nanoTime() - startTime < timeBudgetNanos);
+    }
+
+    private void spawnFirst(RequestQueue queue) {
+        int index = queue.head;
+        int kind = queue.kinds[index];
+        Vector2 position = new Vector2(queue.xs[index], queue.ys[index]);
+        queue.removeFirst();
+        spawners.get(kind).spawn(position);
+    }
+
+    private RequestQueue queueOf(int kind) {
+        return priorities.get(kind) == Priority.HIGH ? highPriority : lowPriority;
+    }
+
+    private void writeQueue(ByteBuffer out, RequestQueue queue) {
+        for (int i = 0; i < queue.size; i++) {
+            int index = queue.index(i);
+            out.put((byte) queue.kinds[index])
+                    .putFloat(queue.xs[index])
+                    .putFloat(queue.ys[index])
+                    .putInt(frame - queue.frames[index]);
+        }
+    }
+}
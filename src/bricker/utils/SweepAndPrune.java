@@ -0,0 +1,228 @@
+package bricker.utils;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * The SweepAndPrune class finds the pairs of moving objects whose bounding boxes overlap, the
+ * candidates for the exact collision tests, without testing every object against every other.
+ *
+ * The entries are kept sorted by the left edge of their box. Objects move little between
+ * frames, so the order of the previous frame is almost sorted, and an insertion sort restores
+ * it in close to linear time. A sweep along the sorted order then only pairs each entry with
+ * the entries starting before its right edge, and emits those whose boxes also overlap
+ * vertically. Bounds live in parallel float arrays, so a frame allocates nothing.
+ *
+ * An entry is either a game object, whose bounds are read by {@link #refreshBodies()}, or a
+ * plain box set with {@link #setBounds(int, float, float, float, float)}.
+ */
+public class SweepAndPrune {
+
+    /**
+     * Receives the candidate pairs of a sweep.
+     */
+    public interface PairConsumer {
+        /**
+         * Accepts a pair of entries whose boxes overlap.
+         *
+         * @param first  An entry of the pair.
+         * @param second The other entry of the pair.
+         */
+        void accept(int first, int second);
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private GameObject[] bodies = new GameObject[INITIAL_CAPACITY];   // Null for plain boxes.
+    private float[] minX = new float[INITIAL_CAPACITY];
+    private float[] minY = new float[INITIAL_CAPACITY];
+    private float[] maxX = new float[INITIAL_CAPACITY];
+    private float[] maxY = new float[INITIAL_CAPACITY];
+    private int[] order = new int[INITIAL_CAPACITY];   // The entries by the left edge of their box.
+    private int size;
+    private long lastSwapsNum;
+
+    /**
+     * Adds a game object, reading its current bounds.
+     *
+     * @param body The object.
+     * @return The entry of the object.
+     */
+    public int add(GameObject body) {
+        Vector2 topLeftCorner = body.getTopLeftCorner();
+        Vector2 dimensions = body.getDimensions();
+        int entry = add(topLeftCorner.x(), topLeftCorner.y(),
+                topLeftCorner.x() + dimensions.x(), topLeftCorner.y() + dimensions.y());
+        bodies[entry] = body;
+        return entry;
+    }
+
+    /**
+     * Adds a plain box.
+     *
+     * @param left   The left edge of the box.
+     * @param top    The top edge of the box.
+     * @param right  The right edge of the box.
+     * @param bottom The bottom edge of the box.
+     * @return The entry of the box.
+     */
+    public int add(float left, float top, float right, float bottom) {
+        if (size == order.length) {
+            grow();
+        }
+        int entry = size++;
+        setBounds(entry, left, top, right, bottom);
+        // New entries join at the end of the order; the next sweep moves them into place.
+        order[entry] = entry;
+        return entry;
+    }
+
+    /**
+     * Removes an entry. The last entry takes the removed entry's number.
+     *
+     * @param entry The entry to remove.
+     */
+    public void remove(int entry) {
+        int last = --size;
+        int orderIndex = -1;
+        for (int i = 0; i <= last; i++) {
+            if (order[i] == entry) {
+                orderIndex = i;
+            } else if (order[i] == last) {
+                order[i] = entry;
+            }
+        }
+        System.arraycopy(order, orderIndex + 1, order, orderIndex, last - orderIndex);
+        bodies[entry] = bodies[last];
+        minX[entry] = minX[last];
+        minY[entry] = minY[last];
+        maxX[entry] = maxX[last];
+        maxY[entry] = maxY[last];
+        bodies[last] = null;
+    }
+
+    /**
+     * Moves the box of an entry.
+     *
+     * @param entry  The entry.
+     * @param left   The left edge of the box.
+     * @param top    The top edge of the box.
+     * @param right  The right edge of the box.
+     * @param bottom The bottom edge of the box.
+     */
+    public void setBounds(int entry, float left, float top, float right, float bottom) {
+        minX[entry] = left;
+        minY[entry] = top;
+        maxX[entry] = right;
+        maxY[entry] = bottom;
+    }
+
+    /**
+     * Reads the current bounds of every game object entry.
+     */
+    public void refreshBodies() {
+        for (int entry = 0; entry < size; entry++) {
+            GameObject body = bodies[entry];
+            if (body != null) {
+                Vector2 topLeftCorner = body.getTopLeftCorner();
+                Vector2 dimensions = body.getDimensions();
+                setBounds(entry, topLeftCorner.x(), topLeftCorner.y(),
+                        topLeftCorner.x() + dimensions.x(), topLeftCorner.y() + dimensions.y());
+            }
+        }
+    }
+
+    /**
+     * Restores the order of the entries and emits every pair whose boxes overlap, each once.
+     *
+     * @param consumer Receives the pairs.
+     * @return The number of pairs emitted.
+     */
+    public int sweep(PairConsumer consumer) {
+        sortByLeftEdge();
+        int pairsNum = 0;
+        for (int i = 0; i < size; i++) {
+            int entry = order[i];
+            float right = maxX[entry];
+            for (int j = i + 1; j < size; j++) {
+                int other = order[j];
+                if (minX[other] > right) {
+                    break;
+                }
+                if (minY[other] <= maxY[entry] && minY[entry] <= maxY[other]) {
+                    consumer.accept(entry, other);
+                    pairsNum++;
+                }
+            }
+        }
+        return pairsNum;
+    }
+
+    /**
+     * Retrieves the game object of an entry.
+     *
+     * @param entry The entry.
+     * @return The object, or null for a plain box.
+     */
+    public GameObject getBody(int entry) {
+        return bodies[entry];
+    }
+
+    /**
+     * Retrieves the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves how many moves the last sweep's insertion sort made, a measure of how much the
+     * order changed since the previous sweep.
+     *
+     * @return The number of moves.
+     */
+    public long getLastSwapsNum() {
+        return lastSwapsNum;
+    }
+
+    /**
+     * Insertion-sorts the entries by the left edge of their box, linear when almost sorted.
+     */
+    private void sortByLeftEdge() {
+        long swapsNum = 0;
+        for (int i = 1; i < size; i++) {
+            int entry = order[i];
+            float left = minX[entry];
+            int j = i - 1;
+            while (j >= 0 && minX[order[j]] > left) {
+                order[j + 1] = order[j];
+                j--;
+                swapsNum++;
+            }
+            order[j + 1] = entry;
+        }
+        lastSwapsNum = swapsNum;
+    }
+
+    private void grow() {
+        int capacity = order.length * 2;
+        GameObject[] newBodies = new GameObject[capacity];
+        System.arraycopy(bodies, 0, newBodies, 0, size);
+        bodies = newBodies;
+        minX = copyOf(minX, capacity);
+        minY = copyOf(minY, capacity);
+        maxX = copyOf(maxX, capacity);
+        maxY = copyOf(maxY, capacity);
+        int[] newOrder = new int[capacity];
+        System.arraycopy(order, 0, newOrder, 0, size);
+        order = newOrder;
+    }
+
+    private float[] copyOf(float[] values, int capacity) {
+        float[] copy = new float[capacity];
+        System.arraycopy(values, 0, copy, 0, size);
+        return copy;
+    }
+}
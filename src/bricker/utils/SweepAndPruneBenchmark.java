@@ -0,0 +1,142 @@
+package bricker.utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * The SweepAndPruneBenchmark class measures the {@link SweepAndPrune} broadphase on many balls
+ * moving and bouncing in a closed arena, against testing every pair of balls. The arena grows
+ * with the number of balls, so the balls are as crowded as the extra balls of a busy game.
+ * It prints the time per frame of both, the candidate pairs and insertion sort moves per frame,
+ * and whether both found the same number of pairs.
+ *
+ * Usage: SweepAndPruneBenchmark [balls] [frames]
+ */
+public class SweepAndPruneBenchmark {
+
+    private static final int DEFAULT_BALLS_NUM = 10_000;
+    private static final int DEFAULT_FRAMES_NUM = 600;
+    private static final int ALL_PAIRS_FRAMES_NUM = 10;        // All pairs are too slow for more.
+    private static final float BALL_SIZE = 15f;
+    private static final float ARENA_AREA_PER_BALL = 60 * 60;  // About a ball per 60x60 pixels.
+    private static final float ARENA_ASPECT = 700f / 500f;
+    private static final float BALL_SPEED = 300f;
+    private static final float FRAME_DELTA = 1f / 60;
+    private static final long SEED = 1;
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final String HEADER_MSG = "%d balls in a %.0f x %.0f arena%n";
+    private static final String SWEEP_MSG =
+            "Sweep and prune: %8.3f ms per frame, %.0f candidate pairs, %.0f sort moves per frame%n";
+    private static final String ALL_PAIRS_MSG = "All pairs:       %8.3f ms per frame, same pairs: %b%n";
+    private static final String SPEEDUP_MSG = "Speedup: %.1fx%n";
+
+    private final int ballsNum;
+    private final float arenaWidth;
+    private final float arenaHeight;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] velocityXs;
+    private final float[] velocityYs;
+
+    private SweepAndPruneBenchmark(int ballsNum) {
+        this.ballsNum = ballsNum;
+        float area = ballsNum * ARENA_AREA_PER_BALL;
+        arenaHeight = (float) Math.sqrt(area / ARENA_ASPECT);
+        arenaWidth = arenaHeight * ARENA_ASPECT;
+        xs = new float[ballsNum];
+        ys = new float[ballsNum];
+        velocityXs = new float[ballsNum];
+        velocityYs = new float[ballsNum];
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < ballsNum; i++) {
+            xs[i] = (float) random.nextDouble(arenaWidth - BALL_SIZE);
+            ys[i] = (float) random.nextDouble(arenaHeight - BALL_SIZE);
+            double angle = random.nextDouble(2 * Math.PI);
+            velocityXs[i] = (float) (BALL_SPEED * Math.cos(angle));
+            velocityYs[i] = (float) (BALL_SPEED * Math.sin(angle));
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optionally the number of balls and of frames.
+     */
+    public static void main(String[] args) {
+        int ballsNum = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BALLS_NUM;
+        int framesNum = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FRAMES_NUM;
+        SweepAndPruneBenchmark benchmark = new SweepAndPruneBenchmark(ballsNum);
+        System.out.printf(HEADER_MSG, ballsNum, benchmark.arenaWidth, benchmark.arenaHeight);
+
+        SweepAndPrune broadphase = new SweepAndPrune();
+        for (int i = 0; i < ballsNum; i++) {
+            broadphase.add(benchmark.xs[i], benchmark.ys[i],
+                    benchmark.xs[i] + BALL_SIZE, benchmark.ys[i] + BALL_SIZE);
+        }
+        long[] pairsNum = new long[1];
+        SweepAndPrune.PairConsumer countPair = (first, second) -> pairsNum[0]++;
+        // The first sweep sorts from scratch; the measured frames only restore the order.
+        broadphase.sweep(countPair);
+
+        long elapsed = 0;
+        long swapsNum = 0;
+        pairsNum[0] = 0;
+        int lastFramePairs = 0;
+        for (int frame = 0; frame < framesNum; frame++) {
+            benchmark.move(broadphase);
+            long startTime = System.nanoTime();
+            lastFramePairs = broadphase.sweep(countPair);
+            elapsed += System.nanoTime() - startTime;
+            swapsNum += broadphase.getLastSwapsNum();
+        }
+        double sweepMillis = elapsed / NANOS_IN_MILLI / framesNum;
+        System.out.printf(SWEEP_MSG, sweepMillis, (double) pairsNum[0] / framesNum,
+                (double) swapsNum / framesNum);
+
+        // All pairs, on the balls where the last sweep left them.
+        int allPairs = 0;
+        long startTime = System.nanoTime();
+        for (int frame = 0; frame < ALL_PAIRS_FRAMES_NUM; frame++) {
+            allPairs = benchmark.countAllPairs();
+        }
+        double allPairsMillis = (System.nanoTime() - startTime) / NANOS_IN_MILLI / ALL_PAIRS_FRAMES_NUM;
+        System.out.printf(ALL_PAIRS_MSG, allPairsMillis, allPairs == lastFramePairs);
+        System.out.printf(SPEEDUP_MSG, allPairsMillis / sweepMillis);
+    }
+
+    /**
+     * Moves every ball one frame, bouncing off the arena's sides, and updates its box.
+     */
+    private void move(SweepAndPrune broadphase) {
+        for (int i = 0; i < ballsNum; i++) {
+            xs[i] += velocityXs[i] * FRAME_DELTA;
+            ys[i] += velocityYs[i] * FRAME_DELTA;
+            if (xs[i] < 0 || xs[i] > arenaWidth - BALL_SIZE) {
+                velocityXs[i] = -velocityXs[i];
+                xs[i] = Math.max(0, Math.min(xs[i], arenaWidth - BALL_SIZE));
+            }
+            if (ys[i] < 0 || ys[i] > arenaHeight - BALL_SIZE) {
+                velocityYs[i] = -velocityYs[i];
+                ys[i] = Math.max(0, Math.min(ys[i], arenaHeight - BALL_SIZE));
+            }
+            broadphase.setBounds(i, xs[i], ys[i], xs[i] + BALL_SIZE, ys[i] + BALL_SIZE);
+        }
+    }
+
+    /**
+     * Tests every pair of balls for overlapping boxes.
+     *
+     * @return The number of overlapping pairs.
+     */
+    private int countAllPairs() {
+        int pairsNum = 0;
+        for (int i = 0; i < ballsNum; i++) {
+            for (int j = i + 1; j < ballsNum; j++) {
+                if (xs[j] <= xs[i] + BALL_SIZE && xs[i] <= xs[j] + BALL_SIZE &&
+                        ys[j] <= ys[i] + BALL_SIZE && ys[i] <= ys[j] + BALL_SIZE) {
+                    pairsNum++;
+                }
+            }
+        }
+        return pairsNum;
+    }
+}
@@ -0,0 +1,191 @@
+package bricker.utils;
+
+/**
+ * The TimingWheel class is a hashed timing wheel: a ring of slots, each holding a list of
+ * pending timeouts, over a clock that advances one tick at a time. A timeout due in d ticks is
+ * stored in slot (now + d) mod size, with the number of full turns of the wheel it still has
+ * to wait.
+ *
+ * Scheduling and cancelling are O(1), and a tick only visits the slot the clock moves into,
+ * so timeouts due far in the future are not looked at on every tick. The clock can count
+ * anything, such as frames of game time or hits.
+ */
+public class TimingWheel {
+
+    /**
+     * A pending action in a timing wheel, which can be cancelled until it runs.
+     */
+    public static final class Timeout {
+        private Runnable action;   // The action to run, null once run or cancelled.
+        private long rounds;       // Full turns of the wheel left before the timeout is due.
+        private int slot;          // The slot the timeout is stored in.
+        private Timeout previous;  // The previous timeout in the slot.
+        private Timeout next;      // The next timeout in the slot, or in the expired list.
+        private TimingWheel wheel; // The wheel holding the timeout, null once expired.
+
+        private Timeout(Runnable action) {
+            this.action = action;
+        }
+
+        /**
+         * Cancels the timeout so its action never runs.
+         *
+         * @return True if the timeout was pending, false if it already ran or was cancelled.
+         */
+        public boolean cancel() {
+            if (action == null) {
+                return false;
+            }
+            action = null;
+            if (wheel != null) {
+                wheel.unlink(this);
+            }
+            return true;
+        }
+
+        /**
+         * Checks if the timeout is still waiting to run.
+         *
+         * @return True if the action has neither run nor been cancelled.
+         */
+        public boolean isPending() {
+            return action != null;
+        }
+
+        /**
+         * Retrieves the number of ticks of its wheel's clock until the timeout is due.
+         *
+         * @return The ticks left, or 0 if the timeout already ran or was cancelled.
+         */
+        public long getTicksLeft() {
+            if (action == null || wheel == null) {
+                return 0;
+            }
+            return (rounds << wheel.shift) + ((slot - wheel.now - 1) & wheel.mask) + 1;
+        }
+    }
+
+    private final Timeout[] slots;   // The first timeout of each slot.
+    private final int mask;          // The size of the wheel minus one.
+    private final int shift;         // The log2 of the size of the wheel.
+    private long now;                // The current tick of the clock.
+    private int pendingCount;        // The number of timeouts in the wheel.
+
+    /**
+     * Constructs a new TimingWheel instance.
+     *
+     * @param slotsNum The number of slots, rounded up to a power of two. Timeouts due within
+     *                 this many ticks are found without waiting a full turn of the wheel.
+     */
+    public TimingWheel(int slotsNum) {
+        int size = Integer.highestOneBit(Math.max(1, slotsNum - 1)) << 1;
+        slots = new Timeout[size];
+        mask = size - 1;
+        shift = Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Schedules an action to run when the clock has advanced a given number of ticks.
+     *
+     * @param delayTicks The number of ticks until the action runs, at least one.
+     * @param action     The action to run.
+     * @return The timeout, which can be used to cancel the action.
+     */
+    public Timeout schedule(long delayTicks, Runnable action) {
+        if (delayTicks < 1) {
+            throw new IllegalArgumentException("Delay must be at least one tick: " + delayTicks);
+        }
+        Timeout timeout = new Timeout(action);
+        timeout.slot = (int) ((now + delayTicks) & mask);
+        timeout.rounds = (delayTicks - 1) >>> shift;
+        timeout.wheel = this;
+        Timeout head = slots[timeout.slot];
+        timeout.next = head;
+        if (head != null) {
+            head.previous = timeout;
+        }
+        slots[timeout.slot] = timeout;
+        pendingCount++;
+        return timeout;
+    }
+
+    /**
+     * Advances the clock by one tick and runs the actions that became due, in the order they
+     * were scheduled. Actions may schedule and cancel other timeouts.
+     */
+    public void tick() {
+        now++;
+        int slot = (int) (now & mask);
+        Timeout expired = null;
+        Timeout timeout = slots[slot];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds == 0) {
+                unlink(timeout);
+                // Timeouts are pushed at the head of their slot, so this reverses them back
+                // into scheduling order.
+                timeout.next = expired;
+                expired = timeout;
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+        while (expired != null) {
+            Timeout next = expired.next;
+            expired.next = null;
+            Runnable action = expired.action;
+            expired.action = null;
+            if (action != null) {
+                action.run();
+            }
+            expired = next;
+        }
+    }
+
+    /**
+     * Cancels all the pending timeouts.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            Timeout timeout = slots[i];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.action = null;
+                timeout.wheel = null;
+                timeout.previous = null;
+                timeout.next = null;
+                timeout = next;
+            }
+            slots[i] = null;
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * Retrieves the number of timeouts waiting in the wheel.
+     *
+     * @return The number of pending timeouts.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Removes a timeout from its slot.
+     */
+    private void unlink(Timeout timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.wheel = null;
+        pendingCount--;
+    }
+}
@@ -0,0 +1,88 @@
+package bricker.utils;
+
+/**
+ * The WindowedBudget class decides when an adaptive setting, such as the quality level or the
+ * render scale, should step down or back up to keep a time within a budget.
+ *
+ * Decisions are made on the average time of consecutive windows of frames: a window over the
+ * budget asks for a step down, and several windows in a row well under it ask for a step back
+ * up, so the setting does not flicker between two steps.
+ */
+public class WindowedBudget {
+
+    /** The setting should stay as it is. */
+    public static final int KEEP = 0;
+    /** The setting should step down, as the last window was over the budget. */
+    public static final int DEGRADE = 1;
+    /** The setting should step back up, as the last windows were well under the budget. */
+    public static final int RESTORE = 2;
+    private static final int WINDOW_FRAMES = 30;        // Frames averaged per decision.
+    private static final double HEADROOM_FACTOR = 0.5;  // Of the budget, to step back up.
+    private static final int HEADROOM_WINDOWS = 4;      // In a row, to step back up.
+
+    private final long budgetNanos;
+    private long windowNanos;       // The frame times of the current window.
+    private int windowFrames;
+    private int headroomWindows;    // Consecutive windows well under the budget.
+    private double lastAverageNanos;
+
+    /**
+     * Constructs a new WindowedBudget.
+     *
+     * @param budgetNanos The time a frame may take, in nanoseconds.
+     */
+    public WindowedBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Records the time a frame took, deciding on a step at the end of a window.
+     *
+     * @param frameNanos The time the frame took, in nanoseconds.
+     * @param canDegrade Whether the setting has a step down left.
+     * @param canRestore Whether the setting has a step back up left.
+     * @return {@link #DEGRADE} or {@link #RESTORE} if the setting should change, {@link #KEEP}
+     *         otherwise.
+     */
+    public int recordFrame(long frameNanos, boolean canDegrade, boolean canRestore) {
+        windowNanos += frameNanos;
+        if (++windowFrames < WINDOW_FRAMES) {
+            return KEEP;
+        }
+        lastAverageNanos = (double) windowNanos / windowFrames;
+        windowNanos = 0;
+        windowFrames = 0;
+        if (lastAverageNanos > budgetNanos) {
+            headroomWindows = 0;
+            if (canDegrade) {
+                return DEGRADE;
+            }
+        } else if (lastAverageNanos < budgetNanos * HEADROOM_FACTOR) {
+            if (canRestore && ++headroomWindows >= HEADROOM_WINDOWS) {
+                headroomWindows = 0;
+                return RESTORE;
+            }
+        } else {
+            headroomWindows = 0;
+        }
+        return KEEP;
+    }
+
+    /**
+     * Retrieves the average frame time of the last complete window.
+     *
+     * @return The average time, in nanoseconds.
+     */
+    public double getLastAverageNanos() {
+        return lastAverageNanos;
+    }
+
+    /**
+     * Retrieves the budget.
+     *
+     * @return The time a frame may take, in nanoseconds.
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+}